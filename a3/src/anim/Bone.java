@@ -52,9 +52,20 @@ public class Bone {
 	}
 
 	public Matrix4 createTransformation() {
+		return createTransformation(new Matrix4());
+	}
+	/**
+	 * Build This Bone's Local Transformation Into Out Without Allocating
+	 * @param out Non-Null Output Matrix
+	 * @return Out
+	 */
+	public Matrix4 createTransformation(Matrix4 out) {
 		// Rotate First
-		Matrix4 m = rotation.toRotationMatrix(new Matrix4());
-		// Then Translate
-		return m.mulAfter(Matrix4.createTranslation(offset));
+		rotation.toRotationMatrix(out.setIdentity());
+		// Then Translate (Composing With A Pure Rotation Just Fills The Translation Column)
+		out.m[12] = offset.x;
+		out.m[13] = offset.y;
+		out.m[14] = offset.z;
+		return out;
 	}
 }
@@ -82,12 +82,21 @@ public class Skeleton {
 	 */
 	public Matrix4[] buildTransforms() {
 		Matrix4[] m = new Matrix4[boneCount];
+		for(int i = 0;i < boneCount;i++) m[i] = new Matrix4();
+		return buildTransforms(m);
+	}
+	/**
+	 * Fill A Reused List Of Bone Transformations In The Skeleton's Space Without Allocating
+	 * @param m Array Of At Least boneCount Non-Null Matrices
+	 * @return m
+	 */
+	public Matrix4[] buildTransforms(Matrix4[] m) {
 		for(Bone b : roots) traverse(b, m);
 		return m;
 	}
 	private void traverse(Bone b, Matrix4[] trans) {
 		// Create The Local Transformation
-		trans[b.index] = b.createTransformation();
+		b.createTransformation(trans[b.index]);
 		
 		// Apply Parent's Transformation For A Full One
 		if(b.parent != null) {
@@ -0,0 +1,81 @@
+package blister;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * Frame Times Collected Over A Run, Summarized As Mean, Percentiles And Extremes
+ */
+public class FrameStats {
+	/**
+	 * Frame Times In Seconds, In Order
+	 */
+	private double[] times;
+	private int count = 0;
+
+	/**
+	 * @param capacity Expected Number Of Frames (More Can Be Added)
+	 */
+	public FrameStats(int capacity) {
+		times = new double[Math.max(capacity, 16)];
+	}
+
+	/**
+	 * @param seconds Duration Of One Frame
+	 */
+	public void add(double seconds) {
+		if(count == times.length) times = Arrays.copyOf(times, count * 2);
+		times[count++] = seconds;
+	}
+	/**
+	 * @return Number Of Frames Added
+	 */
+	public int size() {
+		return count;
+	}
+	/**
+	 * @param i Frame Index In [0, size())
+	 * @return Duration Of The Frame In Seconds
+	 */
+	public double get(int i) {
+		return times[i];
+	}
+
+	/**
+	 * Write One Frame Time Per Line, In Milliseconds
+	 * @param file Path Of The Text File To Create
+	 */
+	public void write(String file) throws IOException {
+		try(PrintWriter w = new PrintWriter(new FileWriter(file))) {
+			for(int i = 0;i < count;i++) w.println(times[i] * 1000.0);
+		}
+	}
+
+	@Override
+	public String toString() {
+		if(count == 0) return "Frames: 0";
+		double[] sorted = Arrays.copyOf(times, count);
+		Arrays.sort(sorted);
+		double sum = 0, sumSq = 0;
+		for(int i = 0;i < count;i++) {
+			sum += sorted[i];
+			sumSq += sorted[i] * sorted[i];
+		}
+		double mean = sum / count;
+		double dev = count > 1 ? Math.sqrt(Math.max(0, (sumSq - count * mean * mean) / (count - 1))) : 0;
+		return String.format("Frames: %d, Mean: %.3f ms (%.1f FPS), Min: %.3f ms, Median: %.3f ms, 95th: %.3f ms, 99th: %.3f ms, Max: %.3f ms, Deviation: %.3f ms",
+				count, mean * 1000, 1 / mean, sorted[0] * 1000, percentile(sorted, 0.5) * 1000,
+				percentile(sorted, 0.95) * 1000, percentile(sorted, 0.99) * 1000, sorted[count - 1] * 1000, dev * 1000);
+	}
+	/**
+	 * @param sorted Frame Times In Increasing Order
+	 * @param p Fraction In [0, 1]
+	 * @return The Smallest Time That At Least A Fraction p Of The Frames Do Not Exceed
+	 */
+	private static double percentile(double[] sorted, double p) {
+		int i = (int)Math.ceil(p * sorted.length) - 1;
+		return sorted[Math.min(Math.max(i, 0), sorted.length - 1)];
+	}
+}
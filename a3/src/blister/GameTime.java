@@ -14,6 +14,15 @@ public class GameTime {
 	 * Elapsed Time Slice (Between A Frame)
 	 */
     public double elapsed;
+    /**
+     * Fraction Of A Fixed Update Step That Passed Since The Last Update, For Drawing Between Steps
+     * (Always 0 In Update Time)
+     */
+    public double interpolation;
+    /**
+     * Number Of Frames Drawn Before This One
+     */
+    public int frame;
     
     /**
      * Zero-Fill Constructor
@@ -21,5 +30,7 @@ public class GameTime {
     public GameTime() {
     	total = 0;
     	elapsed = 0;
+    	interpolation = 0;
+    	frame = 0;
     }
 }
@@ -1,5 +1,6 @@
 package blister;
 
+import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.util.Calendar;
 
@@ -77,13 +78,58 @@ public abstract class MainGame implements IDisposable {
 	 */
 	private long lastNS = 0;
 	/**
-	 * Instances Of The Game's Current Time
+	 * Instances Of The Game's Current Time (Simulated Time, Advanced By Updates)
 	 */
 	private GameTime lastTime, curTime;
 	/**
-	 * OpenGL Context
+	 * Time Given To Drawing: The Simulated Time Plus The Part Of A Step Not Yet Simulated
 	 */
-	private ContextAttribs glContext = new ContextAttribs(2, 1);
+	private GameTime drawTime;
+	/**
+	 * Real Time Not Yet Consumed By Fixed Updates
+	 */
+	private double accumulator = 0;
+
+	/**
+	 * Fixed Updates Per Second, Each Receiving An Elapsed Time Of 1 / updatesPerSecond Regardless Of
+	 * The Frame Rate ("loop.ups"; 0 Or Less To Update Once Per Frame With The Measured Time)
+	 */
+	public double updatesPerSecond = Double.parseDouble(System.getProperty("loop.ups", "60"));
+	/**
+	 * Most Fixed Updates Run Before One Frame; Time Beyond That Is Dropped So Slow Frames Do Not Snowball
+	 */
+	public int maxUpdatesPerFrame = 5;
+	/**
+	 * Frames Per Second Cap ("loop.fps"; 0 For None)
+	 */
+	public int frameLimit = Integer.getInteger("loop.fps", 60);
+	/**
+	 * Wait For Vertical Sync When Presenting Frames ("loop.vsync")
+	 */
+	public boolean isVSynced = Boolean.parseBoolean(System.getProperty("loop.vsync", "true"));
+	/**
+	 * Frames Measured In Benchmark Mode ("benchmark.frames"; 0 For A Normal Run).  A Benchmark Runs
+	 * Without Vertical Sync Or A Frame Cap, Updates Exactly Once Per Frame With The Fixed Step (So
+	 * Scripted Motion Only Depends On The Frame Count), Then Prints Frame-Time Statistics And Stops.
+	 */
+	public int benchmarkFrames = Integer.getInteger("benchmark.frames", 0);
+	/**
+	 * Frames Run Before Measuring Starts (Loading, JIT Compilation)
+	 */
+	public int benchmarkWarmupFrames = Integer.getInteger("benchmark.warmup", 60);
+	/**
+	 * Text File Receiving Every Measured Frame Time ("benchmark.out"; Null For None)
+	 */
+	public String benchmarkOutput = System.getProperty("benchmark.out");
+	private FrameStats benchmarkStats = null;
+	/**
+	 * OpenGL Context, Of The Version Named By The "gl.version" System Property (Such As -Dgl.version=4.3)
+	 */
+	private ContextAttribs glContext = createContextAttribs(System.getProperty("gl.version", DEFAULT_CONTEXT_VERSION));
+	/**
+	 * Context Version Asked For When None Is Configured, Or When The Configured One Cannot Be Created
+	 */
+	public static final String DEFAULT_CONTEXT_VERSION = "2.1";
 	/**
 	 * OpenGL Backbuffer Pixel Format
 	 */
@@ -101,7 +147,6 @@ public abstract class MainGame implements IDisposable {
 	 * @param h Desired Window Height
 	 */
 	public MainGame(String title, int w, int h, ContextAttribs context, org.lwjgl.opengl.PixelFormat pixelFormat) {
-		Display.setVSyncEnabled(true);
 		// Display.setResizable(true);
 		Display.setTitle(title);
 
@@ -115,6 +160,7 @@ public abstract class MainGame implements IDisposable {
 
 		curTime = new GameTime();
 		lastTime = new GameTime();
+		drawTime = new GameTime();
 		
 		if(context != null) glContext = context;
 		if(pixelFormat != null) glPixelFormat = pixelFormat;
@@ -122,6 +168,27 @@ public abstract class MainGame implements IDisposable {
 	public MainGame(String title, int w, int h) {
 		this(title, w, h, null, null);
 	}
+	/**
+	 * Describe A Context Of A Version, With The Compatibility Profile Where Profiles Exist (3.2 And Up)
+	 * So That Fixed-Function Calls And GLSL 1.20 Shaders Keep Working
+	 * @param version "Major.Minor"
+	 * @return Context Attributes (For Version 2.1 If The Version Cannot Be Read)
+	 */
+	public static ContextAttribs createContextAttribs(String version) {
+		int major, minor;
+		try {
+			String[] parts = version.trim().split("\\.");
+			major = Integer.parseInt(parts[0]);
+			minor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+		}
+		catch(NumberFormatException e) {
+			System.err.println("Could Not Read OpenGL Version \"" + version + "\", Using " + DEFAULT_CONTEXT_VERSION);
+			return createContextAttribs(DEFAULT_CONTEXT_VERSION);
+		}
+		ContextAttribs attribs = new ContextAttribs(major, minor);
+		if(major > 3 || (major == 3 && minor >= 2)) attribs = attribs.withProfileCompatibility(true);
+		return attribs;
+	}
 	/**
 	 * Disposes Of All Screens And Exits The Application
 	 */
@@ -169,8 +236,17 @@ public abstract class MainGame implements IDisposable {
 	 */
 	private void createDisplay() {
 		try{
+			Display.setVSyncEnabled(isVSynced && !isBenchmarking());
 			Display.setDisplayMode(new DisplayMode(eWR.width, eWR.height));
-			Display.create(glPixelFormat, glContext);
+			try {
+				Display.create(glPixelFormat, glContext);
+			}
+			catch (LWJGLException e) {
+				// Drivers Refuse Versions They Do Not Support, So Retry With The Default
+				System.err.println("Could Not Create OpenGL " + glContext.getMajorVersion() + "." + glContext.getMinorVersion() + " Context, Using " + DEFAULT_CONTEXT_VERSION);
+				glContext = createContextAttribs(DEFAULT_CONTEXT_VERSION);
+				Display.create(glPixelFormat, glContext);
+			}
 			GLState.enableAll();
 			
 			GL11.glViewport(0, 0, eWR.width, eWR.height);
@@ -286,16 +362,79 @@ public abstract class MainGame implements IDisposable {
 		}
 	}
 	/**
-	 * Updates The Game Time
+	 * @return True If Running In Benchmark Mode (See {@link #benchmarkFrames})
+	 */
+	public boolean isBenchmarking() {
+		return benchmarkFrames > 0;
+	}
+	/**
+	 * Measures The Real Time Since The Last Frame
+	 * @return Elapsed Seconds
 	 */
-	private void refreshElapsedTime() {
+	private double refreshElapsedTime() {
 		long ct = System.nanoTime();
 		double et = (ct - lastNS) / 1000000000.0;
 		lastNS = ct;
+		return et;
+	}
+	/**
+	 * Runs The Updates Due After A Frame Of Real Time, And Sets The Time Given To Drawing
+	 * @param et Real Seconds Since The Last Frame
+	 */
+	private void advanceTime(double et) {
+		double step = updatesPerSecond > 0 ? 1.0 / updatesPerSecond : 0;
+		double interpolation = 0;
+		if(step == 0) {
+			update(et);
+		}
+		else if(isBenchmarking()) {
+			update(step);
+		}
+		else {
+			accumulator += et;
+			int n = 0;
+			while(accumulator >= step && n < maxUpdatesPerFrame) {
+				update(step);
+				accumulator -= step;
+				n++;
+			}
+			if(accumulator >= step) accumulator %= step;
+			interpolation = accumulator / step;
+		}
 
+		drawTime.elapsed = et;
+		drawTime.total = curTime.total + interpolation * step;
+		drawTime.interpolation = interpolation;
+	}
+	/**
+	 * Advances The Game Time By One Update And Runs It
+	 */
+	private void update(double et) {
 		curTime.elapsed = et;
 		curTime.total += et;
 		lastTime = curTime;
+		onUpdateFrame();
+	}
+	/**
+	 * Adds A Frame Time To The Benchmark, Reporting And Stopping Once Enough Frames Were Measured
+	 * @param et Real Seconds Taken By The Frame
+	 */
+	private void measureFrame(double et) {
+		if(drawTime.frame <= benchmarkWarmupFrames) return;
+		if(benchmarkStats == null) benchmarkStats = new FrameStats(benchmarkFrames);
+		benchmarkStats.add(et);
+		if(benchmarkStats.size() < benchmarkFrames) return;
+
+		System.out.println("Benchmark: " + benchmarkStats);
+		if(benchmarkOutput != null) {
+			try {
+				benchmarkStats.write(benchmarkOutput);
+			}
+			catch(IOException e) {
+				e.printStackTrace();
+			}
+		}
+		isRunning = false;
 	}
 	/**
 	 * Frame Update Logic
@@ -337,23 +476,26 @@ public abstract class MainGame implements IDisposable {
 	 */
 	protected void onRenderFrame() {
 		if(screen != null && screen.getState() == ScreenState.Running) {
-			screen.draw(curTime);
+			screen.draw(drawTime);
 		}
+		drawTime.frame++;
 	}
 
 	/**
-	 * Initializes And Runs The Window In The Current Thread (Blocking Operation)
+	 * Initializes And Runs The Window In The Current Thread (Blocking Operation).
+	 * Each Frame Runs The Fixed Updates That Are Due, Then Draws Once.
 	 */
 	public void run() {
 		init();
 
 		isRunning = true;
 		while(isRunning) {
-			Display.sync(60);
+			if(frameLimit > 0 && !isBenchmarking()) Display.sync(frameLimit);
 
 			checkInput();
-			refreshElapsedTime();
-			onUpdateFrame();
+			double et = refreshElapsedTime();
+			if(isBenchmarking()) measureFrame(et);
+			advanceTime(et);
 			onRenderFrame();
 
 			Display.update();
@@ -1,8 +1,8 @@
 package common;
 import java.io.File;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -90,9 +90,9 @@ public class Scene {
 	public Vector3 background = new Vector3();
 	
 	/**
-	 * A list of queues that listen to updates in the scene
+	 * A list of queues that listen to updates in the scene (events are sent from several threads)
 	 */
-	private final ArrayList<SceneEventQueue> changeListeners = new ArrayList<>();
+	private final CopyOnWriteArrayList<SceneEventQueue> changeListeners = new CopyOnWriteArrayList<>();
 
 	public Scene() {
 		// Add Primitive Shapes
@@ -133,6 +133,9 @@ public class Scene {
 	public void addListener(SceneEventQueue q){
 		changeListeners.add(q);
 	}
+	public void removeListener(SceneEventQueue q){
+		changeListeners.remove(q);
+	}
 	public void sendEvent(SceneEvent e) {
 		for(SceneEventQueue q : changeListeners) q.addEvent(e);		
 	}
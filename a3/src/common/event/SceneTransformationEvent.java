@@ -1,12 +1,18 @@
 package common.event;
 
 import common.SceneObject;
+import egl.math.Matrix4;
 
 public class SceneTransformationEvent extends SceneEvent {
 	public final SceneObject object;
+	/**
+	 * Copy Of The Object's Transformation When The Event Was Sent, Taken By The Editing Thread
+	 */
+	public final Matrix4 transformation;
 	
 	public SceneTransformationEvent(SceneObject o) {
 		super(SceneDataType.Object);
 		object = o;
+		transformation = new Matrix4(o.transformation);
 	}
 }
@@ -5,8 +5,11 @@ import static org.lwjgl.opengl.GL15.glBufferData;
 import static org.lwjgl.opengl.GL15.glBufferSubData;
 import static org.lwjgl.opengl.GL15.glDeleteBuffers;
 import static org.lwjgl.opengl.GL15.glGenBuffers;
+import static org.lwjgl.opengl.GL15.glGetBufferSubData;
+import static org.lwjgl.opengl.GL20.glDisableVertexAttribArray;
 import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
 import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.glBindBufferBase;
 import static org.lwjgl.opengl.GL33.glVertexAttribDivisor;
 
 import java.nio.ByteBuffer;
@@ -84,6 +87,14 @@ public class GLBuffer implements IDisposable {
     public static void unbind(int t) {
         currentBindings.get(t).unbind();
     }
+    /**
+     * Forget Which Buffer Is Bound To A Target Without Changing The Binding,
+     * After Something Else (Such As A Vertex Array) Changed It
+     * @param t Enum {@link BufferTarget}
+     */
+    public static void forgetBinding(int t) {
+        currentBindings.get(t).current = null;
+    }
 
     /**
      * OpenGL Object ID
@@ -311,6 +322,19 @@ public class GLBuffer implements IDisposable {
     public void unbind() {
         if(getIsBound()) refBind.unbind();
     }
+    /**
+     * Bind This Buffer To An Indexed Binding Point Of Its Target (Which Also Binds It To The Target)
+     * <br/><br/>
+     * <code>
+     * glBindBufferBase(target, index, id);
+     * </code>
+     * @param index Binding Point
+     */
+    public void bindBase(int index) {
+        refBind.current = this;
+        glBindBufferBase(target, index, id);
+        GLError.get("Buffer Bind Base");
+    }
     /**
      * Use This As A Vertex Buffer With Elements Bound To An Attribute
      * @param loc Attribute Location
@@ -379,6 +403,19 @@ public class GLBuffer implements IDisposable {
     public void useAsAttrib(ShaderInterface si) {
     	useAsAttrib(si, 0);
     }
+    /**
+     * Disable The Attributes Of An Interface And Reset Their Instancing Divisors, So That
+     * Programs Sharing The Locations Read Them Per Vertex Again
+     * @param si Interface Previously Passed To {@link #useAsAttrib(ShaderInterface, int, int)}
+     */
+    public static void unuseAsAttrib(ShaderInterface si) {
+        for(ArrayBind bind : si.binds) {
+            if(bind.location < 0) continue;
+            glVertexAttribDivisor(bind.location, 0);
+            glDisableVertexAttribArray(bind.location);
+        }
+        GLError.get("Unuse VAA");
+    }
 
     /**
      * Resize This Buffer (And Discard Buffer Data)
@@ -494,6 +531,30 @@ public class GLBuffer implements IDisposable {
         glBufferSubData(target, off, data);
         unbind();
     }
+    public void setData(FloatBuffer data, long off) {
+        bind();
+        glBufferSubData(target, off, data);
+        unbind();
+    }
+    public void setData(IntBuffer data, long off) {
+        bind();
+        glBufferSubData(target, off, data);
+        unbind();
+    }
+    /**
+     * Copy Buffer Contents Back Into Client Memory (Blocks Until Pending Writes To The Buffer Finish)
+     * <br/><br/>
+     * <code>
+     * glGetBufferSubData(target, off, data);
+     * </code>
+     * @param data Destination, Filled From Its Position To Its Limit
+     * @param off Byte Offset Into This Buffer
+     */
+    public void getData(ByteBuffer data, long off) {
+        bind();
+        glGetBufferSubData(target, off, data);
+        unbind();
+    }
     public void setData(byte[] data, int len, int off) {
     	if(len <= 0) len = data.length - off;
     	ByteBuffer b = NativeMem.createByteBuffer(len);
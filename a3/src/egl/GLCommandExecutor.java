@@ -0,0 +1,119 @@
+package egl;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL43;
+
+import egl.GL.BufferTarget;
+import egl.GL.GLType;
+
+/**
+ * Replays A {@link RenderCommandBuffer} Into The Current OpenGL Context Through The GL Wrappers,
+ * Which Still Skip Rebinding What Is Already Bound.  Buffers Written By Commands Are Created On
+ * First Use.
+ */
+public class GLCommandExecutor implements RenderCommandBuffer.IExecutor {
+	@Override
+	public void setDepthState(DepthState s) {
+		s.set();
+	}
+	@Override
+	public void setBlendState(BlendState s) {
+		s.set();
+	}
+	@Override
+	public void setRasterizerState(RasterizerState s) {
+		s.set();
+	}
+	@Override
+	public void useProgram(GLProgram p) {
+		if(p == null) GLProgram.unuse();
+		else p.use();
+	}
+	@Override
+	public void setUniform(int location, int value) {
+		GL20.glUniform1i(location, value);
+	}
+	@Override
+	public void setUniform(int location, int size, FloatBuffer values) {
+		switch(size) {
+		case 1: GL20.glUniform1(location, values); break;
+		case 3: GL20.glUniform3(location, values); break;
+		case 4: GL20.glUniform4(location, values); break;
+		case 9: GL20.glUniformMatrix3(location, false, values); break;
+		case 16: GL20.glUniformMatrix4(location, false, values); break;
+		default: throw new RuntimeException("Unsupported Uniform Size: " + size);
+		}
+	}
+	@Override
+	public void useTexture(GLTexture t, int unit, int location, SamplerState s) {
+		t.use(unit, location);
+		s.set(t.getTarget());
+	}
+	@Override
+	public void setUniformBuffer(GLBuffer b, int binding, ByteBuffer data) {
+		// Respecify The Store Before Writing So The Driver Need Not Wait On Earlier Draws
+		if(!b.getIsCreated()) b.init();
+		b.setSizeInBytes(data.remaining());
+		b.setData(data, 0);
+		b.bindBase(binding);
+	}
+	@Override
+	public void setBufferData(GLBuffer b, ByteBuffer data) {
+		// Respecify The Store Before Writing, As Above
+		if(!b.getIsCreated()) b.init();
+		b.setSizeInBytes(Math.max(data.remaining(), b.getBufCapacity()));
+		b.setData(data, 0);
+	}
+	@Override
+	public void bindVertexArray(GLVertexArray va) {
+		if(va == null) GLVertexArray.unbind();
+		else va.bind();
+	}
+	@Override
+	public void useAttributes(GLBuffer b, ShaderInterface si, int divisor) {
+		b.useAsAttrib(si, 0, divisor);
+	}
+	@Override
+	public void useAttribute(GLBuffer b, int location) {
+		b.useAsAttrib(location);
+	}
+	@Override
+	public void unuseAttributes(ShaderInterface si) {
+		GLBuffer.unuseAsAttrib(si);
+	}
+	@Override
+	public void bindIndexBuffer(GLBuffer b) {
+		if(b == null) GLBuffer.unbind(BufferTarget.ElementArrayBuffer);
+		else b.bind();
+	}
+	@Override
+	public void drawElements(int mode, int count, long offset, int baseVertex, int instances) {
+		// Base-Vertex Calls Are Only Needed (And Only Available) For Meshes In A Shared Arena
+		if(instances == 0) {
+			if(baseVertex == 0) GL11.glDrawElements(mode, count, GLType.UnsignedInt, offset);
+			else GL32.glDrawElementsBaseVertex(mode, count, GLType.UnsignedInt, offset, baseVertex);
+		}
+		else {
+			if(baseVertex == 0) GL31.glDrawElementsInstanced(mode, count, GLType.UnsignedInt, offset, instances);
+			else GL32.glDrawElementsInstancedBaseVertex(mode, count, GLType.UnsignedInt, offset, instances, baseVertex);
+		}
+		GLError.get("Draw");
+	}
+	@Override
+	public void multiDrawElements(GLBuffer commands, int mode, int drawCount) {
+		commands.bind();
+		GL43.glMultiDrawElementsIndirect(mode, GLType.UnsignedInt, 0L, drawCount, 0);
+		commands.unbind();
+		GLError.get("Multi-Draw Indirect");
+	}
+	@Override
+	public void setLineWidth(float width) {
+		GL11.glLineWidth(width);
+	}
+}
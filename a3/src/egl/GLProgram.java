@@ -53,6 +53,7 @@ public class GLProgram implements IDisposable {
     private boolean isLinked;
 
     private final HashMap<String, Integer> uniforms = new HashMap<>();
+    private final HashMap<String, GLUniformHandle> uniformHandles = new HashMap<>();
     private final HashMap<String, Integer> attributes = new HashMap<>();
     public final HashMap<Integer, Integer> semanticLinks = new HashMap<>();
     private HashMap<String, Integer> foundSemantics;
@@ -112,6 +113,26 @@ public class GLProgram implements IDisposable {
     	Integer i = uniforms.get(name);
     	return i == null ? GL.BadUniformLocation : i;
     }
+    /**
+     * Resolve A Uniform Into A Handle That Skips Uploads Of Unchanged Values.
+     * Look Handles Up Once (After Linking), Not While Drawing.
+     * @param name Uniform Name
+     * @return The Program's Handle For The Name (Invalid If The Uniform Does Not Exist)
+     */
+    public GLUniformHandle getUniformHandle(String name) {
+    	GLUniformHandle h = uniformHandles.get(name);
+    	if(h == null) {
+    		h = new GLUniformHandle(getUniform(name));
+    		uniformHandles.put(name, h);
+    	}
+    	return h;
+    }
+    /**
+     * Make Every Handle Of This Program Issue Its Next Upload, After Uniforms Were Set Without Them
+     */
+    public void invalidateUniformHandles() {
+    	for(GLUniformHandle h : uniformHandles.values()) h.invalidate();
+    }
     public int getUniformArray(String name) {
         int u = getUniform(name);
         return (u == GL.BadUniformLocation) ? getUniform(name + "[0]") : u;
@@ -267,6 +288,10 @@ public class GLProgram implements IDisposable {
         }
     }
     public void initUniforms() {
+        // Locations And Values From A Previous Link No Longer Apply
+        uniforms.clear();
+        uniformHandles.clear();
+
         // How Many Uniforms Are In The Program
         int count = glGetProgrami(id, GetProgramParameterName.ActiveUniforms);
 
@@ -0,0 +1,155 @@
+package egl;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.lwjgl.opengl.GL20;
+
+import egl.math.Matrix3;
+import egl.math.Matrix4;
+import egl.math.Vector3;
+import egl.math.Vector4;
+
+/**
+ * A Uniform Location Resolved Once, With A Copy Of The Last Value Sent Through It.
+ *
+ * Uniform values belong to a program and persist until it is relinked, so an upload that repeats
+ * the value already held by the program is skipped.  Handles come from
+ * {@link GLProgram#getUniformHandle(String)}, which returns the same handle for the same name, so
+ * every user of a uniform shares one copy.  That copy is only right when every upload to the
+ * uniform goes through its handle (directly or through a {@link RenderCommandBuffer}).  Setting a
+ * handle whose uniform does not exist does nothing.
+ * Like the rest of the GL wrappers, handles are not thread-safe.
+ */
+public class GLUniformHandle {
+	/**
+	 * Uploads Issued And Uploads Skipped As Redundant, Over All Handles, Since The Last {@link #resetCounters()}
+	 */
+	public static int issuedCount = 0, skippedCount = 0;
+	/**
+	 * Zero The Upload Counters
+	 */
+	public static void resetCounters() {
+		issuedCount = 0;
+		skippedCount = 0;
+	}
+
+	/**
+	 * Uniform Location (Or {@link GL#BadUniformLocation})
+	 */
+	public final int location;
+
+	/**
+	 * Last Uploaded Components (Integers Are Stored By Their Bits), And How Many Are Valid (-1 Before The First Upload)
+	 */
+	private float[] shadow = new float[16];
+	private int shadowLength = -1;
+
+	public GLUniformHandle(int loc) {
+		location = loc;
+	}
+
+	/**
+	 * @return True If The Uniform Exists In The Program
+	 */
+	public boolean isValid() {
+		return location != GL.BadUniformLocation;
+	}
+	/**
+	 * Forget The Last Uploaded Value, So That The Next Upload Is Always Issued
+	 */
+	public void invalidate() {
+		shadowLength = -1;
+	}
+
+	public void set(float x) {
+		if(!isValid() || isSame(x)) return;
+		GL20.glUniform1f(location, x);
+	}
+	public void set(int x) {
+		if(!isValid() || isSame(Float.intBitsToFloat(x))) return;
+		GL20.glUniform1i(location, x);
+	}
+	public void set(float x, float y, float z) {
+		if(!isValid() || isSame(x, y, z)) return;
+		GL20.glUniform3f(location, x, y, z);
+	}
+	public void set(Vector3 v) {
+		set(v.x, v.y, v.z);
+	}
+	public void set(float x, float y, float z, float w) {
+		if(!isValid() || isSame(x, y, z, w)) return;
+		GL20.glUniform4f(location, x, y, z, w);
+	}
+	public void set(Vector4 v) {
+		set(v.x, v.y, v.z, v.w);
+	}
+	public void set(Matrix4 m) {
+		if(!isValid() || isSame(m.m)) return;
+		GLUniform.setST(location, m, false);
+	}
+	public void set(Matrix3 m) {
+		if(!isValid() || isSame(m.m)) return;
+		GLUniform.setST(location, m, false);
+	}
+	/**
+	 * Upload An Array Of vec3 Values
+	 * @param data Components From Position To Limit (3 Per Element)
+	 */
+	public void set3(FloatBuffer data) {
+		if(!isValid() || isSame(data)) return;
+		GL20.glUniform3(location, data);
+	}
+
+	boolean isSame(float x) {
+		if(shadowLength == 1 && Float.floatToRawIntBits(shadow[0]) == Float.floatToRawIntBits(x)) return skip();
+		shadow[0] = x;
+		return issue(1);
+	}
+	boolean isSame(float x, float y, float z) {
+		if(shadowLength == 3 && shadow[0] == x && shadow[1] == y && shadow[2] == z) return skip();
+		shadow[0] = x;
+		shadow[1] = y;
+		shadow[2] = z;
+		return issue(3);
+	}
+	boolean isSame(float x, float y, float z, float w) {
+		if(shadowLength == 4 && shadow[0] == x && shadow[1] == y && shadow[2] == z && shadow[3] == w) return skip();
+		shadow[0] = x;
+		shadow[1] = y;
+		shadow[2] = z;
+		shadow[3] = w;
+		return issue(4);
+	}
+	boolean isSame(float[] v) {
+		int n = v.length;
+		if(shadowLength == n) {
+			int i = 0;
+			while(i < n && shadow[i] == v[i]) i++;
+			if(i == n) return skip();
+		}
+		if(shadow.length < n) shadow = new float[n];
+		System.arraycopy(v, 0, shadow, 0, n);
+		return issue(n);
+	}
+	boolean isSame(FloatBuffer v) {
+		int p = v.position(), n = v.remaining();
+		if(shadowLength == n) {
+			int i = 0;
+			while(i < n && shadow[i] == v.get(p + i)) i++;
+			if(i == n) return skip();
+		}
+		if(shadow.length < n) shadow = Arrays.copyOf(shadow, n);
+		for(int i = 0;i < n;i++) shadow[i] = v.get(p + i);
+		return issue(n);
+	}
+	private boolean skip() {
+		skippedCount++;
+		return true;
+	}
+	private boolean issue(int length) {
+		shadowLength = length;
+		issuedCount++;
+		return false;
+	}
+}
@@ -1,8 +1,25 @@
 package egl;
 
+import org.lwjgl.opengl.ContextCapabilities;
+import org.lwjgl.opengl.GLContext;
+
 import egl.GL.GLType;
 
 public class GLUtil {
+	/**
+	 * Feature Checks Use This, So Code Recording Commands Without A Context Falls Back To The
+	 * Paths Every Context Supports
+	 * @return Capabilities Of The Current Context, Or Null If The Thread Has No Context
+	 */
+	public static ContextCapabilities getCapabilities() {
+		try {
+			return GLContext.getCapabilities();
+		}
+		catch(RuntimeException | LinkageError e) {
+			// No Current Context, Or No Native Library To Query One With
+			return null;
+		}
+	}
 	/**
 	 * 
 	 * @param t {@link GLType OpenGL Basic Type}
@@ -0,0 +1,92 @@
+package egl;
+
+import static org.lwjgl.opengl.GL30.glBindVertexArray;
+import static org.lwjgl.opengl.GL30.glDeleteVertexArrays;
+import static org.lwjgl.opengl.GL30.glGenVertexArrays;
+
+import org.lwjgl.opengl.ContextCapabilities;
+
+import egl.GL.BufferTarget;
+
+/**
+ * Wrapper For An OpenGL Vertex Array Object.
+ *
+ * A vertex array records the attribute pointers set with {@link GLBuffer#useAsAttrib(ShaderInterface)}
+ * and the index buffer bound while it is bound, so drawing with the same inputs again only takes
+ * {@link #bind()}.  Binding a vertex array changes the index buffer binding behind
+ * {@link GLBuffer}'s back, so the binding it remembers is forgotten.  Do not unbind an index buffer
+ * while a vertex array is bound, or the array loses it.
+ */
+public class GLVertexArray implements IDisposable {
+	/**
+	 * @return True If The Context Supports Vertex Array Objects
+	 */
+	public static boolean isSupported() {
+		ContextCapabilities caps = GLUtil.getCapabilities();
+		return caps != null && caps.OpenGL30;
+	}
+	/**
+	 * Return To The Default Vertex Array, Which Legacy Attribute Setup Works On
+	 */
+	public static void unbind() {
+		glBindVertexArray(0);
+		GLBuffer.forgetBinding(BufferTarget.ElementArrayBuffer);
+	}
+
+	/**
+	 * OpenGL Object ID
+	 */
+	private int id = 0;
+
+	/**
+	 * Create The OpenGL Object (Requires Active OpenGL Context)
+	 * @return Self
+	 */
+	public GLVertexArray init() {
+		if(id == 0) id = glGenVertexArrays();
+		GLError.get("VAO Gen");
+		return this;
+	}
+	@Override
+	public void dispose() {
+		if(id == 0) return;
+		glDeleteVertexArrays(id);
+		id = 0;
+	}
+
+	/**
+	 * Returns 0 If Uninitialized
+	 * @return OpenGL Vertex Array ID
+	 */
+	public int getID() {
+		return id;
+	}
+	/**
+	 * @return True If The OpenGL Vertex Array Is Initialized
+	 */
+	public boolean getIsCreated() {
+		return id != 0;
+	}
+
+	/**
+	 * Record One Vertex Buffer Feeding One Attribute, Drawn Through An Index Buffer
+	 * @param vb Vertex Buffer
+	 * @param loc Attribute Location
+	 * @param ib Index Buffer
+	 * @return Self (Left Bound)
+	 */
+	public GLVertexArray build(GLBuffer vb, int loc, GLBuffer ib) {
+		init().bind();
+		vb.useAsAttrib(loc);
+		ib.bind();
+		return this;
+	}
+
+	/**
+	 * Bind This Vertex Array, Which Also Binds The Index Buffer Recorded In It
+	 */
+	public void bind() {
+		glBindVertexArray(id);
+		GLBuffer.forgetBinding(BufferTarget.ElementArrayBuffer);
+	}
+}
@@ -0,0 +1,195 @@
+package egl;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Replays A {@link RenderCommandBuffer} Without A Context, Counting Commands And The State Changes
+ * That Repeat What Is Already Set, So Frames Can Be Checked Headless Or Measured Offline.
+ * Counts Accumulate Over Every Replayed Buffer Until {@link #reset()}.
+ */
+public class RecordingCommandExecutor implements RenderCommandBuffer.IExecutor {
+	/**
+	 * Keep A Readable Line Per Command In {@link #log}
+	 */
+	public boolean isLogging = false;
+	/**
+	 * One Line Per Command (Only While Logging)
+	 */
+	public final ArrayList<String> log = new ArrayList<>();
+	/**
+	 * Commands Replayed, By Op Code
+	 */
+	public final int[] opCounts = new int[RenderCommandBuffer.OP_COUNT];
+	/**
+	 * State Changes (States, Program, Textures, Vertex Array, Index Buffer) And How Many Of Them
+	 * Set What Was Already Set
+	 */
+	public int stateChangeCount = 0, redundantStateChangeCount = 0;
+	/**
+	 * Uniform Values Set And How Many Of Them Repeat The Value The Program Already Holds
+	 */
+	public int uniformCount = 0, redundantUniformCount = 0;
+	/**
+	 * Draw Calls, Instances Drawn By Them (A Draw That Is Not Instanced Counts One), And Bytes Uploaded
+	 */
+	public int drawCallCount = 0, instanceCount = 0, uploadedBytes = 0;
+
+	private DepthState depthState;
+	private BlendState blendState;
+	private RasterizerState rasterizerState;
+	private GLProgram program;
+	private GLVertexArray vertexArray;
+	private GLBuffer indexBuffer;
+	private final HashMap<Integer, GLTexture> textures = new HashMap<>();
+	/**
+	 * Last Values Of Each Program's Uniforms, By Location
+	 */
+	private final HashMap<GLProgram, HashMap<Integer, float[]>> uniforms = new HashMap<>();
+
+	/**
+	 * Zero The Counts, Clear The Log, And Forget The Tracked State
+	 */
+	public void reset() {
+		log.clear();
+		for(int i = 0;i < opCounts.length;i++) opCounts[i] = 0;
+		stateChangeCount = 0;
+		redundantStateChangeCount = 0;
+		uniformCount = 0;
+		redundantUniformCount = 0;
+		drawCallCount = 0;
+		instanceCount = 0;
+		uploadedBytes = 0;
+		depthState = null;
+		blendState = null;
+		rasterizerState = null;
+		program = null;
+		vertexArray = null;
+		indexBuffer = null;
+		textures.clear();
+		uniforms.clear();
+	}
+	/**
+	 * @param op Op Code
+	 * @return Number Of Commands Of That Kind Replayed
+	 */
+	public int getOpCount(int op) {
+		return opCounts[op];
+	}
+
+	@Override
+	public void setDepthState(DepthState s) {
+		record(RenderCommandBuffer.OP_DEPTH_STATE, s);
+		changeState(depthState == s);
+		depthState = s;
+	}
+	@Override
+	public void setBlendState(BlendState s) {
+		record(RenderCommandBuffer.OP_BLEND_STATE, s);
+		changeState(blendState == s);
+		blendState = s;
+	}
+	@Override
+	public void setRasterizerState(RasterizerState s) {
+		record(RenderCommandBuffer.OP_RASTERIZER_STATE, s);
+		changeState(rasterizerState == s);
+		rasterizerState = s;
+	}
+	@Override
+	public void useProgram(GLProgram p) {
+		record(RenderCommandBuffer.OP_PROGRAM, p == null ? null : p.getID());
+		changeState(program == p);
+		program = p;
+	}
+	@Override
+	public void setUniform(int location, int value) {
+		record(RenderCommandBuffer.OP_UNIFORM_INT, location + " = " + value);
+		changeUniform(location, new float[] { Float.intBitsToFloat(value) });
+	}
+	@Override
+	public void setUniform(int location, int size, FloatBuffer values) {
+		float[] v = new float[values.remaining()];
+		values.get(v);
+		record(RenderCommandBuffer.OP_UNIFORM_FLOATS, location + " = " + Arrays.toString(v));
+		changeUniform(location, v);
+	}
+	@Override
+	public void useTexture(GLTexture t, int unit, int location, SamplerState s) {
+		record(RenderCommandBuffer.OP_TEXTURE, t.getID() + " Unit " + (unit - GL.TextureUnit.Texture0));
+		changeState(textures.get(unit) == t);
+		textures.put(unit, t);
+		changeUniform(location, new float[] { Float.intBitsToFloat(unit - GL.TextureUnit.Texture0) });
+	}
+	@Override
+	public void setUniformBuffer(GLBuffer b, int binding, ByteBuffer data) {
+		record(RenderCommandBuffer.OP_UNIFORM_BUFFER, data.remaining() + " Bytes To Binding " + binding);
+		uploadedBytes += data.remaining();
+	}
+	@Override
+	public void setBufferData(GLBuffer b, ByteBuffer data) {
+		record(RenderCommandBuffer.OP_BUFFER_DATA, data.remaining() + " Bytes");
+		uploadedBytes += data.remaining();
+	}
+	@Override
+	public void bindVertexArray(GLVertexArray va) {
+		record(RenderCommandBuffer.OP_VERTEX_ARRAY, va == null ? null : va.getID());
+		changeState(vertexArray == va);
+		vertexArray = va;
+		indexBuffer = null;
+	}
+	@Override
+	public void useAttributes(GLBuffer b, ShaderInterface si, int divisor) {
+		record(RenderCommandBuffer.OP_ATTRIBUTES, "Divisor " + divisor);
+	}
+	@Override
+	public void useAttribute(GLBuffer b, int location) {
+		record(RenderCommandBuffer.OP_ATTRIBUTE, location);
+	}
+	@Override
+	public void unuseAttributes(ShaderInterface si) {
+		record(RenderCommandBuffer.OP_UNUSE_ATTRIBUTES, null);
+	}
+	@Override
+	public void bindIndexBuffer(GLBuffer b) {
+		record(RenderCommandBuffer.OP_INDEX_BUFFER, b == null ? null : b.getID());
+		changeState(b != null && indexBuffer == b);
+		indexBuffer = b;
+	}
+	@Override
+	public void drawElements(int mode, int count, long offset, int baseVertex, int instances) {
+		record(RenderCommandBuffer.OP_DRAW_ELEMENTS, count + " Indices At " + offset + " Base " + baseVertex + " Instances " + instances);
+		drawCallCount++;
+		instanceCount += instances == 0 ? 1 : instances;
+	}
+	@Override
+	public void multiDrawElements(GLBuffer commands, int mode, int drawCount) {
+		record(RenderCommandBuffer.OP_MULTI_DRAW_ELEMENTS, drawCount + " Commands");
+		drawCallCount++;
+	}
+	@Override
+	public void setLineWidth(float width) {
+		record(RenderCommandBuffer.OP_LINE_WIDTH, width);
+	}
+
+	private void record(int op, Object argument) {
+		opCounts[op]++;
+		if(isLogging) log.add(argument == null ? RenderCommandBuffer.getOpName(op) : RenderCommandBuffer.getOpName(op) + " " + argument);
+	}
+	private void changeState(boolean isRedundant) {
+		stateChangeCount++;
+		if(isRedundant) redundantStateChangeCount++;
+	}
+	private void changeUniform(int location, float[] v) {
+		uniformCount++;
+		HashMap<Integer, float[]> values = uniforms.get(program);
+		if(values == null) {
+			values = new HashMap<>();
+			uniforms.put(program, values);
+		}
+		float[] old = values.put(location, v);
+		if(old != null && Arrays.equals(old, v)) redundantUniformCount++;
+	}
+}
@@ -0,0 +1,616 @@
+package egl;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+
+import egl.math.Matrix3;
+import egl.math.Matrix4;
+import egl.math.Vector3;
+import egl.math.Vector4;
+
+/**
+ * A Frame's Rendering Work, Written As Compact Commands And Replayed Later By An {@link IExecutor}.
+ *
+ * Producers append commands instead of calling OpenGL, so the same frame can be sent to the
+ * context by a {@link GLCommandExecutor} or inspected without one by a {@link RecordingCommandExecutor}.
+ * Each command is an op code followed by its integer and float arguments in one reused byte
+ * buffer.  Objects (programs, buffers, states) are stored as indices into a list kept beside the
+ * bytes, and uploaded data is copied into the stream, so producers may reuse their own storage
+ * right after writing a command.  Writing a frame makes no OpenGL calls.  Buffers written apart
+ * (for instance on different threads) can be merged with {@link #append(RenderCommandBuffer)}.
+ * <br/><br/>
+ * Uniforms written through a {@link GLUniformHandle} update the handle's copy of the program's
+ * value when they are written, so a buffer holding such uniforms must be replayed to the context
+ * exactly once (and in the order it was written).  Buffers written on different threads must turn
+ * {@link #isSkippingRedundantUniforms} off instead.  A single buffer is not thread-safe.
+ */
+public class RenderCommandBuffer {
+	/**
+	 * Receiver Of Replayed Commands (One Method Per Command)
+	 */
+	public static interface IExecutor {
+		void setDepthState(DepthState s);
+		void setBlendState(BlendState s);
+		void setRasterizerState(RasterizerState s);
+		/**
+		 * @param p Program To Draw With, Or Null To Use None
+		 */
+		void useProgram(GLProgram p);
+		void setUniform(int location, int value);
+		/**
+		 * @param location Uniform Location
+		 * @param size Components Per Element (1, 3 Or 4 For Vectors, 9 Or 16 For Matrices)
+		 * @param values Components From Position To Limit (Valid Only During The Call)
+		 */
+		void setUniform(int location, int size, FloatBuffer values);
+		/**
+		 * @param t Texture
+		 * @param unit {@link GL.TextureUnit}
+		 * @param location Sampler Uniform Location
+		 * @param s Sampler State
+		 */
+		void useTexture(GLTexture t, int unit, int location, SamplerState s);
+		/**
+		 * Replace A Uniform Buffer's Contents And Bind It To A Uniform Block Binding Point
+		 * @param data Contents From Position To Limit (Valid Only During The Call)
+		 */
+		void setUniformBuffer(GLBuffer b, int binding, ByteBuffer data);
+		/**
+		 * Replace A Stream Buffer's Contents (Its Store Never Shrinks)
+		 * @param data Contents From Position To Limit (Valid Only During The Call)
+		 */
+		void setBufferData(GLBuffer b, ByteBuffer data);
+		/**
+		 * @param va Vertex Array, Or Null For The Default One
+		 */
+		void bindVertexArray(GLVertexArray va);
+		void useAttributes(GLBuffer b, ShaderInterface si, int divisor);
+		void useAttribute(GLBuffer b, int location);
+		void unuseAttributes(ShaderInterface si);
+		/**
+		 * @param b Index Buffer, Or Null To Unbind The Current One
+		 */
+		void bindIndexBuffer(GLBuffer b);
+		/**
+		 * Draw Unsigned Integer Indices With The Bound Program And Inputs
+		 * @param mode {@link GL.PrimitiveType}
+		 * @param count Number Of Indices
+		 * @param offset Byte Offset Of The First Index
+		 * @param baseVertex Value Added To Each Index
+		 * @param instances Number Of Instances (0 For A Draw That Is Not Instanced)
+		 */
+		void drawElements(int mode, int count, long offset, int baseVertex, int instances);
+		/**
+		 * Draw Unsigned Integer Indices Once Per Indirect Command
+		 * @param commands Buffer Of Commands (count, instanceCount, firstIndex, baseVertex, baseInstance)
+		 * @param mode {@link GL.PrimitiveType}
+		 * @param drawCount Number Of Commands
+		 */
+		void multiDrawElements(GLBuffer commands, int mode, int drawCount);
+		void setLineWidth(float width);
+	}
+
+	public static final int OP_DEPTH_STATE = 1;
+	public static final int OP_BLEND_STATE = 2;
+	public static final int OP_RASTERIZER_STATE = 3;
+	public static final int OP_PROGRAM = 4;
+	public static final int OP_UNIFORM_INT = 5;
+	public static final int OP_UNIFORM_FLOATS = 6;
+	public static final int OP_TEXTURE = 7;
+	public static final int OP_UNIFORM_BUFFER = 8;
+	public static final int OP_BUFFER_DATA = 9;
+	public static final int OP_VERTEX_ARRAY = 10;
+	public static final int OP_ATTRIBUTES = 11;
+	public static final int OP_ATTRIBUTE = 12;
+	public static final int OP_UNUSE_ATTRIBUTES = 13;
+	public static final int OP_INDEX_BUFFER = 14;
+	public static final int OP_DRAW_ELEMENTS = 15;
+	public static final int OP_MULTI_DRAW_ELEMENTS = 16;
+	public static final int OP_LINE_WIDTH = 17;
+	/**
+	 * Number Of Op Codes (Op Codes Run From 1 To OP_COUNT - 1)
+	 */
+	public static final int OP_COUNT = 18;
+	private static final String[] OP_NAMES = {
+		null,
+		"DepthState", "BlendState", "RasterizerState", "Program",
+		"UniformInt", "UniformFloats", "Texture", "UniformBuffer", "BufferData",
+		"VertexArray", "Attributes", "Attribute", "UnuseAttributes", "IndexBuffer",
+		"DrawElements", "MultiDrawElements", "LineWidth"
+	};
+	/**
+	 * @param op Op Code
+	 * @return Readable Name Of The Command
+	 */
+	public static String getOpName(int op) {
+		return op > 0 && op < OP_COUNT ? OP_NAMES[op] : "Unknown";
+	}
+
+	/**
+	 * Skip Uniform Values That Handles Say Their Program Already Holds, And Update The Handles.
+	 * Turn Off When Several Threads Write Buffers At Once: Values Are Then Always Written And
+	 * Handles Are Left Alone, And The Handles Of Every Program Used Must Be Invalidated
+	 * (See {@link GLProgram#invalidateUniformHandles()}).
+	 */
+	public boolean isSkippingRedundantUniforms = true;
+
+	private ByteBuffer data;
+	/**
+	 * Duplicate Of The Data Whose Window Is Moved Over Inline Uploads During Replay
+	 */
+	private ByteBuffer view;
+	private final ArrayList<Object> refs = new ArrayList<>();
+	private FloatBuffer floats = NativeMem.createFloatBuffer(16);
+	private int commandCount = 0;
+
+	public RenderCommandBuffer() {
+		this(4096);
+	}
+	/**
+	 * @param capacity Initial Size In Bytes (The Buffer Grows As Needed)
+	 */
+	public RenderCommandBuffer(int capacity) {
+		setCapacity(Math.max(capacity, 64));
+	}
+
+	/**
+	 * Forget Every Command, Keeping The Storage
+	 */
+	public void reset() {
+		data.clear();
+		refs.clear();
+		commandCount = 0;
+	}
+	/**
+	 * @return Number Of Commands Written Since The Last {@link #reset()}
+	 */
+	public int getCommandCount() {
+		return commandCount;
+	}
+	/**
+	 * @return Number Of Bytes Written Since The Last {@link #reset()}
+	 */
+	public int getSizeInBytes() {
+		return data.position();
+	}
+
+	/**
+	 * Send Every Command In Order To An Executor (The Commands Are Kept, So A Buffer May Be Replayed Again)
+	 * @param e Executor
+	 */
+	public void replay(IExecutor e) {
+		int end = data.position();
+		int p = 0;
+		while(p < end) {
+			int op = data.getInt(p);
+			p += 4;
+			switch(op) {
+			case OP_DEPTH_STATE:
+				e.setDepthState((DepthState)ref(p));
+				p += 4;
+				break;
+			case OP_BLEND_STATE:
+				e.setBlendState((BlendState)ref(p));
+				p += 4;
+				break;
+			case OP_RASTERIZER_STATE:
+				e.setRasterizerState((RasterizerState)ref(p));
+				p += 4;
+				break;
+			case OP_PROGRAM:
+				e.useProgram((GLProgram)ref(p));
+				p += 4;
+				break;
+			case OP_UNIFORM_INT:
+				e.setUniform(data.getInt(p), data.getInt(p + 4));
+				p += 8;
+				break;
+			case OP_UNIFORM_FLOATS: {
+				int location = data.getInt(p), size = data.getInt(p + 4), n = data.getInt(p + 8);
+				p += 12;
+				if(floats.capacity() < n) floats = NativeMem.createFloatBuffer(n);
+				floats.clear();
+				for(int i = 0;i < n;i++) floats.put(data.getFloat(p + 4 * i));
+				floats.flip();
+				p += 4 * n;
+				e.setUniform(location, size, floats);
+				break;
+			}
+			case OP_TEXTURE:
+				e.useTexture((GLTexture)ref(p), data.getInt(p + 4), data.getInt(p + 8), (SamplerState)ref(p + 12));
+				p += 16;
+				break;
+			case OP_UNIFORM_BUFFER: {
+				GLBuffer b = (GLBuffer)ref(p);
+				int binding = data.getInt(p + 4);
+				p = moveView(p + 8);
+				e.setUniformBuffer(b, binding, view);
+				break;
+			}
+			case OP_BUFFER_DATA: {
+				GLBuffer b = (GLBuffer)ref(p);
+				p = moveView(p + 4);
+				e.setBufferData(b, view);
+				break;
+			}
+			case OP_VERTEX_ARRAY:
+				e.bindVertexArray((GLVertexArray)ref(p));
+				p += 4;
+				break;
+			case OP_ATTRIBUTES:
+				e.useAttributes((GLBuffer)ref(p), (ShaderInterface)ref(p + 4), data.getInt(p + 8));
+				p += 12;
+				break;
+			case OP_ATTRIBUTE:
+				e.useAttribute((GLBuffer)ref(p), data.getInt(p + 4));
+				p += 8;
+				break;
+			case OP_UNUSE_ATTRIBUTES:
+				e.unuseAttributes((ShaderInterface)ref(p));
+				p += 4;
+				break;
+			case OP_INDEX_BUFFER:
+				e.bindIndexBuffer((GLBuffer)ref(p));
+				p += 4;
+				break;
+			case OP_DRAW_ELEMENTS:
+				e.drawElements(data.getInt(p), data.getInt(p + 4), data.getLong(p + 8), data.getInt(p + 16), data.getInt(p + 20));
+				p += 24;
+				break;
+			case OP_MULTI_DRAW_ELEMENTS:
+				e.multiDrawElements((GLBuffer)ref(p), data.getInt(p + 4), data.getInt(p + 8));
+				p += 12;
+				break;
+			case OP_LINE_WIDTH:
+				e.setLineWidth(data.getFloat(p));
+				p += 4;
+				break;
+			default:
+				throw new RuntimeException("Corrupt Render Command Buffer: Op " + op + " At Byte " + (p - 4));
+			}
+		}
+	}
+	private Object ref(int p) {
+		int i = data.getInt(p);
+		return i < 0 ? null : refs.get(i);
+	}
+	/**
+	 * Point The View At An Inline Upload (A Length Followed By Bytes Padded To A Multiple Of 4)
+	 * @return Position After The Upload
+	 */
+	private int moveView(int p) {
+		int bytes = data.getInt(p);
+		view.limit(p + 4 + bytes);
+		view.position(p + 4);
+		return p + 4 + ((bytes + 3) & ~3);
+	}
+
+	/**
+	 * Append Another Buffer's Commands As If They Were Written Here, For Instance To Merge Buffers
+	 * Written On Different Threads (Replaying Each Buffer In Turn Avoids The Copy)
+	 * @param other Commands To Copy (Left Unchanged)
+	 */
+	public void append(RenderCommandBuffer other) {
+		if(other == this) throw new RuntimeException("A Command Buffer Cannot Append Itself");
+		other.replay(appender);
+	}
+	/**
+	 * Writes Each Replayed Command Into This Buffer
+	 */
+	private final IExecutor appender = new IExecutor() {
+		@Override
+		public void setDepthState(DepthState s) {
+			RenderCommandBuffer.this.setDepthState(s);
+		}
+		@Override
+		public void setBlendState(BlendState s) {
+			RenderCommandBuffer.this.setBlendState(s);
+		}
+		@Override
+		public void setRasterizerState(RasterizerState s) {
+			RenderCommandBuffer.this.setRasterizerState(s);
+		}
+		@Override
+		public void useProgram(GLProgram p) {
+			RenderCommandBuffer.this.useProgram(p);
+		}
+		@Override
+		public void setUniform(int location, int value) {
+			RenderCommandBuffer.this.setUniform(location, value);
+		}
+		@Override
+		public void setUniform(int location, int size, FloatBuffer values) {
+			RenderCommandBuffer.this.setUniform(location, size, values);
+		}
+		@Override
+		public void useTexture(GLTexture t, int unit, int location, SamplerState s) {
+			RenderCommandBuffer.this.useTexture(t, unit, location, s);
+		}
+		@Override
+		public void setUniformBuffer(GLBuffer b, int binding, ByteBuffer contents) {
+			RenderCommandBuffer.this.setUniformBuffer(b, binding, contents);
+		}
+		@Override
+		public void setBufferData(GLBuffer b, ByteBuffer contents) {
+			RenderCommandBuffer.this.setBufferData(b, contents);
+		}
+		@Override
+		public void bindVertexArray(GLVertexArray va) {
+			RenderCommandBuffer.this.bindVertexArray(va);
+		}
+		@Override
+		public void useAttributes(GLBuffer b, ShaderInterface si, int divisor) {
+			RenderCommandBuffer.this.useAttributes(b, si, divisor);
+		}
+		@Override
+		public void useAttribute(GLBuffer b, int location) {
+			RenderCommandBuffer.this.useAttribute(b, location);
+		}
+		@Override
+		public void unuseAttributes(ShaderInterface si) {
+			RenderCommandBuffer.this.unuseAttributes(si);
+		}
+		@Override
+		public void bindIndexBuffer(GLBuffer b) {
+			RenderCommandBuffer.this.bindIndexBuffer(b);
+		}
+		@Override
+		public void drawElements(int mode, int count, long offset, int baseVertex, int instances) {
+			RenderCommandBuffer.this.drawElements(mode, count, offset, baseVertex, instances);
+		}
+		@Override
+		public void multiDrawElements(GLBuffer commands, int mode, int drawCount) {
+			RenderCommandBuffer.this.multiDrawElements(commands, mode, drawCount);
+		}
+		@Override
+		public void setLineWidth(float width) {
+			RenderCommandBuffer.this.setLineWidth(width);
+		}
+	};
+
+	public void setDepthState(DepthState s) {
+		begin(OP_DEPTH_STATE, 4);
+		putRef(s);
+	}
+	public void setBlendState(BlendState s) {
+		begin(OP_BLEND_STATE, 4);
+		putRef(s);
+	}
+	public void setRasterizerState(RasterizerState s) {
+		begin(OP_RASTERIZER_STATE, 4);
+		putRef(s);
+	}
+	/**
+	 * @param p Program To Draw With, Or Null To Use None
+	 */
+	public void useProgram(GLProgram p) {
+		begin(OP_PROGRAM, 4);
+		putRef(p);
+	}
+
+	/**
+	 * Set A Uniform Of The Program In Use, Skipping Values The Handle Says The Program Holds
+	 */
+	public void setUniform(GLUniformHandle h, float x) {
+		if(!h.isValid() || isSkippingRedundantUniforms && h.isSame(x)) return;
+		beginFloats(h.location, 1, 1);
+		data.putFloat(x);
+	}
+	public void setUniform(GLUniformHandle h, int x) {
+		if(!h.isValid() || isSkippingRedundantUniforms && h.isSame(Float.intBitsToFloat(x))) return;
+		begin(OP_UNIFORM_INT, 8);
+		data.putInt(h.location);
+		data.putInt(x);
+	}
+	public void setUniform(GLUniformHandle h, float x, float y, float z) {
+		if(!h.isValid() || isSkippingRedundantUniforms && h.isSame(x, y, z)) return;
+		beginFloats(h.location, 3, 3);
+		data.putFloat(x);
+		data.putFloat(y);
+		data.putFloat(z);
+	}
+	public void setUniform(GLUniformHandle h, Vector3 v) {
+		setUniform(h, v.x, v.y, v.z);
+	}
+	public void setUniform(GLUniformHandle h, float x, float y, float z, float w) {
+		if(!h.isValid() || isSkippingRedundantUniforms && h.isSame(x, y, z, w)) return;
+		beginFloats(h.location, 4, 4);
+		data.putFloat(x);
+		data.putFloat(y);
+		data.putFloat(z);
+		data.putFloat(w);
+	}
+	public void setUniform(GLUniformHandle h, Vector4 v) {
+		setUniform(h, v.x, v.y, v.z, v.w);
+	}
+	public void setUniform(GLUniformHandle h, Matrix4 m) {
+		if(!h.isValid() || isSkippingRedundantUniforms && h.isSame(m.m)) return;
+		beginFloats(h.location, 16, 16);
+		for(int i = 0;i < 16;i++) data.putFloat(m.m[i]);
+	}
+	public void setUniform(GLUniformHandle h, Matrix3 m) {
+		if(!h.isValid() || isSkippingRedundantUniforms && h.isSame(m.m)) return;
+		beginFloats(h.location, 9, 9);
+		for(int i = 0;i < 9;i++) data.putFloat(m.m[i]);
+	}
+	/**
+	 * Set An Array Of vec3 Values
+	 * @param values Components From Position To Limit (3 Per Element, Left Unchanged)
+	 */
+	public void setUniform3(GLUniformHandle h, FloatBuffer values) {
+		if(!h.isValid() || isSkippingRedundantUniforms && h.isSame(values)) return;
+		int p = values.position(), n = values.remaining();
+		beginFloats(h.location, 3, n);
+		for(int i = 0;i < n;i++) data.putFloat(values.get(p + i));
+	}
+	public void setUniform(int location, int value) {
+		begin(OP_UNIFORM_INT, 8);
+		data.putInt(location);
+		data.putInt(value);
+	}
+	/**
+	 * Set A Uniform Of The Program In Use Without A Handle (Always Written)
+	 * @param size Components Per Element (1, 3 Or 4 For Vectors, 9 Or 16 For Matrices)
+	 * @param values Components From Position To Limit (Left Unchanged)
+	 */
+	public void setUniform(int location, int size, FloatBuffer values) {
+		int p = values.position(), n = values.remaining();
+		beginFloats(location, size, n);
+		for(int i = 0;i < n;i++) data.putFloat(values.get(p + i));
+	}
+	private void beginFloats(int location, int size, int n) {
+		begin(OP_UNIFORM_FLOATS, 12 + 4 * n);
+		data.putInt(location);
+		data.putInt(size);
+		data.putInt(n);
+	}
+
+	/**
+	 * Bind A Texture To A Unit And Point A Sampler Uniform Of The Program In Use At It
+	 * @param t Texture
+	 * @param unit {@link GL.TextureUnit}
+	 * @param location Sampler Uniform Location
+	 * @param s Sampler State
+	 */
+	public void useTexture(GLTexture t, int unit, int location, SamplerState s) {
+		begin(OP_TEXTURE, 16);
+		putRef(t);
+		data.putInt(unit);
+		data.putInt(location);
+		putRef(s);
+	}
+	/**
+	 * Replace A Uniform Buffer's Contents And Bind It To A Uniform Block Binding Point
+	 * @param b Uniform Buffer
+	 * @param binding Binding Point
+	 * @param contents Contents From Position To Limit (Copied, And Left Unchanged)
+	 */
+	public void setUniformBuffer(GLBuffer b, int binding, ByteBuffer contents) {
+		int bytes = contents.remaining();
+		begin(OP_UNIFORM_BUFFER, 12 + ((bytes + 3) & ~3));
+		putRef(b);
+		data.putInt(binding);
+		putBytes(contents);
+	}
+	/**
+	 * Replace A Stream Buffer's Contents (Its Store Grows To Fit And Never Shrinks)
+	 * @param b Buffer
+	 * @param contents Contents From Position To Limit (Copied, And Left Unchanged)
+	 */
+	public void setBufferData(GLBuffer b, ByteBuffer contents) {
+		int bytes = contents.remaining();
+		begin(OP_BUFFER_DATA, 8 + ((bytes + 3) & ~3));
+		putRef(b);
+		putBytes(contents);
+	}
+	private void putBytes(ByteBuffer contents) {
+		int p = contents.position(), bytes = contents.remaining();
+		data.putInt(bytes);
+		data.put(contents);
+		contents.position(p);
+		while((data.position() & 3) != 0) data.put((byte)0);
+	}
+
+	/**
+	 * @param va Vertex Array, Or Null For The Default One
+	 */
+	public void bindVertexArray(GLVertexArray va) {
+		begin(OP_VERTEX_ARRAY, 4);
+		putRef(va);
+	}
+	/**
+	 * Feed A Vertex Buffer's Elements To An Interface Of Attributes
+	 * @param divisor Instancing Divisor (0 To Advance Per Vertex)
+	 */
+	public void useAttributes(GLBuffer b, ShaderInterface si, int divisor) {
+		begin(OP_ATTRIBUTES, 12);
+		putRef(b);
+		putRef(si);
+		data.putInt(divisor);
+	}
+	/**
+	 * Feed A Vertex Buffer's Elements To One Attribute
+	 */
+	public void useAttribute(GLBuffer b, int location) {
+		begin(OP_ATTRIBUTE, 8);
+		putRef(b);
+		data.putInt(location);
+	}
+	/**
+	 * Disable The Attributes Of An Interface And Reset Their Instancing Divisors
+	 */
+	public void unuseAttributes(ShaderInterface si) {
+		begin(OP_UNUSE_ATTRIBUTES, 4);
+		putRef(si);
+	}
+	/**
+	 * @param b Index Buffer, Or Null To Unbind The Current One
+	 */
+	public void bindIndexBuffer(GLBuffer b) {
+		begin(OP_INDEX_BUFFER, 4);
+		putRef(b);
+	}
+	/**
+	 * @see IExecutor#drawElements(int, int, long, int, int)
+	 */
+	public void drawElements(int mode, int count, long offset, int baseVertex, int instances) {
+		begin(OP_DRAW_ELEMENTS, 24);
+		data.putInt(mode);
+		data.putInt(count);
+		data.putLong(offset);
+		data.putInt(baseVertex);
+		data.putInt(instances);
+	}
+	/**
+	 * @see #drawElements(int, int, long, int, int) drawElements(mode, count, offset, 0, 0)
+	 */
+	public void drawElements(int mode, int count, long offset) {
+		drawElements(mode, count, offset, 0, 0);
+	}
+	/**
+	 * @see IExecutor#multiDrawElements(GLBuffer, int, int)
+	 */
+	public void multiDrawElements(GLBuffer commands, int mode, int drawCount) {
+		begin(OP_MULTI_DRAW_ELEMENTS, 12);
+		putRef(commands);
+		data.putInt(mode);
+		data.putInt(drawCount);
+	}
+	public void setLineWidth(float width) {
+		begin(OP_LINE_WIDTH, 4);
+		data.putFloat(width);
+	}
+
+	/**
+	 * Start A Command, Making Room For Its Arguments
+	 * @param op Op Code
+	 * @param bytes Size Of The Arguments
+	 */
+	private void begin(int op, int bytes) {
+		if(data.remaining() < 4 + bytes) {
+			int capacity = data.capacity();
+			while(capacity - data.position() < 4 + bytes) capacity *= 2;
+			setCapacity(capacity);
+		}
+		data.putInt(op);
+		commandCount++;
+	}
+	private void putRef(Object o) {
+		if(o == null) {
+			data.putInt(-1);
+			return;
+		}
+		data.putInt(refs.size());
+		refs.add(o);
+	}
+	private void setCapacity(int capacity) {
+		ByteBuffer old = data;
+		data = NativeMem.createByteBuffer(capacity);
+		if(old != null) {
+			old.flip();
+			data.put(old);
+		}
+		view = data.duplicate().order(data.order());
+	}
+}
@@ -12,6 +12,10 @@ public class ShaderInterface {
 	 * Copy Of Vertex Semantic Information Filled With Program Attribute Locations
 	 */
 	public final ArrayBind[] binds;
+	/**
+	 * Incremented Each Time The Locations Are Rebuilt, So Vertex Arrays Made For Older Locations Can Be Detected
+	 */
+	public int version = 0;
 
 	/**
 	 * Construct An Interface With A Vertex Declaration That Will Be Copied
@@ -36,6 +40,7 @@ public class ShaderInterface {
 	 * @return Number Of Semantics Properly Linked
 	 */
 	public int build(HashMap<Integer, Integer> dSemBinds) {
+		version++;
 		int bound = 0;
 		for(int i = 0; i < binds.length; i++) {
 			Integer v = dSemBinds.get(binds[i].semantic);
@@ -0,0 +1,124 @@
+package egl.math;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Batch Kernels Over Packed Arrays Of Vectors And Matrices.
+ *
+ * Vectors are stored as consecutive x, y, z floats and matrices use the same column-major
+ * layout as Matrix4, so a mesh's position buffer or a TransformHierarchy's world
+ * array can be processed without wrapping every element in an object.  The loops are written
+ * as straight-line arithmetic over primitive arrays, which is the form HotSpot's auto-vectorizer
+ * turns into SIMD instructions.
+ *
+ * Unless stated otherwise, the destination may be the same array (at the same offset) as the source.
+ */
+public final class BatchMath {
+	private BatchMath() {
+	}
+
+	/**
+	 * Multiply Two Packed Column-Major 4x4 Matrices
+	 * <pre>
+	 * Out = A * B
+	 * </pre>
+	 * Out May Not Alias A Or B.
+	 */
+	public static void mul(float[] a, int ao, float[] b, int bo, float[] out, int oo) {
+		for(int c = 0;c < 4;c++) {
+			float b0 = b[bo + c * 4];
+			float b1 = b[bo + c * 4 + 1];
+			float b2 = b[bo + c * 4 + 2];
+			float b3 = b[bo + c * 4 + 3];
+			for(int r = 0;r < 4;r++) {
+				out[oo + c * 4 + r] =
+						a[ao + r] * b0 +
+						a[ao + 4 + r] * b1 +
+						a[ao + 8 + r] * b2 +
+						a[ao + 12 + r] * b3;
+			}
+		}
+	}
+
+	/**
+	 * Normalize Packed Vectors In Place Like {@link Vector3#normalize()}
+	 * (Zero-Length Vectors Become NaN)
+	 * @param count Number Of Vectors
+	 */
+	public static void normalize(float[] v, int off, int count) {
+		for(int i = off;i < off + count * 3;i += 3) {
+			float x = v[i], y = v[i + 1], z = v[i + 2];
+			float f = 1 / (float)Math.sqrt(x * x + y * y + z * z);
+			v[i] = x * f;
+			v[i + 1] = y * f;
+			v[i + 2] = z * f;
+		}
+	}
+
+	/**
+	 * Compute The Unit Normal Of Every Triangle, Wound So That (P2 - P1) x (P0 - P1) Points Outward.
+	 * Degenerate Triangles Produce NaN Normals.
+	 * @param positions Packed Positions
+	 * @param tris Vertex Indices, 3 Per Triangle
+	 * @param triCount Number Of Triangles
+	 * @param out Packed Normals, 3 Floats Per Triangle (May Not Alias Positions)
+	 */
+	public static void faceNormals(float[] positions, int[] tris, int triCount, float[] out) {
+		for(int t = 0;t < triCount;t++) {
+			int i0 = tris[t * 3] * 3, i1 = tris[t * 3 + 1] * 3, i2 = tris[t * 3 + 2] * 3;
+			float px = positions[i1], py = positions[i1 + 1], pz = positions[i1 + 2];
+			float ax = positions[i2] - px, ay = positions[i2 + 1] - py, az = positions[i2 + 2] - pz;
+			float bx = positions[i0] - px, by = positions[i0 + 1] - py, bz = positions[i0 + 2] - pz;
+			out[t * 3]     = ay * bz - az * by;
+			out[t * 3 + 1] = az * bx - ax * bz;
+			out[t * 3 + 2] = ax * by - ay * bx;
+		}
+		normalize(out, 0, triCount);
+	}
+
+	/**
+	 * Compute The Axis-Aligned Bounding Box Of Packed Positions
+	 * @param positions Packed Positions
+	 * @param off Offset Of The First Float
+	 * @param count Number Of Positions (At Least 1, Otherwise The Box Is Inverted To +/- Infinity)
+	 * @param min Receives The Minimum Corner
+	 * @param max Receives The Maximum Corner
+	 */
+	public static void computeBounds(float[] positions, int off, int count, Vector3 min, Vector3 max) {
+		float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+		float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+		for(int i = off;i < off + count * 3;i += 3) {
+			minX = Math.min(minX, positions[i]);
+			minY = Math.min(minY, positions[i + 1]);
+			minZ = Math.min(minZ, positions[i + 2]);
+			maxX = Math.max(maxX, positions[i]);
+			maxY = Math.max(maxY, positions[i + 1]);
+			maxZ = Math.max(maxZ, positions[i + 2]);
+		}
+		min.set(minX, minY, minZ);
+		max.set(maxX, maxY, maxZ);
+	}
+	/**
+	 * Compute The Axis-Aligned Bounding Box Of The First count Positions In A Buffer
+	 * (Absolute Reads; The Buffer's Position Is Unchanged)
+	 */
+	public static void computeBounds(FloatBuffer positions, int count, Vector3 min, Vector3 max) {
+		if(positions.hasArray()) {
+			computeBounds(positions.array(), positions.arrayOffset(), count, min, max);
+			return;
+		}
+		float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+		float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+		for(int i = 0;i < count * 3;i += 3) {
+			float x = positions.get(i), y = positions.get(i + 1), z = positions.get(i + 2);
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			minZ = Math.min(minZ, z);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+			maxZ = Math.max(maxZ, z);
+		}
+		min.set(minX, minY, minZ);
+		max.set(maxX, maxY, maxZ);
+	}
+}
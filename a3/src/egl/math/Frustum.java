@@ -0,0 +1,113 @@
+package egl.math;
+
+/**
+ * The Six Clip Planes Of A View-Projection Transformation, In World Space.
+ *
+ * Planes are extracted from the rows of the combined matrix (Gribb/Hartmann) and stored as
+ * (a, b, c, d) so that a point p is inside a plane when a*p.x + b*p.y + c*p.z + d >= 0.
+ * Boxes are tested against each plane with their most positive corner only, so a box that
+ * straddles two planes outside the frustum corner may be reported as visible (never the reverse).
+ */
+public class Frustum {
+	public static final int LEFT = 0;
+	public static final int RIGHT = 1;
+	public static final int BOTTOM = 2;
+	public static final int TOP = 3;
+	public static final int NEAR = 4;
+	public static final int FAR = 5;
+
+	/**
+	 * Results Of {@link #classify(float, float, float, float, float, float)}
+	 */
+	public static final int OUTSIDE = 0;
+	public static final int INTERSECTING = 1;
+	public static final int INSIDE = 2;
+
+	/**
+	 * Packed Plane Coefficients, 4 Per Plane In The Order Above
+	 */
+	public final float[] planes = new float[6 * 4];
+
+	public Frustum() {
+	}
+	public Frustum(Matrix4 viewProjection) {
+		set(viewProjection);
+	}
+
+	/**
+	 * Extract The Planes Of A View-Projection Matrix (OpenGL Clip Space, z In [-w, w])
+	 * @param viewProjection World-To-Clip Transformation
+	 * @return Self
+	 */
+	public Frustum set(Matrix4 viewProjection) {
+		float[] m = viewProjection.m;
+		for(int i = 0;i < 3;i++) {
+			for(int c = 0;c < 4;c++) {
+				// Clip Row 3 Plus And Minus Row i
+				float w = m[c * 4 + 3], r = m[c * 4 + i];
+				planes[(i * 2) * 4 + c] = w + r;
+				planes[(i * 2 + 1) * 4 + c] = w - r;
+			}
+		}
+
+		// Normalize So That Plane Values Are Distances
+		for(int p = 0;p < 6;p++) {
+			int o = p * 4;
+			float len = (float)Math.sqrt(planes[o] * planes[o] + planes[o + 1] * planes[o + 1] + planes[o + 2] * planes[o + 2]);
+			if(len > 0) {
+				float inv = 1 / len;
+				planes[o] *= inv;
+				planes[o + 1] *= inv;
+				planes[o + 2] *= inv;
+				planes[o + 3] *= inv;
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Test An Axis-Aligned Box Against The Frustum
+	 * @param minX Box Corner With The Smallest Coordinates
+	 * @param maxX Box Corner With The Largest Coordinates
+	 * @return False If The Box Lies Completely Outside One Of The Planes
+	 */
+	public boolean intersects(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+		for(int o = 0;o < planes.length;o += 4) {
+			float a = planes[o], b = planes[o + 1], c = planes[o + 2];
+			float d = a * (a >= 0 ? maxX : minX) + b * (b >= 0 ? maxY : minY) + c * (c >= 0 ? maxZ : minZ) + planes[o + 3];
+			if(d < 0) return false;
+		}
+		return true;
+	}
+	/**
+	 * Test Whether An Axis-Aligned Box Is Outside, Partially Inside Or Completely Inside The Frustum
+	 * @return {@link #OUTSIDE}, {@link #INTERSECTING} Or {@link #INSIDE}
+	 */
+	public int classify(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+		int result = INSIDE;
+		for(int o = 0;o < planes.length;o += 4) {
+			float a = planes[o], b = planes[o + 1], c = planes[o + 2], d = planes[o + 3];
+			if(a * (a >= 0 ? maxX : minX) + b * (b >= 0 ? maxY : minY) + c * (c >= 0 ? maxZ : minZ) + d < 0) return OUTSIDE;
+			if(a * (a >= 0 ? minX : maxX) + b * (b >= 0 ? minY : maxY) + c * (c >= 0 ? minZ : maxZ) + d < 0) result = INTERSECTING;
+		}
+		return result;
+	}
+	/**
+	 * @see #intersects(float, float, float, float, float, float)
+	 */
+	public boolean intersects(Vector3 min, Vector3 max) {
+		return intersects(min.x, min.y, min.z, max.x, max.y, max.z);
+	}
+	/**
+	 * Test A Sphere Against The Frustum
+	 * @param center Sphere Center
+	 * @param radius Sphere Radius
+	 * @return False If The Sphere Lies Completely Outside One Of The Planes
+	 */
+	public boolean intersects(Vector3 center, float radius) {
+		for(int o = 0;o < planes.length;o += 4) {
+			if(planes[o] * center.x + planes[o + 1] * center.y + planes[o + 2] * center.z + planes[o + 3] < -radius) return false;
+		}
+		return true;
+	}
+}
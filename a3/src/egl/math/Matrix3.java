@@ -506,6 +506,70 @@ public class Matrix3 implements Cloneable {
 				);
 	}
 	
+	/**
+	 * Inverts A Matrix Into Out Without Allocating (Out May Be Src)
+	 * @param src Matrix To Invert
+	 * @param out Non-Null Output Matrix
+	 * @return Out
+	 * @throws AssertionError When Determinant Is Zero
+	 */
+	public static Matrix3 invert(Matrix3 src, Matrix3 out) throws AssertionError {
+		if(out != src) out.set(src);
+		return out.invert();
+	}
+	/**
+	 * Computes The Inverse-Transpose Of A Matrix Into Out Directly From Its Cofactors, Without
+	 * Allocating Or Transposing (Out May Be Src).  This Is The Normal Matrix Of A Linear Transformation.
+	 * @param src Matrix To Invert And Transpose
+	 * @param out Non-Null Output Matrix
+	 * @return Out
+	 * @throws AssertionError When Determinant Is Zero
+	 */
+	public static Matrix3 invertTranspose(Matrix3 src, Matrix3 out) throws AssertionError {
+		float[] a = src.m;
+		float x0 = a[0], x1 = a[1], x2 = a[2];
+		float y0 = a[3], y1 = a[4], y2 = a[5];
+		float z0 = a[6], z1 = a[7], z2 = a[8];
+		
+		// Columns Of The Result Are Y x Z, Z x X, X x Y Over The Determinant
+		float c00 = y1 * z2 - y2 * z1, c01 = y2 * z0 - y0 * z2, c02 = y0 * z1 - y1 * z0;
+		float c10 = z1 * x2 - z2 * x1, c11 = z2 * x0 - z0 * x2, c12 = z0 * x1 - z1 * x0;
+		float c20 = x1 * y2 - x2 * y1, c21 = x2 * y0 - x0 * y2, c22 = x0 * y1 - x1 * y0;
+		
+		float det = x0 * c00 + x1 * c01 + x2 * c02;
+		if(det == 0) throw new AssertionError("Determinant Of 0");
+		float f = 1 / det;
+		
+		float[] o = out.m;
+		o[0] = c00 * f; o[1] = c01 * f; o[2] = c02 * f;
+		o[3] = c10 * f; o[4] = c11 * f; o[5] = c12 * f;
+		o[6] = c20 * f; o[7] = c21 * f; o[8] = c22 * f;
+		return out;
+	}
+	/**
+	 * Multiplies Two Matrices Into Out Without Allocating (Out May Alias Either Operand)
+	 * <pre>
+	 * Out = A * B
+	 * </pre>
+	 * @param a Left Matrix (Applied Last)
+	 * @param b Right Matrix (Applied First)
+	 * @param out Non-Null Output Matrix
+	 * @return Out
+	 */
+	public static Matrix3 mul(Matrix3 a, Matrix3 b, Matrix3 out) {
+		return b.mulAfter(a, out);
+	}
+	/**
+	 * Transposes A Matrix Into Out Without Allocating (Out May Be Src)
+	 * @param src Matrix To Transpose
+	 * @param out Non-Null Output Matrix
+	 * @return Out
+	 */
+	public static Matrix3 transpose(Matrix3 src, Matrix3 out) {
+		if(out != src) out.set(src);
+		return out.transpose();
+	}
+	
 	/**
 	 * Set this to a linear interpolation of two other matrices
 	 * @return this
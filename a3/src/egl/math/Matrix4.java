@@ -534,35 +534,23 @@ public class Matrix4 implements Cloneable {
 		t = m[11]; m[11] = m[14]; m[14] = t;
 		return this;
 	}
-	/**
-	 * Helper To Calculate A Cofactor
-	 * @param c Excluded Column
-	 * @param r Excluded Row
-	 * @return Cofactor
-	 */
-	private float coFactor(int c, int r) {
-		Matrix3 minor = new Matrix3();
-		int i = 0;
-		for(int ri = 0;ri < SIZE;ri++) {
-			if(ri == c) continue;
-			for(int ci = 0;ci < SIZE;ci++) {
-				if(ci == r) continue;
-				minor.m[i++] = m[ri * 4 + ci];
-			}
-		}
-		if((r + c) % 2 == 0) return minor.determinant();
-		else return -minor.determinant();
-	}
 	/**
 	 * Calculates The Determinant Of This Matrix
 	 * @return Determinant
 	 */
 	public float determinant() {
+		// 2x2 Sub-Determinants Of The Bottom Two Rows
+		float s0 = m[2] * m[7] - m[6] * m[3];
+		float s1 = m[2] * m[11] - m[10] * m[3];
+		float s2 = m[2] * m[15] - m[14] * m[3];
+		float s3 = m[6] * m[11] - m[10] * m[7];
+		float s4 = m[6] * m[15] - m[14] * m[7];
+		float s5 = m[10] * m[15] - m[14] * m[11];
 		return 
-				m[0] * coFactor(0, 0) +
-				m[1] * coFactor(0, 1) +
-				m[2] * coFactor(0, 2) +
-				m[3] * coFactor(0, 3)
+				m[0] * (m[5] * s5 - m[9] * s4 + m[13] * s3) -
+				m[4] * (m[1] * s5 - m[9] * s2 + m[13] * s1) +
+				m[8] * (m[1] * s4 - m[5] * s2 + m[13] * s0) -
+				m[12] * (m[1] * s3 - m[5] * s1 + m[9] * s0)
 				;
 	}
 	/**
@@ -571,23 +559,209 @@ public class Matrix4 implements Cloneable {
 	 * @throws AssertionError When Determinant Is Zero
 	 */
 	public Matrix4 invert() throws AssertionError {
-		float cof00 = coFactor(0, 0);
-		float cof01 = coFactor(0, 1);
-		float cof02 = coFactor(0, 2);
-		float cof03 = coFactor(0, 3);
-		float det = 
-				m[0] * cof00 +
-				m[1] * cof01 +
-				m[2] * cof02 +
-				m[3] * cof03;
+		return invert(this, this);
+	}
+	/**
+	 * Inverts A Matrix Into Out Without Allocating (Out May Be Src)
+	 * <pre>
+	 * Out = Src^-1
+	 * </pre>
+	 * @param src Matrix To Invert
+	 * @param out Non-Null Output Matrix
+	 * @return Out
+	 * @throws AssertionError When Determinant Is Zero
+	 */
+	public static Matrix4 invert(Matrix4 src, Matrix4 out) throws AssertionError {
+		float[] a = src.m;
+		
+		// 2x2 Sub-Determinants Of The Top And Bottom Row Pairs
+		float s0 = a[0] * a[5] - a[4] * a[1];
+		float s1 = a[0] * a[9] - a[8] * a[1];
+		float s2 = a[0] * a[13] - a[12] * a[1];
+		float s3 = a[4] * a[9] - a[8] * a[5];
+		float s4 = a[4] * a[13] - a[12] * a[5];
+		float s5 = a[8] * a[13] - a[12] * a[9];
+		float c5 = a[10] * a[15] - a[14] * a[11];
+		float c4 = a[6] * a[15] - a[14] * a[7];
+		float c3 = a[6] * a[11] - a[10] * a[7];
+		float c2 = a[2] * a[15] - a[14] * a[3];
+		float c1 = a[2] * a[11] - a[10] * a[3];
+		float c0 = a[2] * a[7] - a[6] * a[3];
+		
+		float det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
 		if(det == 0) throw new AssertionError("Determinant Of 0");
 		float f = 1 / det;
-		return set(
-				f * cof00, f * cof01, f * cof02, f * cof03,
-				f * coFactor(1, 0), f * coFactor(1, 1), f * coFactor(1, 2), f * coFactor(1, 3),
-				f * coFactor(2, 0), f * coFactor(2, 1), f * coFactor(2, 2), f * coFactor(2, 3),
-				f * coFactor(3, 0), f * coFactor(3, 1), f * coFactor(3, 2), f * coFactor(3, 3)
-				);
+		
+		float i0  = ( a[5] * c5 - a[9] * c4 + a[13] * c3) * f;
+		float i1  = (-a[1] * c5 + a[9] * c2 - a[13] * c1) * f;
+		float i2  = ( a[1] * c4 - a[5] * c2 + a[13] * c0) * f;
+		float i3  = (-a[1] * c3 + a[5] * c1 - a[9] * c0) * f;
+		float i4  = (-a[4] * c5 + a[8] * c4 - a[12] * c3) * f;
+		float i5  = ( a[0] * c5 - a[8] * c2 + a[12] * c1) * f;
+		float i6  = (-a[0] * c4 + a[4] * c2 - a[12] * c0) * f;
+		float i7  = ( a[0] * c3 - a[4] * c1 + a[8] * c0) * f;
+		float i8  = ( a[7] * s5 - a[11] * s4 + a[15] * s3) * f;
+		float i9  = (-a[3] * s5 + a[11] * s2 - a[15] * s1) * f;
+		float i10 = ( a[3] * s4 - a[7] * s2 + a[15] * s0) * f;
+		float i11 = (-a[3] * s3 + a[7] * s1 - a[11] * s0) * f;
+		float i12 = (-a[6] * s5 + a[10] * s4 - a[14] * s3) * f;
+		float i13 = ( a[2] * s5 - a[10] * s2 + a[14] * s1) * f;
+		float i14 = (-a[2] * s4 + a[6] * s2 - a[14] * s0) * f;
+		float i15 = ( a[2] * s3 - a[6] * s1 + a[10] * s0) * f;
+		
+		float[] o = out.m;
+		o[0]  = i0;  o[1]  = i1;  o[2]  = i2;  o[3]  = i3;
+		o[4]  = i4;  o[5]  = i5;  o[6]  = i6;  o[7]  = i7;
+		o[8]  = i8;  o[9]  = i9;  o[10] = i10; o[11] = i11;
+		o[12] = i12; o[13] = i13; o[14] = i14; o[15] = i15;
+		return out;
+	}
+	/**
+	 * Multiplies Two Matrices Into Out Without Allocating (Out May Alias Either Operand)
+	 * <pre>
+	 * Out = A * B
+	 * </pre>
+	 * @param a Left Matrix (Applied Last)
+	 * @param b Right Matrix (Applied First)
+	 * @param out Non-Null Output Matrix
+	 * @return Out
+	 */
+	public static Matrix4 mul(Matrix4 a, Matrix4 b, Matrix4 out) {
+		return b.mulAfter(a, out);
+	}
+	/**
+	 * Transposes A Matrix Into Out Without Allocating (Out May Be Src)
+	 * @param src Matrix To Transpose
+	 * @param out Non-Null Output Matrix
+	 * @return Out
+	 */
+	public static Matrix4 transpose(Matrix4 src, Matrix4 out) {
+		if(out != src) out.set(src);
+		return out.transpose();
+	}
+	/**
+	 * Computes The Normal Matrix (Inverse-Transpose Of The Upper 3x3) Of A Matrix Into Out
+	 * Without Allocating.  Its Columns Are The Cross Products Of The Axes Over The Determinant.
+	 * @param src Frame-To-World Matrix
+	 * @param out Non-Null Output Matrix
+	 * @return Out
+	 * @throws AssertionError When The Upper 3x3 Is Singular
+	 */
+	public static Matrix3 normalMatrix(Matrix4 src, Matrix3 out) throws AssertionError {
+		normalMatrix(src.m, 0, out.m, 0);
+		return out;
+	}
+	/**
+	 * Packed Form Of {@link #normalMatrix(Matrix4, Matrix3)} For Column-Major Arrays Of Matrices
+	 * @param a Array Holding The 4x4 Source Matrix
+	 * @param ao Offset Of The Source Matrix
+	 * @param out Array Receiving The 3x3 Normal Matrix
+	 * @param oo Offset Of The Output Matrix
+	 * @throws AssertionError When The Upper 3x3 Is Singular
+	 */
+	public static void normalMatrix(float[] a, int ao, float[] out, int oo) throws AssertionError {
+		float x0 = a[ao],     x1 = a[ao + 1], x2 = a[ao + 2];
+		float y0 = a[ao + 4], y1 = a[ao + 5], y2 = a[ao + 6];
+		float z0 = a[ao + 8], z1 = a[ao + 9], z2 = a[ao + 10];
+		
+		// Y x Z, Z x X, X x Y
+		float c00 = y1 * z2 - y2 * z1, c01 = y2 * z0 - y0 * z2, c02 = y0 * z1 - y1 * z0;
+		float c10 = z1 * x2 - z2 * x1, c11 = z2 * x0 - z0 * x2, c12 = z0 * x1 - z1 * x0;
+		float c20 = x1 * y2 - x2 * y1, c21 = x2 * y0 - x0 * y2, c22 = x0 * y1 - x1 * y0;
+		
+		float det = x0 * c00 + x1 * c01 + x2 * c02;
+		if(det == 0) throw new AssertionError("Determinant Of 0");
+		float f = 1 / det;
+		
+		out[oo]     = c00 * f; out[oo + 1] = c01 * f; out[oo + 2] = c02 * f;
+		out[oo + 3] = c10 * f; out[oo + 4] = c11 * f; out[oo + 5] = c12 * f;
+		out[oo + 6] = c20 * f; out[oo + 7] = c21 * f; out[oo + 8] = c22 * f;
+	}
+	/**
+	 * Inverts An Affine Matrix (Bottom Row 0 0 0 1) Into Out Without Allocating (Out May Be Src).
+	 * Only The Upper 3x3 Is Inverted; The Translation Becomes -(M^-1 * T).
+	 * <pre>
+	 * Out = Src^-1
+	 * </pre>
+	 * @param src Affine Matrix To Invert
+	 * @param out Non-Null Output Matrix
+	 * @return Out
+	 * @throws AssertionError When The Upper 3x3 Is Singular
+	 */
+	public static Matrix4 invertAffine(Matrix4 src, Matrix4 out) throws AssertionError {
+		float[] a = src.m;
+		float x0 = a[0], x1 = a[1], x2 = a[2];
+		float y0 = a[4], y1 = a[5], y2 = a[6];
+		float z0 = a[8], z1 = a[9], z2 = a[10];
+		float t0 = a[12], t1 = a[13], t2 = a[14];
+		
+		// Rows Of The Inverse Are Y x Z, Z x X, X x Y Over The Determinant
+		float c00 = y1 * z2 - y2 * z1, c01 = y2 * z0 - y0 * z2, c02 = y0 * z1 - y1 * z0;
+		float c10 = z1 * x2 - z2 * x1, c11 = z2 * x0 - z0 * x2, c12 = z0 * x1 - z1 * x0;
+		float c20 = x1 * y2 - x2 * y1, c21 = x2 * y0 - x0 * y2, c22 = x0 * y1 - x1 * y0;
+		
+		float det = x0 * c00 + x1 * c01 + x2 * c02;
+		if(det == 0) throw new AssertionError("Determinant Of 0");
+		float f = 1 / det;
+		
+		float[] o = out.m;
+		o[0] = c00 * f; o[4] = c01 * f; o[8]  = c02 * f;
+		o[1] = c10 * f; o[5] = c11 * f; o[9]  = c12 * f;
+		o[2] = c20 * f; o[6] = c21 * f; o[10] = c22 * f;
+		o[12] = -(o[0] * t0 + o[4] * t1 + o[8] * t2);
+		o[13] = -(o[1] * t0 + o[5] * t1 + o[9] * t2);
+		o[14] = -(o[2] * t0 + o[6] * t1 + o[10] * t2);
+		o[3] = 0; o[7] = 0; o[11] = 0; o[15] = 1;
+		return out;
+	}
+	/**
+	 * Inverts A Rigid-Body Matrix (Orthonormal Rotation Plus Translation) Into Out Without Allocating
+	 * (Out May Be Src).  The Rotation Is Transposed And The Translation Becomes -(R^T * T).
+	 * The Result Is Wrong For Matrices With Scale Or Shear; See {@link #isRigid(float)}.
+	 * @param src Rigid-Body Matrix To Invert
+	 * @param out Non-Null Output Matrix
+	 * @return Out
+	 */
+	public static Matrix4 invertRigid(Matrix4 src, Matrix4 out) {
+		float[] a = src.m;
+		float x0 = a[0], x1 = a[1], x2 = a[2];
+		float y0 = a[4], y1 = a[5], y2 = a[6];
+		float z0 = a[8], z1 = a[9], z2 = a[10];
+		float t0 = a[12], t1 = a[13], t2 = a[14];
+		
+		float[] o = out.m;
+		o[0] = x0; o[4] = x1; o[8]  = x2;
+		o[1] = y0; o[5] = y1; o[9]  = y2;
+		o[2] = z0; o[6] = z1; o[10] = z2;
+		o[12] = -(x0 * t0 + x1 * t1 + x2 * t2);
+		o[13] = -(y0 * t0 + y1 * t1 + y2 * t2);
+		o[14] = -(z0 * t0 + z1 * t1 + z2 * t2);
+		o[3] = 0; o[7] = 0; o[11] = 0; o[15] = 1;
+		return out;
+	}
+	/**
+	 * Check Whether This Is A Rigid-Body Transformation (Orthonormal Upper 3x3, Affine Bottom Row)
+	 * @param epsilon Tolerance On Axis Lengths And Dot Products
+	 * @return True If {@link #invertRigid(Matrix4, Matrix4)} May Be Used
+	 */
+	public boolean isRigid(float epsilon) {
+		if(m[3] != 0 || m[7] != 0 || m[11] != 0 || m[15] != 1) return false;
+		float xx = m[0] * m[0] + m[1] * m[1] + m[2] * m[2];
+		float yy = m[4] * m[4] + m[5] * m[5] + m[6] * m[6];
+		float zz = m[8] * m[8] + m[9] * m[9] + m[10] * m[10];
+		float xy = m[0] * m[4] + m[1] * m[5] + m[2] * m[6];
+		float yz = m[4] * m[8] + m[5] * m[9] + m[6] * m[10];
+		float zx = m[8] * m[0] + m[9] * m[1] + m[10] * m[2];
+		return
+				Math.abs(xx - 1) <= epsilon && Math.abs(yy - 1) <= epsilon && Math.abs(zz - 1) <= epsilon &&
+				Math.abs(xy) <= epsilon && Math.abs(yz) <= epsilon && Math.abs(zx) <= epsilon;
+	}
+	/**
+	 * Check Whether The Bottom Row Is 0 0 0 1, So {@link #invertAffine(Matrix4, Matrix4)} May Be Used
+	 * @return True If This Is An Affine Transformation
+	 */
+	public boolean isAffine() {
+		return m[3] == 0 && m[7] == 0 && m[11] == 0 && m[15] == 1;
 	}
 	
 	/**
@@ -0,0 +1,97 @@
+package egl.math;
+
+/**
+ * A Half-Line origin + t * direction, t >= 0.
+ *
+ * The direction is not required to be normalized: transforming a ray by an affine matrix keeps
+ * the parameter t of every point, so hit distances found in object space can be compared with
+ * hit distances found in world space.
+ */
+public class Ray {
+	public final Vector3 origin = new Vector3();
+	public final Vector3 direction = new Vector3();
+
+	public Ray() {
+	}
+	public Ray(Vector3 o, Vector3 d) {
+		set(o, d);
+	}
+
+	public Ray set(Vector3 o, Vector3 d) {
+		origin.set(o);
+		direction.set(d);
+		return this;
+	}
+	/**
+	 * Create The Ray Through A Point In Normalized Device Coordinates
+	 * @param inverseViewProjection Clip-To-World Transformation
+	 * @param x NDC X In [-1, 1]
+	 * @param y NDC Y In [-1, 1]
+	 * @return Self, Starting On The Near Plane And Reaching The Far Plane At t = 1
+	 */
+	public Ray setFromNDC(Matrix4 inverseViewProjection, float x, float y) {
+		inverseViewProjection.mulPos(origin.set(x, y, -1));
+		inverseViewProjection.mulPos(direction.set(x, y, 1)).sub(origin);
+		return this;
+	}
+	/**
+	 * Transform By An Affine Matrix (The Direction Is Not Renormalized)
+	 * @param m Transformation
+	 * @param out Destination (May Be This)
+	 * @return out
+	 */
+	public Ray transform(Matrix4 m, Ray out) {
+		out.origin.set(origin);
+		out.direction.set(direction);
+		m.mulPos(out.origin);
+		m.mulDir(out.direction);
+		return out;
+	}
+	/**
+	 * @param t Distance Along The Ray (In Units Of The Direction's Length)
+	 * @param out Destination
+	 * @return out = origin + t * direction
+	 */
+	public Vector3 getPoint(float t, Vector3 out) {
+		return out.set(direction).mul(t).add(origin);
+	}
+
+	/**
+	 * Distance Along A Ray To The Entry Point Of A Box (Slab Method)
+	 * @param ox Ray Origin
+	 * @param ix Reciprocals Of The Ray Direction's Components
+	 * @param limit Largest Distance Of Interest
+	 * @return The Entry Distance (0 If The Origin Is Inside), Or Infinity If The Ray Misses Within The Limit
+	 */
+	public static float intersectBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+			float ox, float oy, float oz, float ix, float iy, float iz, float limit) {
+		float tNear = 0, tFar = limit;
+
+		// Axis-Parallel Rays Give Infinite Reciprocals: Only Check The Origin Against That Slab
+		if(Float.isInfinite(ix)) {
+			if(ox < minX || ox > maxX) return Float.POSITIVE_INFINITY;
+		}
+		else {
+			float t1 = (minX - ox) * ix, t2 = (maxX - ox) * ix;
+			tNear = Math.max(tNear, Math.min(t1, t2));
+			tFar = Math.min(tFar, Math.max(t1, t2));
+		}
+		if(Float.isInfinite(iy)) {
+			if(oy < minY || oy > maxY) return Float.POSITIVE_INFINITY;
+		}
+		else {
+			float t1 = (minY - oy) * iy, t2 = (maxY - oy) * iy;
+			tNear = Math.max(tNear, Math.min(t1, t2));
+			tFar = Math.min(tFar, Math.max(t1, t2));
+		}
+		if(Float.isInfinite(iz)) {
+			if(oz < minZ || oz > maxZ) return Float.POSITIVE_INFINITY;
+		}
+		else {
+			float t1 = (minZ - oz) * iz, t2 = (maxZ - oz) * iz;
+			tNear = Math.max(tNear, Math.min(t1, t2));
+			tFar = Math.min(tFar, Math.max(t1, t2));
+		}
+		return tNear <= tFar ? tNear : Float.POSITIVE_INFINITY;
+	}
+}
@@ -0,0 +1,104 @@
+package egl.math;
+
+/**
+ * Per-Thread Stack Of Reusable Temporaries For Hot Paths That Must Not Allocate.
+ * <pre>
+ * ScratchStack scratch = ScratchStack.get();
+ * Matrix4 tmp = scratch.pushMatrix4();
+ * ...
+ * scratch.popMatrix4(1);
+ * </pre>
+ * Pushed Objects Keep Whatever Values They Last Held, So Callers Must Set Them Before Use.
+ * Every Push Must Be Matched By A Pop On The Same Thread Before The Caller Returns.
+ */
+public final class ScratchStack {
+	private static final ThreadLocal<ScratchStack> LOCAL = new ThreadLocal<ScratchStack>() {
+		@Override
+		protected ScratchStack initialValue() {
+			return new ScratchStack();
+		}
+	};
+
+	/**
+	 * @return The Calling Thread's Stack
+	 */
+	public static ScratchStack get() {
+		return LOCAL.get();
+	}
+
+	private Matrix4[] matrices4 = new Matrix4[0];
+	private int top4 = 0;
+	private Matrix3[] matrices3 = new Matrix3[0];
+	private int top3 = 0;
+	private Vector3[] vectors3 = new Vector3[0];
+	private int topV3 = 0;
+
+	private ScratchStack() {
+	}
+
+	/**
+	 * Borrow A 4x4 Matrix (Allocates Only The First Time This Depth Is Reached)
+	 * @return Matrix With Undefined Contents
+	 */
+	public Matrix4 pushMatrix4() {
+		if(top4 == matrices4.length) {
+			Matrix4[] a = new Matrix4[Math.max(8, top4 * 2)];
+			System.arraycopy(matrices4, 0, a, 0, top4);
+			for(int i = top4;i < a.length;i++) a[i] = new Matrix4();
+			matrices4 = a;
+		}
+		return matrices4[top4++];
+	}
+	/**
+	 * Return The Last n Borrowed 4x4 Matrices
+	 * @param n Number Of Matrices
+	 */
+	public void popMatrix4(int n) {
+		if(n > top4) throw new IllegalStateException("Scratch Matrix4 Stack Underflow");
+		top4 -= n;
+	}
+
+	/**
+	 * Borrow A 3x3 Matrix (Allocates Only The First Time This Depth Is Reached)
+	 * @return Matrix With Undefined Contents
+	 */
+	public Matrix3 pushMatrix3() {
+		if(top3 == matrices3.length) {
+			Matrix3[] a = new Matrix3[Math.max(8, top3 * 2)];
+			System.arraycopy(matrices3, 0, a, 0, top3);
+			for(int i = top3;i < a.length;i++) a[i] = new Matrix3();
+			matrices3 = a;
+		}
+		return matrices3[top3++];
+	}
+	/**
+	 * Return The Last n Borrowed 3x3 Matrices
+	 * @param n Number Of Matrices
+	 */
+	public void popMatrix3(int n) {
+		if(n > top3) throw new IllegalStateException("Scratch Matrix3 Stack Underflow");
+		top3 -= n;
+	}
+
+	/**
+	 * Borrow A Vector (Allocates Only The First Time This Depth Is Reached)
+	 * @return Vector With Undefined Contents
+	 */
+	public Vector3 pushVector3() {
+		if(topV3 == vectors3.length) {
+			Vector3[] a = new Vector3[Math.max(8, topV3 * 2)];
+			System.arraycopy(vectors3, 0, a, 0, topV3);
+			for(int i = topV3;i < a.length;i++) a[i] = new Vector3();
+			vectors3 = a;
+		}
+		return vectors3[topV3++];
+	}
+	/**
+	 * Return The Last n Borrowed Vectors
+	 * @param n Number Of Vectors
+	 */
+	public void popVector3(int n) {
+		if(n > topV3) throw new IllegalStateException("Scratch Vector3 Stack Underflow");
+		topV3 -= n;
+	}
+}
@@ -0,0 +1,130 @@
+package ext.java;
+
+import java.util.Arrays;
+
+/**
+ * Set Of Primitive Ints (No Boxing), Using Open Addressing With Linear Probing.
+ *
+ * Members are also kept in insertion order in a dense array, so they can be visited with
+ * {@link #get(int)} for indices below {@link #size()}, and {@link #clear()} only touches the
+ * slots that were filled.  Members cannot be removed individually.
+ */
+public class IntHashSet {
+	/**
+	 * Marks An Empty Slot (The Value Itself Is Tracked By {@link #hasEmptyValue})
+	 */
+	private static final int EMPTY = Integer.MIN_VALUE;
+
+	private int[] table;
+	private int mask;
+	private int[] values;
+	private int count = 0;
+	private boolean hasEmptyValue = false;
+
+	public IntHashSet() {
+		this(16);
+	}
+	/**
+	 * @param capacity Expected Number Of Members
+	 */
+	public IntHashSet(int capacity) {
+		int n = Integer.highestOneBit(Math.max(8, capacity * 2 - 1)) << 1;
+		table = new int[n];
+		Arrays.fill(table, EMPTY);
+		mask = n - 1;
+		values = new int[Math.max(8, capacity)];
+	}
+
+	/**
+	 * @return Number Of Members
+	 */
+	public int size() {
+		return count;
+	}
+	/**
+	 * @param i Index In [0, size())
+	 * @return The i-th Member, In Insertion Order
+	 */
+	public int get(int i) {
+		return values[i];
+	}
+	public boolean contains(int v) {
+		if(v == EMPTY) return hasEmptyValue;
+		int slot = hash(v) & mask;
+		while(true) {
+			int t = table[slot];
+			if(t == v) return true;
+			if(t == EMPTY) return false;
+			slot = (slot + 1) & mask;
+		}
+	}
+	/**
+	 * @param v Value To Add
+	 * @return True If The Value Was Not Already A Member
+	 */
+	public boolean add(int v) {
+		if(v == EMPTY) {
+			if(hasEmptyValue) return false;
+			hasEmptyValue = true;
+			append(v);
+			return true;
+		}
+		int slot = hash(v) & mask;
+		while(true) {
+			int t = table[slot];
+			if(t == v) return false;
+			if(t == EMPTY) break;
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = v;
+		append(v);
+
+		// Keep The Table At Most Half Full
+		if(count * 2 > table.length) rehash(table.length * 2);
+		return true;
+	}
+	/**
+	 * Remove Every Member (Storage Is Kept For Reuse)
+	 */
+	public void clear() {
+		if(count * 4 < table.length) {
+			// Few Members: Empty Just Their Slots
+			for(int i = 0;i < count;i++) {
+				int v = values[i];
+				if(v == EMPTY) continue;
+				int slot = hash(v) & mask;
+				while(table[slot] != v) slot = (slot + 1) & mask;
+				table[slot] = EMPTY;
+			}
+		}
+		else {
+			Arrays.fill(table, EMPTY);
+		}
+		count = 0;
+		hasEmptyValue = false;
+	}
+
+	private void append(int v) {
+		if(count == values.length) values = Arrays.copyOf(values, count * 2);
+		values[count++] = v;
+	}
+	private void rehash(int n) {
+		table = new int[n];
+		Arrays.fill(table, EMPTY);
+		mask = n - 1;
+		for(int i = 0;i < count;i++) {
+			int v = values[i];
+			if(v == EMPTY) continue;
+			int slot = hash(v) & mask;
+			while(table[slot] != EMPTY) slot = (slot + 1) & mask;
+			table[slot] = v;
+		}
+	}
+	/**
+	 * Spread Consecutive IDs Over The Table (Fibonacci Hashing)
+	 */
+	private static int hash(int v) {
+		int h = v * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,72 @@
+package ext.java;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Three Slots Handed Between One Writing Thread And One Reading Thread Without Locks.
+ *
+ * The writer fills its back slot and publishes it, which swaps it with the middle slot.  The reader
+ * acquires the latest published slot by swapping its front slot with the middle one.  Neither side
+ * ever waits, the reader always gets the most recent slot (skipping any it was too slow to see),
+ * and a slot is never written while the reader holds it.
+ */
+public class TripleBuffer<T> {
+	/**
+	 * Set In {@link #middle} When The Middle Slot Was Published And Not Yet Acquired
+	 */
+	private static final int FRESH = 4;
+	private static final int INDEX = 3;
+
+	private final Object[] slots;
+	/**
+	 * Index Of The Middle Slot, Plus {@link #FRESH}
+	 */
+	private final AtomicInteger middle = new AtomicInteger(1);
+	/**
+	 * Slot Owned By The Writer
+	 */
+	private int back = 2;
+	/**
+	 * Slot Owned By The Reader
+	 */
+	private int front = 0;
+
+	/**
+	 * @param a First Slot (Held By The Reader Until Something Is Published)
+	 * @param b Second Slot
+	 * @param c Third Slot
+	 */
+	public TripleBuffer(T a, T b, T c) {
+		slots = new Object[] { a, b, c };
+	}
+
+	/**
+	 * @return The Slot To Fill (Writer Only)
+	 */
+	@SuppressWarnings("unchecked")
+	public T getBack() {
+		return (T)slots[back];
+	}
+	/**
+	 * Make The Filled Back Slot The Latest One, And Take Another To Fill (Writer Only)
+	 */
+	public void publish() {
+		back = middle.getAndSet(back | FRESH) & INDEX;
+	}
+	/**
+	 * Take The Latest Published Slot, If One Was Published Since The Last Call (Reader Only)
+	 * @return True If {@link #getFront()} Changed
+	 */
+	public boolean acquire() {
+		if((middle.get() & FRESH) == 0) return false;
+		front = middle.getAndSet(front) & INDEX;
+		return true;
+	}
+	/**
+	 * @return The Slot Last Acquired (Reader Only)
+	 */
+	@SuppressWarnings("unchecked")
+	public T getFront() {
+		return (T)slots[front];
+	}
+}
@@ -6,6 +6,7 @@ import org.lwjgl.input.Mouse;
 import common.Scene;
 import common.event.SceneTransformationEvent;
 import egl.math.Matrix4;
+import egl.math.ScratchStack;
 import egl.math.Vector3;
 
 public class CameraController {
@@ -18,6 +19,11 @@ public class CameraController {
 	
 	protected boolean orbitMode = false;
 	
+	/**
+	 * Stand-In Parent Transformation For Cameras Without A Parent (Never Modified)
+	 */
+	private static final Matrix4 IDENTITY = new Matrix4();
+	
 	public CameraController(Scene s, RenderEnvironment re, RenderCamera c) {
 		scene = s;
 		rEnv = re;
@@ -56,7 +62,8 @@ public class CameraController {
 		if(Keyboard.isKeyDown(Keyboard.KEY_O)) { orbitMode = true; } 
 		if(Keyboard.isKeyDown(Keyboard.KEY_F)) { orbitMode = false; } 
 		
-		boolean thisFrameButtonDown = Mouse.isButtonDown(0) && !(Keyboard.isKeyDown(Keyboard.KEY_LCONTROL) || Keyboard.isKeyDown(Keyboard.KEY_RCONTROL));
+		boolean thisFrameButtonDown = Mouse.isButtonDown(0) && !(Keyboard.isKeyDown(Keyboard.KEY_LCONTROL) || Keyboard.isKeyDown(Keyboard.KEY_RCONTROL) ||
+				Keyboard.isKeyDown(Keyboard.KEY_LMENU) || Keyboard.isKeyDown(Keyboard.KEY_RMENU));
 		int thisMouseX = Mouse.getX(), thisMouseY = Mouse.getY();
 		if (thisFrameButtonDown && prevFrameButtonDown) {
 			rotation.add(0, -0.1f * (thisMouseX - prevMouseX), 0);
@@ -67,7 +74,7 @@ public class CameraController {
 		prevMouseY = thisMouseY;
 		
 		RenderObject parent = rEnv.findObject(scene.objects.get(camera.sceneObject.parent));
-		Matrix4 pMat = parent == null ? new Matrix4() : parent.mWorldTransform;
+		Matrix4 pMat = parent == null ? IDENTITY : parent.mWorldTransform;
 		if(motion.lenSq() > 0.01) {
 			motion.normalize();
 			motion.mul(5 * (float)et);
@@ -96,24 +103,30 @@ public class CameraController {
 		// TODO#A3#Part 3
 		
 		// rotate and fly
-		Matrix4 mNew2 = new Matrix4();
+		ScratchStack scratch = ScratchStack.get();
+		Matrix4 mNew2 = scratch.pushMatrix4();
+		Matrix4 mTmp = scratch.pushMatrix4();
 		float x = rotation.x*(float)Math.PI/180;
 		float y = rotation.x*(float)Math.PI/180;
 		float z = rotation.x*(float)Math.PI/180;
-		mNew2.set(Matrix4.createRotationX(x));
-		mNew2.mulAfter(Matrix4.createRotationY(y));
-		mNew2.mulAfter(Matrix4.createRotationZ(z));
+		Matrix4.createRotationX(x, mNew2);
+		mNew2.mulAfter(Matrix4.createRotationY(y, mTmp));
+		mNew2.mulAfter(Matrix4.createRotationZ(z, mTmp));
 		
 		// orbit
 		if (orbitMode) {
-			Vector3 theCenter = new Vector3();
-			theCenter = transformation.clone().invert().mulPos(theCenter);
-			theCenter = parentWorld.clone().invert().mulPos(theCenter);			
-			mNew2.mulBefore(Matrix4.createTranslation(theCenter.clone().negate()));
-			mNew2.mulAfter(Matrix4.createTranslation(theCenter).invert());
+			Vector3 theCenter = scratch.pushVector3().set(0, 0, 0);
+			Matrix4.invertAffine(transformation, mTmp).mulPos(theCenter);
+			Matrix4.invertAffine(parentWorld, mTmp).mulPos(theCenter);
+			theCenter.negate();
+			mNew2.mulBefore(Matrix4.createTranslation(theCenter, mTmp));
+			theCenter.negate();
+			mNew2.mulAfter(Matrix4.invertRigid(Matrix4.createTranslation(theCenter, mTmp), mTmp));
+			scratch.popVector3(1);
 		}
 				
 		transformation.mulBefore(mNew2);
+		scratch.popMatrix4(2);
 	}
 	
 	/**
@@ -126,8 +139,9 @@ public class CameraController {
 	 */
 	protected void translate(Matrix4 parentWorld, Matrix4 transformation, Vector3 motion) {
 		// TODO#A3#Part 3
-		Matrix4 mNew1 = new Matrix4();
-		mNew1.set(Matrix4.createTranslation(motion));
+		Matrix4 mNew1 = ScratchStack.get().pushMatrix4();
+		Matrix4.createTranslation(motion, mNew1);
 		transformation.mulBefore(mNew1);
+		ScratchStack.get().popMatrix4(1);
 	}
 }
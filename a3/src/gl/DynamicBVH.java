@@ -0,0 +1,517 @@
+package gl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import egl.math.Frustum;
+import egl.math.Ray;
+import egl.math.Vector3;
+
+/**
+ * Dynamic Bounding Volume Hierarchy Over The World Bounds Of RenderObjects.
+ *
+ * A binary tree of axis-aligned boxes whose leaves hold one object each.  Leaves store a box
+ * enlarged by a margin, so an object that moves a little stays inside its leaf and costs nothing;
+ * otherwise its leaf is removed and reinserted, which touches one root-to-leaf path (O(log n)).
+ * Insertion descends towards the sibling that grows the total surface area least, and tree
+ * rotations on the way back up keep the height balanced.
+ *
+ * Nodes live in parallel primitive arrays indexed by node number, with freed nodes chained
+ * through the parent array.  Each object remembers its leaf in RenderObject.boundsNode.
+ * Traversals use an explicit stack, so they neither recurse nor allocate once the stack has grown.
+ */
+public class DynamicBVH {
+	/**
+	 * Receives The Objects Whose Boxes A Ray Hits
+	 */
+	public static interface IRayCallback {
+		/**
+		 * @param ro Object Whose World Bounds The Ray Enters
+		 * @param distance Distance Along The Ray Where It Enters The Bounds
+		 * @param maxDistance Current Search Limit
+		 * @return New Search Limit (maxDistance To Continue Unchanged, A Hit Distance To Only Look Closer, 0 To Stop)
+		 */
+		float hit(RenderObject ro, float distance, float maxDistance);
+	}
+
+	private static final int NULL = -1;
+	/**
+	 * Floats Per Box In The Bounds Array (Min XYZ, Then Max XYZ)
+	 */
+	private static final int BOX = 6;
+
+	/**
+	 * Leaves Are Enlarged By This Fraction Of Their Largest Dimension On Every Side...
+	 */
+	public float marginRatio = 0.1f;
+	/**
+	 * ...But At Least By This Distance
+	 */
+	public float minMargin = 0.01f;
+
+	private int root = NULL;
+	private int freeList = NULL;
+	private int leafCount = 0;
+
+	private int[] parents = new int[0];
+	private int[] child1 = new int[0];
+	private int[] child2 = new int[0];
+	/**
+	 * Leaves Have Height 0 And Free Nodes Height -1
+	 */
+	private int[] heights = new int[0];
+	private float[] boxes = new float[0];
+	private RenderObject[] objects = new RenderObject[0];
+
+	private int[] stack = new int[64];
+	private final NearestBox nearestBox = new NearestBox();
+
+	/**
+	 * @return Number Of Objects In The Tree
+	 */
+	public int size() {
+		return leafCount;
+	}
+	/**
+	 * @return Number Of Edges On The Longest Root-To-Leaf Path (-1 When Empty)
+	 */
+	public int getHeight() {
+		return root == NULL ? -1 : heights[root];
+	}
+	/**
+	 * @param ro Object
+	 * @return True If The Object Has A Leaf In This Tree
+	 */
+	public boolean contains(RenderObject ro) {
+		int n = ro.boundsNode;
+		return n >= 0 && n < objects.length && objects[n] == ro;
+	}
+
+	/**
+	 * Remove Every Object
+	 */
+	public void clear() {
+		for(int i = 0;i < objects.length;i++) {
+			if(objects[i] != null) objects[i].boundsNode = NULL;
+		}
+		int n = parents.length;
+		for(int i = 0;i < n;i++) {
+			parents[i] = i + 1 < n ? i + 1 : NULL;
+			heights[i] = -1;
+		}
+		Arrays.fill(objects, null);
+		freeList = n > 0 ? 0 : NULL;
+		root = NULL;
+		leafCount = 0;
+	}
+
+	/**
+	 * Add An Object Using Its Current World Bounds
+	 * @param ro Object Not Yet In The Tree
+	 */
+	public void insert(RenderObject ro) {
+		int leaf = allocate();
+		objects[leaf] = ro;
+		ro.boundsNode = leaf;
+		setFatBox(leaf, ro);
+		insertLeaf(leaf);
+		leafCount++;
+	}
+	/**
+	 * Take An Object Out Of The Tree (Nothing Happens If It Is Not In It)
+	 * @param ro Object
+	 */
+	public void remove(RenderObject ro) {
+		if(!contains(ro)) return;
+		int leaf = ro.boundsNode;
+		removeLeaf(leaf);
+		free(leaf);
+		ro.boundsNode = NULL;
+		leafCount--;
+	}
+	/**
+	 * Move An Object's Leaf After Its World Bounds Changed
+	 * @param ro Object In The Tree
+	 * @return True If The Bounds Left The Enlarged Leaf Box And The Leaf Was Reinserted
+	 */
+	public boolean update(RenderObject ro) {
+		int leaf = ro.boundsNode;
+		int o = leaf * BOX;
+		Vector3 min = ro.worldBoundsMin, max = ro.worldBoundsMax;
+		if(boxes[o] <= min.x && boxes[o + 1] <= min.y && boxes[o + 2] <= min.z &&
+				boxes[o + 3] >= max.x && boxes[o + 4] >= max.y && boxes[o + 5] >= max.z) {
+			return false;
+		}
+		removeLeaf(leaf);
+		setFatBox(leaf, ro);
+		insertLeaf(leaf);
+		return true;
+	}
+
+	/**
+	 * Collect The Objects Whose World Bounds May Intersect A Frustum.
+	 * Subtrees Entirely Inside The Frustum Are Added Without Testing Their Objects.
+	 * @param f Frustum
+	 * @param out Receives The Objects (Not Cleared First)
+	 */
+	public void query(Frustum f, ArrayList<RenderObject> out) {
+		if(root == NULL) return;
+		int top = 0;
+		stack[top++] = root;
+		while(top > 0) {
+			int n = stack[--top];
+
+			// Negative Entries Are Complemented Nodes Already Known To Be Inside
+			boolean isInside = n < 0;
+			if(isInside) n = ~n;
+			else {
+				int o = n * BOX;
+				int c = f.classify(boxes[o], boxes[o + 1], boxes[o + 2], boxes[o + 3], boxes[o + 4], boxes[o + 5]);
+				if(c == Frustum.OUTSIDE) continue;
+				isInside = c == Frustum.INSIDE;
+			}
+
+			if(heights[n] == 0) {
+				RenderObject ro = objects[n];
+				if(isInside || f.intersects(ro.worldBoundsMin, ro.worldBoundsMax)) out.add(ro);
+			}
+			else {
+				top = push(top, isInside ? ~child1[n] : child1[n]);
+				top = push(top, isInside ? ~child2[n] : child2[n]);
+			}
+		}
+	}
+	/**
+	 * Collect The Objects Whose World Bounds Overlap A Box
+	 * @param min Corner Of The Region With The Smallest Coordinates
+	 * @param max Corner Of The Region With The Largest Coordinates
+	 * @param out Receives The Objects (Not Cleared First)
+	 */
+	public void query(Vector3 min, Vector3 max, ArrayList<RenderObject> out) {
+		if(root == NULL) return;
+		int top = 0;
+		stack[top++] = root;
+		while(top > 0) {
+			int n = stack[--top];
+			int o = n * BOX;
+			if(boxes[o] > max.x || boxes[o + 1] > max.y || boxes[o + 2] > max.z ||
+					boxes[o + 3] < min.x || boxes[o + 4] < min.y || boxes[o + 5] < min.z) {
+				continue;
+			}
+			if(heights[n] == 0) {
+				RenderObject ro = objects[n];
+				Vector3 bMin = ro.worldBoundsMin, bMax = ro.worldBoundsMax;
+				if(bMin.x <= max.x && bMin.y <= max.y && bMin.z <= max.z &&
+						bMax.x >= min.x && bMax.y >= min.y && bMax.z >= min.z) {
+					out.add(ro);
+				}
+			}
+			else {
+				top = push(top, child1[n]);
+				top = push(top, child2[n]);
+			}
+		}
+	}
+	/**
+	 * Visit The Objects Whose World Bounds A Ray Enters, Nearer Subtrees First
+	 * @param origin Ray Origin
+	 * @param dir Ray Direction (Distances Are Measured In Multiples Of Its Length)
+	 * @param maxDistance Search Limit
+	 * @param cb Receives Each Object And May Shorten The Search
+	 * @return The Final Search Limit
+	 */
+	public float raycast(Vector3 origin, Vector3 dir, float maxDistance, IRayCallback cb) {
+		if(root == NULL) return maxDistance;
+		float ox = origin.x, oy = origin.y, oz = origin.z;
+		float ix = 1 / dir.x, iy = 1 / dir.y, iz = 1 / dir.z;
+		int top = 0;
+		stack[top++] = root;
+		while(top > 0 && maxDistance > 0) {
+			int n = stack[--top];
+			int o = n * BOX;
+			if(Ray.intersectBox(boxes[o], boxes[o + 1], boxes[o + 2], boxes[o + 3], boxes[o + 4], boxes[o + 5],
+					ox, oy, oz, ix, iy, iz, maxDistance) > maxDistance) {
+				continue;
+			}
+			if(heights[n] == 0) {
+				RenderObject ro = objects[n];
+				Vector3 bMin = ro.worldBoundsMin, bMax = ro.worldBoundsMax;
+				float t = Ray.intersectBox(bMin.x, bMin.y, bMin.z, bMax.x, bMax.y, bMax.z, ox, oy, oz, ix, iy, iz, maxDistance);
+				if(t <= maxDistance) maxDistance = cb.hit(ro, t, maxDistance);
+			}
+			else {
+				// Push The Farther Child First So The Nearer One Is Searched First
+				int a = child1[n], b = child2[n];
+				int oa = a * BOX, ob = b * BOX;
+				float ta = Ray.intersectBox(boxes[oa], boxes[oa + 1], boxes[oa + 2], boxes[oa + 3], boxes[oa + 4], boxes[oa + 5],
+						ox, oy, oz, ix, iy, iz, maxDistance);
+				float tb = Ray.intersectBox(boxes[ob], boxes[ob + 1], boxes[ob + 2], boxes[ob + 3], boxes[ob + 4], boxes[ob + 5],
+						ox, oy, oz, ix, iy, iz, maxDistance);
+				if(ta > tb) {
+					int s = a; a = b; b = s;
+					float st = ta; ta = tb; tb = st;
+				}
+				if(tb <= maxDistance) top = push(top, b);
+				if(ta <= maxDistance) top = push(top, a);
+			}
+		}
+		return maxDistance;
+	}
+	/**
+	 * Find The Object Whose World Bounds A Ray Enters First
+	 * @param origin Ray Origin
+	 * @param dir Ray Direction
+	 * @param maxDistance Search Limit
+	 * @return The Object, Or Null If The Ray Misses Every Box
+	 */
+	public RenderObject raycast(Vector3 origin, Vector3 dir, float maxDistance) {
+		nearestBox.nearest = null;
+		raycast(origin, dir, maxDistance, nearestBox);
+		RenderObject ro = nearestBox.nearest;
+		nearestBox.nearest = null;
+		return ro;
+	}
+	private static class NearestBox implements IRayCallback {
+		RenderObject nearest;
+
+		@Override
+		public float hit(RenderObject ro, float distance, float maxDistance) {
+			nearest = ro;
+			return distance;
+		}
+	}
+
+	private int push(int top, int n) {
+		if(top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+		stack[top] = n;
+		return top + 1;
+	}
+
+	private int allocate() {
+		if(freeList == NULL) {
+			// Double The Storage And Chain The New Nodes Into The Free List
+			int old = parents.length;
+			int n = Math.max(16, old * 2);
+			parents = Arrays.copyOf(parents, n);
+			child1 = Arrays.copyOf(child1, n);
+			child2 = Arrays.copyOf(child2, n);
+			heights = Arrays.copyOf(heights, n);
+			boxes = Arrays.copyOf(boxes, n * BOX);
+			objects = Arrays.copyOf(objects, n);
+			for(int i = old;i < n;i++) {
+				parents[i] = i + 1 < n ? i + 1 : NULL;
+				heights[i] = -1;
+			}
+			freeList = old;
+		}
+		int node = freeList;
+		freeList = parents[node];
+		parents[node] = NULL;
+		child1[node] = NULL;
+		child2[node] = NULL;
+		heights[node] = 0;
+		objects[node] = null;
+		return node;
+	}
+	private void free(int node) {
+		parents[node] = freeList;
+		heights[node] = -1;
+		objects[node] = null;
+		freeList = node;
+	}
+
+	private void setFatBox(int leaf, RenderObject ro) {
+		Vector3 min = ro.worldBoundsMin, max = ro.worldBoundsMax;
+		float size = Math.max(max.x - min.x, Math.max(max.y - min.y, max.z - min.z));
+		float m = Math.max(minMargin, size * marginRatio);
+		int o = leaf * BOX;
+		boxes[o] = min.x - m;
+		boxes[o + 1] = min.y - m;
+		boxes[o + 2] = min.z - m;
+		boxes[o + 3] = max.x + m;
+		boxes[o + 4] = max.y + m;
+		boxes[o + 5] = max.z + m;
+	}
+	private void union(int dst, int a, int b) {
+		int d = dst * BOX, oa = a * BOX, ob = b * BOX;
+		for(int i = 0;i < 3;i++) {
+			boxes[d + i] = Math.min(boxes[oa + i], boxes[ob + i]);
+			boxes[d + 3 + i] = Math.max(boxes[oa + 3 + i], boxes[ob + 3 + i]);
+		}
+	}
+	/**
+	 * Surface Area Of A Node's Box (Up To A Constant Factor)
+	 */
+	private float area(int n) {
+		int o = n * BOX;
+		float dx = boxes[o + 3] - boxes[o], dy = boxes[o + 4] - boxes[o + 1], dz = boxes[o + 5] - boxes[o + 2];
+		return dx * dy + dy * dz + dz * dx;
+	}
+	/**
+	 * Surface Area Of The Box Around Two Nodes
+	 */
+	private float unionArea(int a, int b) {
+		int oa = a * BOX, ob = b * BOX;
+		float dx = Math.max(boxes[oa + 3], boxes[ob + 3]) - Math.min(boxes[oa], boxes[ob]);
+		float dy = Math.max(boxes[oa + 4], boxes[ob + 4]) - Math.min(boxes[oa + 1], boxes[ob + 1]);
+		float dz = Math.max(boxes[oa + 5], boxes[ob + 5]) - Math.min(boxes[oa + 2], boxes[ob + 2]);
+		return dx * dy + dy * dz + dz * dx;
+	}
+
+	private void insertLeaf(int leaf) {
+		if(root == NULL) {
+			root = leaf;
+			parents[leaf] = NULL;
+			return;
+		}
+
+		// Pass 1: Descend Towards The Cheapest Sibling (Surface Area Heuristic)
+		int index = root;
+		while(heights[index] > 0) {
+			int c1 = child1[index], c2 = child2[index];
+			float area = area(index);
+			float combinedArea = unionArea(index, leaf);
+
+			// Cost Of Pairing The Leaf With This Node, And The Growth Pushed Down To Any Child
+			float cost = 2 * combinedArea;
+			float inheritance = 2 * (combinedArea - area);
+			float cost1 = unionArea(c1, leaf) + inheritance;
+			if(heights[c1] > 0) cost1 -= area(c1);
+			float cost2 = unionArea(c2, leaf) + inheritance;
+			if(heights[c2] > 0) cost2 -= area(c2);
+
+			if(cost < cost1 && cost < cost2) break;
+			index = cost1 < cost2 ? c1 : c2;
+		}
+		int sibling = index;
+
+		// Pass 2: Replace The Sibling With A New Parent Of Both
+		int oldParent = parents[sibling];
+		int newParent = allocate();
+		parents[newParent] = oldParent;
+		union(newParent, leaf, sibling);
+		heights[newParent] = heights[sibling] + 1;
+		if(oldParent != NULL) {
+			if(child1[oldParent] == sibling) child1[oldParent] = newParent;
+			else child2[oldParent] = newParent;
+		}
+		else {
+			root = newParent;
+		}
+		child1[newParent] = sibling;
+		child2[newParent] = leaf;
+		parents[sibling] = newParent;
+		parents[leaf] = newParent;
+
+		// Pass 3: Refit And Rebalance The Ancestors
+		refit(parents[leaf]);
+	}
+	private void removeLeaf(int leaf) {
+		if(leaf == root) {
+			root = NULL;
+			return;
+		}
+		int parent = parents[leaf];
+		int grandParent = parents[parent];
+		int sibling = child1[parent] == leaf ? child2[parent] : child1[parent];
+
+		// The Sibling Takes The Parent's Place
+		if(grandParent != NULL) {
+			if(child1[grandParent] == parent) child1[grandParent] = sibling;
+			else child2[grandParent] = sibling;
+			parents[sibling] = grandParent;
+			free(parent);
+			refit(grandParent);
+		}
+		else {
+			root = sibling;
+			parents[sibling] = NULL;
+			free(parent);
+		}
+	}
+	private void refit(int index) {
+		while(index != NULL) {
+			index = balance(index);
+			int c1 = child1[index], c2 = child2[index];
+			heights[index] = 1 + Math.max(heights[c1], heights[c2]);
+			union(index, c1, c2);
+			index = parents[index];
+		}
+	}
+
+	/**
+	 * Rotate The Taller Child Of A Node Up When The Children's Heights Differ By More Than One
+	 * @param a Node
+	 * @return The Node Now At a's Position
+	 */
+	private int balance(int a) {
+		if(heights[a] < 2) return a;
+		int b = child1[a], c = child2[a];
+		int diff = heights[c] - heights[b];
+
+		if(diff > 1) {
+			// Rotate c Up
+			int f = child1[c], g = child2[c];
+			child1[c] = a;
+			parents[c] = parents[a];
+			parents[a] = c;
+			replaceChild(parents[c], a, c);
+
+			// a Keeps The Shorter Grandchild
+			if(heights[f] > heights[g]) {
+				child2[c] = f;
+				child2[a] = g;
+				parents[g] = a;
+			}
+			else {
+				child2[c] = g;
+				child2[a] = f;
+				parents[f] = a;
+			}
+			fix(a);
+			fix(c);
+			return c;
+		}
+		if(diff < -1) {
+			// Rotate b Up
+			int d = child1[b], e = child2[b];
+			child1[b] = a;
+			parents[b] = parents[a];
+			parents[a] = b;
+			replaceChild(parents[b], a, b);
+
+			if(heights[d] > heights[e]) {
+				child2[b] = d;
+				child1[a] = e;
+				parents[e] = a;
+			}
+			else {
+				child2[b] = e;
+				child1[a] = d;
+				parents[d] = a;
+			}
+			fix(a);
+			fix(b);
+			return b;
+		}
+		return a;
+	}
+	private void replaceChild(int parent, int oldChild, int newChild) {
+		if(parent == NULL) {
+			root = newChild;
+		}
+		else if(child1[parent] == oldChild) {
+			child1[parent] = newChild;
+		}
+		else {
+			child2[parent] = newChild;
+		}
+	}
+	/**
+	 * Recompute An Inner Node's Box And Height From Its Children
+	 */
+	private void fix(int n) {
+		union(n, child1[n], child2[n]);
+		heights[n] = 1 + Math.max(heights[child1[n]], heights[child2[n]]);
+	}
+}
@@ -0,0 +1,176 @@
+package gl;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.regex.Pattern;
+
+import org.lwjgl.opengl.ContextCapabilities;
+import org.lwjgl.opengl.GL31;
+
+import egl.GLBuffer;
+import egl.GLProgram;
+import egl.GLUtil;
+import egl.IDisposable;
+import egl.NativeMem;
+import egl.RenderCommandBuffer;
+import egl.GL.BufferTarget;
+import egl.GL.BufferUsageHint;
+import egl.math.Matrix4;
+import egl.math.Vector3;
+import egl.math.Vector3d;
+
+/**
+ * Camera And Light Data Shared By Every Material, Uploaded Once Per Frame Into A Uniform Buffer.
+ *
+ * Material shaders read the data from the FrameData uniform block (std140 layout, bound to
+ * {@link #BINDING}), so changing materials no longer sends the camera and every light to each
+ * program again.  The block members keep the names of the uniforms they replace, and
+ * {@link #declare(String)} puts either the block or the equivalent plain uniforms into a shader's
+ * source.  Without uniform buffers, materials keep setting the plain uniforms themselves.
+ */
+public class FrameUniformBlock implements IDisposable {
+	/**
+	 * Name Of The Uniform Block In Shaders
+	 */
+	public static final String BLOCK_NAME = "FrameData";
+	/**
+	 * Uniform Buffer Binding Point Reserved For The Block
+	 */
+	public static final int BINDING = 0;
+	/**
+	 * Size Of The Light Arrays
+	 */
+	public static final int MAX_LIGHTS = 16;
+	/**
+	 * Directive That Lets GLSL 1.20 Shaders Declare Uniform Blocks
+	 */
+	public static final String EXTENSION_DIRECTIVE = "#extension GL_ARB_uniform_buffer_object : require";
+
+	// std140 Byte Offsets (Each vec3 Array Element Is Padded To 16 Bytes)
+	private static final int OFFSET_VIEW = 0;
+	private static final int OFFSET_PROJ = 64;
+	private static final int OFFSET_VIEW_PROJECTION = 128;
+	private static final int OFFSET_WORLD_CAM = 192;
+	private static final int OFFSET_EXPOSURE = 204;
+	private static final int OFFSET_AMBIENT = 208;
+	private static final int OFFSET_LIGHT_COUNT = 220;
+	private static final int OFFSET_LIGHT_POSITION = 224;
+	private static final int OFFSET_LIGHT_INTENSITY = OFFSET_LIGHT_POSITION + 16 * MAX_LIGHTS;
+	/**
+	 * Size Of The Block In Bytes
+	 */
+	public static final int SIZE = OFFSET_LIGHT_INTENSITY + 16 * MAX_LIGHTS;
+
+	private static final String SOURCE_BLOCK =
+			" layout(std140) uniform " + BLOCK_NAME + " { " +
+			"mat4 mView; mat4 mProj; mat4 mViewProjection; " +
+			"vec3 worldCam; float exposure; " +
+			"vec3 ambientLightIntensity; int numLights; " +
+			"vec3 lightPosition[" + MAX_LIGHTS + "]; vec3 lightIntensity[" + MAX_LIGHTS + "]; " +
+			"}; ";
+	private static final String SOURCE_UNIFORMS =
+			" uniform mat4 mView; uniform mat4 mProj; uniform mat4 mViewProjection; " +
+			"uniform vec3 worldCam; uniform float exposure; " +
+			"uniform vec3 ambientLightIntensity; uniform int numLights; " +
+			"uniform vec3 lightPosition[" + MAX_LIGHTS + "]; uniform vec3 lightIntensity[" + MAX_LIGHTS + "]; ";
+	/**
+	 * A Shader's Own Declaration Of Any Block Member (Removed So The Shared One Does Not Clash)
+	 */
+	private static final Pattern RGX_MEMBER = Pattern.compile(
+			"\\buniform[ \\t]+\\w+[ \\t]+" +
+			"(mView|mProj|mViewProjection|worldCam|exposure|ambientLightIntensity|numLights|lightPosition|lightIntensity)" +
+			"[ \\t]*(\\[[ \\t]*\\w*[ \\t]*\\])?[ \\t]*;");
+
+	/**
+	 * @return True If The Context Can Back Shader Uniform Blocks With Buffers
+	 */
+	public static boolean isSupported() {
+		ContextCapabilities caps = GLUtil.getCapabilities();
+		return caps != null && caps.OpenGL31 && caps.GL_ARB_uniform_buffer_object;
+	}
+	/**
+	 * Make A Shader Source Read Camera And Light Data From The Shared Declarations.
+	 * Declarations Are Added On The First Line, So Compile Errors Keep Their Line Numbers.
+	 * @param code Shader Source (Without Its #version Line)
+	 * @return The Source With Its Own Declarations Of The Data Replaced By The Block
+	 * (Or By Plain Uniforms When Uniform Buffers Are Unsupported)
+	 */
+	public static String declare(String code) {
+		code = RGX_MEMBER.matcher(code).replaceAll("");
+		return (isSupported() ? SOURCE_BLOCK : SOURCE_UNIFORMS) + code;
+	}
+	/**
+	 * Attach A Linked Program's Block To The Shared Binding Point
+	 * @param program Linked Program
+	 * @return True If The Program Reads The Block (And Needs No Camera Or Light Uniforms Of Its Own)
+	 */
+	public static boolean bind(GLProgram program) {
+		if(!isSupported() || !program.getIsLinked()) return false;
+		int index = GL31.glGetUniformBlockIndex(program.getID(), BLOCK_NAME);
+		if(index == GL31.GL_INVALID_INDEX) return false;
+		GL31.glUniformBlockBinding(program.getID(), index, BINDING);
+		return true;
+	}
+
+	private final GLBuffer buffer = new GLBuffer(BufferTarget.UniformBuffer, BufferUsageHint.StreamDraw, false);
+	private final ByteBuffer data = NativeMem.createByteBuffer(SIZE);
+	private final FloatBuffer floats = data.asFloatBuffer();
+	private final Vector3 pos = new Vector3();
+
+	@Override
+	public void dispose() {
+		buffer.dispose();
+	}
+
+	/**
+	 * Upload This Frame's Camera And Lights And Bind Them For Every Material (Does Nothing Without Uniform Buffers)
+	 * @param cb Commands Of The Frame
+	 * @param c Camera
+	 * @param lights Lights
+	 * @param s Index Of The First Light
+	 * @param lightCount Number Of Lights (At Most {@link #MAX_LIGHTS})
+	 */
+	public void update(RenderCommandBuffer cb, RenderCamera c, ArrayList<RenderLight> lights, int s, int lightCount) {
+		if(!isSupported()) return;
+
+		putMatrix(OFFSET_VIEW, c.mView);
+		putMatrix(OFFSET_PROJ, c.mProj);
+		putMatrix(OFFSET_VIEW_PROJECTION, c.mViewProjection);
+		c.mWorldTransform.getTrans(pos);
+		putVector(OFFSET_WORLD_CAM, pos.x, pos.y, pos.z);
+		floats.put(OFFSET_EXPOSURE >> 2, c.sceneCamera.exposure);
+
+		// Ambient Lights Only Contribute Their Color (Default Is Black)
+		int nonAmbientLightCount = 0;
+		Vector3d ambientLightColor = null;
+		for(int i = 0;i < lightCount;i++) {
+			RenderLight rl = lights.get(s + i);
+			if(rl.sceneLight.isAmbient) {
+				ambientLightColor = rl.sceneLight.intensity;
+				continue;
+			}
+			rl.mWorldTransform.getTrans(pos);
+			putVector(OFFSET_LIGHT_POSITION + 16 * nonAmbientLightCount, pos.x, pos.y, pos.z);
+			Vector3d intensity = rl.sceneLight.intensity;
+			putVector(OFFSET_LIGHT_INTENSITY + 16 * nonAmbientLightCount, (float)intensity.x, (float)intensity.y, (float)intensity.z);
+			nonAmbientLightCount++;
+		}
+		if(ambientLightColor == null) putVector(OFFSET_AMBIENT, 0, 0, 0);
+		else putVector(OFFSET_AMBIENT, (float)ambientLightColor.x, (float)ambientLightColor.y, (float)ambientLightColor.z);
+		data.putInt(OFFSET_LIGHT_COUNT, nonAmbientLightCount);
+
+		data.clear();
+		cb.setUniformBuffer(buffer, BINDING, data);
+	}
+	private void putMatrix(int offset, Matrix4 m) {
+		int i = offset >> 2;
+		for(int j = 0;j < 16;j++) floats.put(i + j, m.m[j]);
+	}
+	private void putVector(int offset, float x, float y, float z) {
+		int i = offset >> 2;
+		floats.put(i, x);
+		floats.put(i + 1, y);
+		floats.put(i + 2, z);
+	}
+}
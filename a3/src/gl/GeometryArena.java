@@ -0,0 +1,318 @@
+package gl;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.lwjgl.opengl.ContextCapabilities;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL31;
+
+import egl.GLBuffer;
+import egl.GLError;
+import egl.GLUtil;
+import egl.GLVertexArray;
+import egl.IDisposable;
+import egl.ShaderInterface;
+import egl.GL.BufferTarget;
+import egl.GL.BufferUsageHint;
+
+/**
+ * Vertex And Index Storage Shared By Every Static Mesh Of An Environment.
+ *
+ * Meshes get a range of vertices and a range of indices in a few large buffers, and their
+ * indices stay relative to their first vertex, so a mesh is drawn with a base-vertex draw and
+ * switching meshes binds nothing.  Freed ranges go back to a free list, merged with their free
+ * neighbours.  When no free range is large enough, the live ranges are packed into new buffers,
+ * grown if needed; when most of a pool is free after a removal it is packed into smaller buffers.
+ * Packing moves ranges, so draws must read {@link Allocation} offsets fresh each time.
+ */
+public class GeometryArena implements IDisposable {
+	/**
+	 * Smallest Pool Capacities (In Vertices And Indices)
+	 */
+	private static final int MIN_VERTICES = 1 << 16;
+	private static final int MIN_INDICES = 3 << 16;
+
+	/**
+	 * @return True If The Context Supports Base-Vertex Draws And Copies Between Buffers
+	 */
+	public static boolean isSupported() {
+		ContextCapabilities caps = GLUtil.getCapabilities();
+		return caps != null && caps.OpenGL32;
+	}
+
+	/**
+	 * Ranges Of One Mesh In The Shared Buffers
+	 */
+	public static class Allocation {
+		/**
+		 * First Vertex (Added To Every Index) And Number Of Vertices
+		 */
+		public int baseVertex, vertexCount;
+		/**
+		 * First Index And Number Of Indices
+		 */
+		public int firstIndex, indexCount;
+	}
+
+	/**
+	 * First-Fit Allocator Of Ranges In [0, capacity), Whose Free Ranges Are Sorted And Merged
+	 */
+	static class FreeList {
+		public int capacity = 0, used = 0;
+		private int[] starts = new int[8], sizes = new int[8];
+		private int count = 0;
+
+		/**
+		 * Start Over With The Prefix [0, used) Taken And The Rest Free
+		 */
+		public void reset(int cap, int usedPrefix) {
+			capacity = cap;
+			used = usedPrefix;
+			count = 0;
+			if(usedPrefix < cap) insert(0, usedPrefix, cap - usedPrefix);
+		}
+		/**
+		 * @return Start Of The Range, Or -1 If No Free Range Is Large Enough
+		 */
+		public int allocate(int size) {
+			if(size == 0) return 0;
+			for(int i = 0;i < count;i++) {
+				if(sizes[i] < size) continue;
+				int start = starts[i];
+				if(sizes[i] == size) remove(i);
+				else {
+					starts[i] += size;
+					sizes[i] -= size;
+				}
+				used += size;
+				return start;
+			}
+			return -1;
+		}
+		public void free(int start, int size) {
+			if(size == 0) return;
+			used -= size;
+			int i = 0;
+			while(i < count && starts[i] < start) i++;
+			boolean isAfterPrev = i > 0 && starts[i - 1] + sizes[i - 1] == start;
+			boolean isBeforeNext = i < count && start + size == starts[i];
+			if(isAfterPrev && isBeforeNext) {
+				sizes[i - 1] += size + sizes[i];
+				remove(i);
+			}
+			else if(isAfterPrev) sizes[i - 1] += size;
+			else if(isBeforeNext) {
+				starts[i] = start;
+				sizes[i] += size;
+			}
+			else insert(i, start, size);
+		}
+		/**
+		 * @return Number Of Separate Free Ranges
+		 */
+		public int getFreeRangeCount() {
+			return count;
+		}
+
+		private void insert(int i, int start, int size) {
+			if(count == starts.length) {
+				starts = Arrays.copyOf(starts, count * 2);
+				sizes = Arrays.copyOf(sizes, count * 2);
+			}
+			System.arraycopy(starts, i, starts, i + 1, count - i);
+			System.arraycopy(sizes, i, sizes, i + 1, count - i);
+			starts[i] = start;
+			sizes[i] = size;
+			count++;
+		}
+		private void remove(int i) {
+			count--;
+			System.arraycopy(starts, i + 1, starts, i, count - i);
+			System.arraycopy(sizes, i + 1, sizes, i, count - i);
+		}
+	}
+
+	private GLBuffer vBuffer = null, vBufferTangentSpace = null, iBuffer = null;
+	private final FreeList vertices = new FreeList(), indices = new FreeList();
+	private final ArrayList<Allocation> allocations = new ArrayList<>();
+	/**
+	 * Vertex Arrays Over The Shared Buffers, One Per Program Input Layout (Dropped When The Buffers Are Replaced)
+	 */
+	private final VertexArrayCache vertexArrays = new VertexArrayCache();
+	/**
+	 * Number Of Times A Pool Was Packed Into New Buffers
+	 */
+	public int repackCount = 0;
+
+	@Override
+	public void dispose() {
+		vertexArrays.dispose();
+		if(vBuffer != null) {
+			vBuffer.dispose();
+			vBufferTangentSpace.dispose();
+			vBuffer = vBufferTangentSpace = null;
+		}
+		if(iBuffer != null) {
+			iBuffer.dispose();
+			iBuffer = null;
+		}
+		allocations.clear();
+		vertices.reset(0, 0);
+		indices.reset(0, 0);
+	}
+
+	public GLBuffer getVertexBuffer() {
+		return vBuffer;
+	}
+	public GLBuffer getTangentSpaceBuffer() {
+		return vBufferTangentSpace;
+	}
+	public GLBuffer getIndexBuffer() {
+		return iBuffer;
+	}
+	/**
+	 * @return Number Of Meshes Stored
+	 */
+	public int getAllocationCount() {
+		return allocations.size();
+	}
+	/**
+	 * Get The Vertex Array Feeding The Shared Buffers To A Program's Inputs
+	 * @see VertexArrayCache#get(ShaderInterface, ShaderInterface, ShaderInterface, GLBuffer, GLBuffer, GLBuffer, GLBuffer)
+	 */
+	public GLVertexArray getVertexArray(ShaderInterface si, ShaderInterface siTangentSpace) {
+		return vertexArrays.get(si, siTangentSpace, null, vBuffer, vBufferTangentSpace, null, iBuffer);
+	}
+
+	/**
+	 * Store A Mesh
+	 * @param vertexData Interleaved Vertices (See {@link RenderMesh#VERTEX_DECLARATION}), From Position To Limit
+	 * @param tangentData Interleaved Tangent Space Vectors (See {@link RenderMesh#VERTEX_DECLARATION_TANGENT_SPACE}), From Position To Limit
+	 * @param indexData Indices Relative To The Mesh's First Vertex, From Position To Limit
+	 * @param vertexCount Number Of Vertices
+	 * @param indexCount Number Of Indices
+	 * @return The Mesh's Ranges (Release Them With {@link #free(Allocation)})
+	 */
+	public Allocation allocate(ByteBuffer vertexData, FloatBuffer tangentData, IntBuffer indexData, int vertexCount, int indexCount) {
+		// Index Buffer Bindings Belong To Vertex Arrays, So Keep Uploads Away From Them
+		GLVertexArray.unbind();
+
+		Allocation a = new Allocation();
+		a.vertexCount = vertexCount;
+		a.indexCount = indexCount;
+		a.baseVertex = vertices.allocate(vertexCount);
+		if(a.baseVertex < 0) {
+			repackVertices(getPackedCapacity(vertices, vertexCount, MIN_VERTICES));
+			a.baseVertex = vertices.allocate(vertexCount);
+		}
+		a.firstIndex = indices.allocate(indexCount);
+		if(a.firstIndex < 0) {
+			repackIndices(getPackedCapacity(indices, indexCount, MIN_INDICES));
+			a.firstIndex = indices.allocate(indexCount);
+		}
+		allocations.add(a);
+
+		vBuffer.setData(vertexData, (long)a.baseVertex * RenderMesh.VERTEX_SIZE);
+		vBufferTangentSpace.setData(tangentData, (long)a.baseVertex * RenderMesh.VERTEX_SIZE_TANGENT_SPACE);
+		iBuffer.setData(indexData, (long)a.firstIndex * 4);
+		GLError.get("GeometryArena Upload");
+		return a;
+	}
+	/**
+	 * Release A Mesh's Ranges (Ignored If The Arena Was Disposed Since)
+	 * @param a Ranges From {@link #allocate(ByteBuffer, FloatBuffer, IntBuffer, int, int)}
+	 */
+	public void free(Allocation a) {
+		if(!allocations.remove(a)) return;
+		vertices.free(a.baseVertex, a.vertexCount);
+		indices.free(a.firstIndex, a.indexCount);
+
+		// Give Back Memory Once Three Quarters Of A Pool Are Free
+		if(vertices.capacity > MIN_VERTICES && vertices.used * 4 < vertices.capacity) {
+			GLVertexArray.unbind();
+			repackVertices(Math.max(MIN_VERTICES, vertices.capacity / 2));
+		}
+		if(indices.capacity > MIN_INDICES && indices.used * 4 < indices.capacity) {
+			GLVertexArray.unbind();
+			repackIndices(Math.max(MIN_INDICES, indices.capacity / 2));
+		}
+	}
+
+	/**
+	 * Capacity Of A Pool Packed To Fit Another Range: Packing Alone Is Enough When The Free Space
+	 * Is Only Fragmented, Otherwise The Pool Doubles Until The Range Fits
+	 */
+	private static int getPackedCapacity(FreeList pool, int size, int minimum) {
+		int required = pool.used + size;
+		int capacity = Math.max(minimum, pool.capacity);
+		while(capacity < required) capacity *= 2;
+		return capacity;
+	}
+	private void repackVertices(int capacity) {
+		GLBuffer v = new GLBuffer(BufferTarget.ArrayBuffer, BufferUsageHint.StaticDraw, true);
+		v.setAsVertex(RenderMesh.VERTEX_SIZE);
+		v.setSizeInBytes(capacity * RenderMesh.VERTEX_SIZE);
+		GLBuffer t = new GLBuffer(BufferTarget.ArrayBuffer, BufferUsageHint.StaticDraw, true);
+		t.setAsVertex(RenderMesh.VERTEX_SIZE_TANGENT_SPACE);
+		t.setSizeInBytes(capacity * RenderMesh.VERTEX_SIZE_TANGENT_SPACE);
+
+		int next = 0;
+		for(Allocation a : allocations) {
+			if(vBuffer != null) {
+				copy(vBuffer, v, a.baseVertex, next, a.vertexCount, RenderMesh.VERTEX_SIZE);
+				copy(vBufferTangentSpace, t, a.baseVertex, next, a.vertexCount, RenderMesh.VERTEX_SIZE_TANGENT_SPACE);
+			}
+			a.baseVertex = next;
+			next += a.vertexCount;
+		}
+		endCopies();
+
+		if(vBuffer != null) {
+			vBuffer.dispose();
+			vBufferTangentSpace.dispose();
+		}
+		vBuffer = v;
+		vBufferTangentSpace = t;
+		vertices.reset(capacity, next);
+		vertexArrays.dispose();
+		repackCount++;
+	}
+	private void repackIndices(int capacity) {
+		GLBuffer ib = new GLBuffer(BufferTarget.ElementArrayBuffer, BufferUsageHint.StaticDraw, true);
+		ib.setAsIndexInt();
+		ib.setSizeInBytes(capacity * 4);
+
+		int next = 0;
+		for(Allocation a : allocations) {
+			if(iBuffer != null) copy(iBuffer, ib, a.firstIndex, next, a.indexCount, 4);
+			a.firstIndex = next;
+			next += a.indexCount;
+		}
+		endCopies();
+
+		if(iBuffer != null) iBuffer.dispose();
+		iBuffer = ib;
+		indices.reset(capacity, next);
+		vertexArrays.dispose();
+		repackCount++;
+	}
+	/**
+	 * Copy Elements Between Buffers On The GPU
+	 */
+	private static void copy(GLBuffer src, GLBuffer dst, int srcFirst, int dstFirst, int count, int elementSize) {
+		if(count == 0) return;
+		GL15.glBindBuffer(BufferTarget.CopyReadBuffer, src.getID());
+		GL15.glBindBuffer(BufferTarget.CopyWriteBuffer, dst.getID());
+		GL31.glCopyBufferSubData(BufferTarget.CopyReadBuffer, BufferTarget.CopyWriteBuffer,
+				(long)srcFirst * elementSize, (long)dstFirst * elementSize, (long)count * elementSize);
+	}
+	private static void endCopies() {
+		GLBuffer.unbind(BufferTarget.CopyReadBuffer);
+		GLBuffer.unbind(BufferTarget.CopyWriteBuffer);
+		GLError.get("GeometryArena Copy");
+	}
+}
@@ -3,8 +3,6 @@ package gl;
 import java.nio.ByteBuffer;
 import java.util.HashMap;
 
-import org.lwjgl.opengl.GL11;
-
 import egl.ArrayBind;
 import egl.BlendState;
 import egl.DepthState;
@@ -13,11 +11,14 @@ import egl.GL.BufferUsageHint;
 import egl.GL.GLType;
 import egl.GL.PrimitiveType;
 import egl.GLBuffer;
+import egl.GLCommandExecutor;
 import egl.GLProgram;
-import egl.GLUniform;
+import egl.GLUniformHandle;
+import egl.GLVertexArray;
 import egl.IDisposable;
 import egl.NativeMem;
 import egl.RasterizerState;
+import egl.RenderCommandBuffer;
 import egl.Semantic;
 import egl.math.Vector4;
 
@@ -45,6 +46,16 @@ public class GridRenderer implements IDisposable {
 	final GLBuffer iBuffer_z = new GLBuffer(BufferTarget.ElementArrayBuffer, BufferUsageHint.StaticDraw, false);
 
 	GLProgram program = new GLProgram(true);
+	private final GLUniformHandle unVP, unGridColor;
+	/**
+	 * Inputs Of The Grid And Of Each Axis, Recorded Once (Empty Where Vertex Arrays Are Unsupported)
+	 */
+	private final GLVertexArray vaGrid = new GLVertexArray();
+	private final GLVertexArray vaX = new GLVertexArray();
+	private final GLVertexArray vaY = new GLVertexArray();
+	private final GLVertexArray vaZ = new GLVertexArray();
+	private final RenderCommandBuffer commands = new RenderCommandBuffer(1024);
+	private final GLCommandExecutor executor = new GLCommandExecutor();
 
 	public GridRenderer() {
 		
@@ -129,6 +140,16 @@ public class GridRenderer implements IDisposable {
 		HashMap<String, Integer> attrMap = new HashMap<>();
 		attrMap.put("vPos", 0);
 		program.quickCreateResource("Grid", "gl/Grid.vert", "gl/Grid.frag", attrMap);
+		unVP = program.getUniformHandle("VP");
+		unGridColor = program.getUniformHandle("uGridColor");
+		
+		if(GLVertexArray.isSupported()) {
+			vaGrid.build(vBuffer, 0, iBuffer);
+			vaX.build(vBuffer_axes, 0, iBuffer_x);
+			vaY.build(vBuffer_axes, 0, iBuffer_y);
+			vaZ.build(vBuffer_axes, 0, iBuffer_z);
+			GLVertexArray.unbind();
+		}
 	}
 	
 	@Override
@@ -136,45 +157,62 @@ public class GridRenderer implements IDisposable {
 		vBuffer.dispose();
 		iBuffer.dispose();
 		program.dispose();
+		vaGrid.dispose();
+		vaX.dispose();
+		vaY.dispose();
+		vaZ.dispose();
 	}
 	
 	public void draw(RenderCamera camera) {
-		program.use();
+		commands.reset();
+		record(commands, camera);
+		commands.replay(executor);
+	}
+	/**
+	 * Write The Commands That Draw The Grid And The Axes
+	 * @param cb Commands To Append To
+	 * @param camera Camera
+	 */
+	public void record(RenderCommandBuffer cb, RenderCamera camera) {
+		cb.useProgram(program);
 		
-		GLUniform.setST(program.getUniform("VP"), camera.mViewProjection, false);
-		GLUniform.set(program.getUniform("uGridColor"), gridColor);
+		cb.setUniform(unVP, camera.mViewProjection);
+		cb.setUniform(unGridColor, gridColor);
 				
-		DepthState.DEFAULT.set();
-		BlendState.OPAQUE.set();
-		RasterizerState.CULL_CLOCKWISE.set();
+		cb.setDepthState(DepthState.DEFAULT);
+		cb.setBlendState(BlendState.OPAQUE);
+		cb.setRasterizerState(RasterizerState.CULL_CLOCKWISE);
 
-		vBuffer.useAsAttrib(0);
-		iBuffer.bind();
-		GL11.glDrawElements(PrimitiveType.Lines, 4 * (2*GRID_SIZE + 1), GLType.UnsignedInt, 0);
-		iBuffer.unbind();
+		drawLines(cb, vaGrid, vBuffer, iBuffer, 4 * (2*GRID_SIZE + 1));
 
-		GL11.glLineWidth(AXES_LINEWIDTH);
+		cb.setLineWidth(AXES_LINEWIDTH);
 		
-		GLUniform.set(program.getUniform("uGridColor"), gridColorX);
-		vBuffer_axes.useAsAttrib(0);
-		iBuffer_x.bind();
-		GL11.glDrawElements(PrimitiveType.Lines, 2, GLType.UnsignedInt, 0);
-		iBuffer_x.unbind();
+		cb.setUniform(unGridColor, gridColorX);
+		drawLines(cb, vaX, vBuffer_axes, iBuffer_x, 2);
 
-		GLUniform.set(program.getUniform("uGridColor"), gridColorY);
-		vBuffer_axes.useAsAttrib(0);
-		iBuffer_y.bind();
-		GL11.glDrawElements(PrimitiveType.Lines, 2, GLType.UnsignedInt, 0);
-		iBuffer_y.unbind();
+		cb.setUniform(unGridColor, gridColorY);
+		drawLines(cb, vaY, vBuffer_axes, iBuffer_y, 2);
 
-		GLUniform.set(program.getUniform("uGridColor"), gridColorZ);
-		vBuffer_axes.useAsAttrib(0);
-		iBuffer_z.bind();
-		GL11.glDrawElements(PrimitiveType.Lines, 2, GLType.UnsignedInt, 0);
-		iBuffer_z.unbind();
+		cb.setUniform(unGridColor, gridColorZ);
+		drawLines(cb, vaZ, vBuffer_axes, iBuffer_z, 2);
+		if(vaGrid.getIsCreated()) cb.bindVertexArray(null);
 		
-		GL11.glLineWidth(1.0f);
+		cb.setLineWidth(1.0f);
 
-		GLProgram.unuse();
+		cb.useProgram(null);
+	}
+	/**
+	 * Draw Indexed Lines Through Their Vertex Array, Or By Setting The Attribute Without One
+	 */
+	private static void drawLines(RenderCommandBuffer cb, GLVertexArray va, GLBuffer vb, GLBuffer ib, int count) {
+		if(va.getIsCreated()) {
+			cb.bindVertexArray(va);
+			cb.drawElements(PrimitiveType.Lines, count, 0);
+			return;
+		}
+		cb.useAttribute(vb, 0);
+		cb.bindIndexBuffer(ib);
+		cb.drawElements(PrimitiveType.Lines, count, 0);
+		cb.bindIndexBuffer(null);
 	}
 }
@@ -1,39 +1,93 @@
 package gl;
 
 import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 
 import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL20;
 
 import egl.BlendState;
 import egl.GL.PixelFormat;
 import egl.GL.PixelType;
 import egl.ArrayBind;
 import egl.GL;
+import egl.GL.BufferTarget;
+import egl.GL.BufferUsageHint;
+import egl.GLBuffer;
 import egl.GLProgram;
-import egl.GLUniform;
+import egl.GLUniformHandle;
 import egl.IDisposable;
 import egl.NativeMem;
+import egl.RenderCommandBuffer;
 import egl.Semantic;
 import egl.ShaderInterface;
 import egl.math.Matrix4;
+import ext.java.IntHashSet;
 
 public class PickingProgram implements IDisposable {
+	/**
+	 * Receives The ID Read Back By {@link PickingProgram#requestID(int, int, IPickCallback)}
+	 */
+	public static interface IPickCallback {
+		/**
+		 * @param id ID Drawn At The Requested Pixel
+		 */
+		void picked(int id);
+	}
+	
+	/**
+	 * Number Of Reads That May Be In Flight At Once
+	 */
+	private static final int READBACK_SLOTS = 3;
+	
 	private final GLProgram program = new GLProgram(false);
 	public final ShaderInterface fxsi = new ShaderInterface(RenderMesh.VERTEX_DECLARATION);
 	
 	private final ByteBuffer ibID = NativeMem.createByteBuffer(4);
+	/**
+	 * Pixels Of The Last Region Read, Grown As Needed And Reused
+	 */
+	private ByteBuffer regionData = NativeMem.createByteBuffer(4);
+	
+	/**
+	 * Frames Between Issuing A Read And Resolving It (The GPU Has Usually Finished By Then, So The Copy Does Not Stall)
+	 */
+	public int readbackLatency = 2;
+	/**
+	 * Ring Of Pixel Pack Buffers (Created On First Use) With The Frame And Receiver Of Each Pending Read
+	 */
+	private final GLBuffer[] readbacks = new GLBuffer[READBACK_SLOTS];
+	private final int[] readbackFrames = new int[READBACK_SLOTS];
+	private final IPickCallback[] readbackCallbacks = new IPickCallback[READBACK_SLOTS];
+	private int readbackFirst = 0, readbackCount = 0;
+	private int frame = 0;
+	
+	/**
+	 * The Shader Is Compiled On First Use, So That A Renderer Can Be Created Without A GL Context
+	 */
+	private boolean isCreated = false;
+	private GLUniformHandle unVP, unWorld, unID;
 	
 	public PickingProgram() {
+	}
+	private void create() {
+		if(isCreated) return;
 		program.quickCreateResource("Pick", "gl/Pick.vert", "gl/Pick.frag", null);
 		fxsi.build(program.semanticLinks);
+		unVP = program.getUniformHandle("VP");
+		unWorld = program.getUniformHandle("World");
+		unID = program.getUniformHandle("ID");
+		isCreated = true;
 	}
 	@Override
 	public void dispose() {
 		program.dispose();
+		for(GLBuffer b : readbacks) {
+			if(b != null) b.dispose();
+		}
 	}
 	
 	public int getPositionAttributeLocation() {
+		create();
 		for(ArrayBind b : fxsi.binds) {
 			if(b.semantic == Semantic.Position) return b.location;
 		}
@@ -41,25 +95,106 @@ public class PickingProgram implements IDisposable {
 	}
 	
 	public void use(Matrix4 mCamera) {
+		create();
 		program.use();
 		
 		BlendState.OPAQUE.set();
 		
-		GLUniform.setST(program.getUniform("VP"), mCamera, false);
+		unVP.set(mCamera);
 	}
 	public void setObject(Matrix4 mWorld, int id) {
-		GLUniform.setST(program.getUniform("World"), mWorld, false);
-
-		int r = id & 0x000000FF;
-		int g = id >> 8 & 0x000000FF;
-		int b = id >> 16 & 0x000000FF;
-		int a = id >> 24 & 0x000000FF;
-		GL20.glUniform4f(program.getUniform("ID"), r / 255.0f, g / 255.0f, b / 255.0f, a / 255.0f);
+		unWorld.set(mWorld);
+		unID.set(getIDColor(id, 0), getIDColor(id, 8), getIDColor(id, 16), getIDColor(id, 24));
+	}
+	/**
+	 * Set The Transform And ID Of The Next Object In A Picking Pass Being Recorded
+	 * @param cb Commands Of The Pass
+	 * @param mWorld World Transform
+	 * @param id Object ID
+	 */
+	public void setObject(RenderCommandBuffer cb, Matrix4 mWorld, int id) {
+		cb.setUniform(unWorld, mWorld);
+		cb.setUniform(unID, getIDColor(id, 0), getIDColor(id, 8), getIDColor(id, 16), getIDColor(id, 24));
+	}
+	private static float getIDColor(int id, int shift) {
+		return (id >> shift & 0x000000FF) / 255.0f;
 	}
 	
+	/**
+	 * Read The ID At A Pixel Immediately (Waits For The GPU To Finish Drawing)
+	 */
 	public int getID(int x, int y) {
 		ibID.clear();
 		GL11.glReadPixels(x, y, 1, 1, PixelFormat.Rgba, PixelType.UnsignedByte, ibID);
 		return ibID.asIntBuffer().get(0);
 	}
-}
\ No newline at end of file
+	/**
+	 * Read Every ID Drawn In A Rectangle (Waits For The GPU To Finish Drawing)
+	 * @param x Left Pixel
+	 * @param y Bottom Pixel
+	 * @param w Width In Pixels
+	 * @param h Height In Pixels
+	 * @param out Receives Each Distinct ID Once (Including The Background's, -1)
+	 */
+	public void getIDs(int x, int y, int w, int h, IntHashSet out) {
+		int bytes = w * h * 4;
+		if(regionData.capacity() < bytes) regionData = NativeMem.createByteBuffer(bytes);
+		regionData.clear();
+		regionData.limit(bytes);
+		GL11.glReadPixels(x, y, w, h, PixelFormat.Rgba, PixelType.UnsignedByte, regionData);
+		
+		// Neighboring Pixels Usually Share An ID, So Only Hash When It Changes
+		IntBuffer ids = regionData.asIntBuffer();
+		int last = 0;
+		for(int i = 0;i < w * h;i++) {
+			int id = ids.get(i);
+			if(i == 0 || id != last) out.add(id);
+			last = id;
+		}
+	}
+	
+	/**
+	 * Start Copying The ID At A Pixel Into A Pixel Pack Buffer Without Waiting For The GPU.
+	 * The ID Is Delivered By {@link #resolve()} Once {@link #readbackLatency} Frames Have Passed.
+	 * @param x Pixel X
+	 * @param y Pixel Y
+	 * @param cb Receiver Of The ID
+	 */
+	public void requestID(int x, int y, IPickCallback cb) {
+		// Every Slot Is In Flight: Finish The Oldest Read Early
+		if(readbackCount == READBACK_SLOTS) resolveOldest();
+		
+		int slot = (readbackFirst + readbackCount) % READBACK_SLOTS;
+		if(readbacks[slot] == null) {
+			readbacks[slot] = new GLBuffer(BufferTarget.PixelPackBuffer, BufferUsageHint.StreamRead, true);
+			readbacks[slot].setSizeInBytes(4);
+		}
+		readbacks[slot].bind();
+		GL11.glReadPixels(x, y, 1, 1, PixelFormat.Rgba, PixelType.UnsignedByte, 0L);
+		readbacks[slot].unbind();
+		
+		readbackFrames[slot] = frame;
+		readbackCallbacks[slot] = cb;
+		readbackCount++;
+	}
+	/**
+	 * Advance One Frame And Deliver Every Requested ID That Is Old Enough.  Call Once Per Frame.
+	 */
+	public void resolve() {
+		frame++;
+		while(readbackCount > 0 && frame - readbackFrames[readbackFirst] >= readbackLatency) {
+			resolveOldest();
+		}
+	}
+	private void resolveOldest() {
+		int slot = readbackFirst;
+		ibID.clear();
+		readbacks[slot].getData(ibID, 0);
+		
+		IPickCallback cb = readbackCallbacks[slot];
+		readbackCallbacks[slot] = null;
+		readbackFirst = (slot + 1) % READBACK_SLOTS;
+		readbackCount--;
+		cb.picked(ibID.asIntBuffer().get(0));
+	}
+}
@@ -0,0 +1,83 @@
+package gl;
+
+import mesh.TriangleBVH;
+import egl.math.Matrix4;
+import egl.math.Ray;
+
+/**
+ * Picks Objects On The CPU By Casting A Ray Through The Cursor.
+ *
+ * The ray first walks the environment's {@link DynamicBVH} of world bounds, nearest box first.  Each
+ * object whose box it enters is tested exactly against its mesh's {@link TriangleBVH}, with the ray
+ * carried into object space instead of transforming the triangles.  Object-space rays keep the world
+ * ray's parameterization, so hit distances of different objects can be compared directly and every
+ * box farther than the best hit so far is skipped.  Unlike the GPU picking pass, no frame is drawn
+ * and nothing is read back from the GPU.
+ */
+public class RayPicker implements DynamicBVH.IRayCallback {
+	/**
+	 * World-Space Ray From The Near Plane (t = 0) To The Far Plane (t = 1)
+	 */
+	public final Ray ray = new Ray();
+	/**
+	 * Object Hit By The Last {@link #pick(DynamicBVH)} (Or Null)
+	 */
+	public RenderObject nearest = null;
+	/**
+	 * Distance Along The Ray To The Last Hit (Infinity On A Miss)
+	 */
+	public float distance = Float.POSITIVE_INFINITY;
+
+	private final Ray objectRay = new Ray();
+	private final Matrix4 mInverse = new Matrix4();
+
+	/**
+	 * Aim The Ray Through A Pixel
+	 * @param camera Camera Whose View-Projection Matrix Is Up To Date
+	 * @param x Pixel X (From The Left)
+	 * @param y Pixel Y (From The Bottom, As LWJGL Reports The Mouse)
+	 * @return Self
+	 */
+	public RayPicker setRay(RenderCamera camera, int x, int y) {
+		float ndcX = (x + 0.5f) * 2 / camera.viewportSize.x - 1;
+		float ndcY = (y + 0.5f) * 2 / camera.viewportSize.y - 1;
+		ray.setFromNDC(Matrix4.invert(camera.mViewProjection, mInverse), ndcX, ndcY);
+		return this;
+	}
+
+	/**
+	 * Find The Nearest Object Whose Triangles The Ray Hits
+	 * @param bounds Bounds Tree Of The Objects
+	 * @return The Object (Also Left In {@link #nearest}), Or Null
+	 */
+	public RenderObject pick(DynamicBVH bounds) {
+		nearest = null;
+		distance = Float.POSITIVE_INFINITY;
+		bounds.raycast(ray.origin, ray.direction, 1, this);
+		return nearest;
+	}
+	/**
+	 * Cast The Ray Against A Triangle Tree Placed By A World Transformation
+	 * @param triangles Triangles In Their Own Space
+	 * @param mWorld Transformation Of The Triangles Into World Space
+	 * @param maxDistance Search Limit
+	 * @return Distance To The Hit, Or Infinity On A Miss
+	 */
+	public float raycast(TriangleBVH triangles, Matrix4 mWorld, float maxDistance) {
+		// A Singular Transformation Flattens The Mesh Into Something That Cannot Be Hit
+		if(mWorld.determinant() == 0) return Float.POSITIVE_INFINITY;
+		ray.transform(Matrix4.invertAffine(mWorld, mInverse), objectRay);
+		return triangles.raycast(objectRay, maxDistance);
+	}
+
+	@Override
+	public float hit(RenderObject ro, float boxDistance, float maxDistance) {
+		// Meshes Without Triangles On The CPU Are Hit At Their Bounds
+		TriangleBVH triangles = ro.mesh.triangles;
+		float t = triangles == null ? boxDistance : raycast(triangles, ro.mWorldTransform, maxDistance);
+		if(t > maxDistance) return maxDistance;
+		nearest = ro;
+		distance = t;
+		return t;
+	}
+}
@@ -4,9 +4,13 @@ import common.SceneCamera;
 import common.SceneObject;
 import egl.math.Matrix4;
 import egl.math.Vector2;
-import egl.math.Vector2d;
 
 public class RenderCamera extends RenderObject {
+	/**
+	 * Tolerance Below Which The Camera Transformation Is Treated As A Pure Rotation And Translation
+	 */
+	private static final float RIGID_EPSILON = 1e-5f;
+
 	/**
 	 * Reference to Scene counterpart of this camera
 	 */
@@ -60,33 +64,32 @@ public class RenderCamera extends RenderObject {
 		
 		// TODO#A3#Part 2
 		
-		// create the View
-		Matrix4 mNew_1 = new Matrix4();
-		mNew_1 = mNew_1.set(mWorldTransform.clone().invert());
-		mView.set(mNew_1); // how to get from world space to camera space
+		// create the View (how to get from world space to camera space)
+		// (cameras are normally rotated and translated only, so the inverse is usually a transpose)
+		if(mWorldTransform.isRigid(RIGID_EPSILON)) Matrix4.invertRigid(mWorldTransform, mView);
+		else Matrix4.invertAffine(mWorldTransform, mView);
 		
-		// aspect ratio
-		Vector2d vec1 = sceneCamera.imageSize;
-		float aspectRatioIm = (float) (sceneCamera.imageSize.x/sceneCamera.imageSize.y);
+		// aspect ratio (grow the image size locally; the scene camera's size is left untouched)
+		double w = sceneCamera.imageSize.x;
+		double h = sceneCamera.imageSize.y;
+		float aspectRatioIm = (float) (w/h);
 		float aspectRatioView = viewportSize.x/viewportSize.y;
 		
 		if (aspectRatioIm > aspectRatioView) {
-			vec1.mul(1, aspectRatioIm/aspectRatioView);
+			h *= aspectRatioIm/aspectRatioView;
 		} else {
-			vec1.mul(aspectRatioView/aspectRatioIm, 1);
+			w *= aspectRatioView/aspectRatioIm;
 		}
 		
 		// create the Projection
-		Matrix4 mNew_2 = new Matrix4();		
 		if (sceneCamera.isPerspective) { // pick which one to do
-			mNew_2 = mNew_2.set(Matrix4.createPerspective((float)vec1.x, (float)vec1.y,
-					(float)sceneCamera.zPlanes.x, (float)sceneCamera.zPlanes.y)); 	
-		} else {		
-			mNew_2 = mNew_2.set(Matrix4.createOrthographic((float)vec1.x, (float)vec1.y,
-					(float)sceneCamera.zPlanes.x, (float)sceneCamera.zPlanes.y)); 
-		}		
-		mProj.set(mNew_2);		
+			Matrix4.createPerspective((float)w, (float)h,
+					(float)sceneCamera.zPlanes.x, (float)sceneCamera.zPlanes.y, mProj);
+		} else {
+			Matrix4.createOrthographic((float)w, (float)h,
+					(float)sceneCamera.zPlanes.x, (float)sceneCamera.zPlanes.y, mProj);
+		}
 		// multiply the two together
-		mViewProjection.set(mView.clone().mulAfter(mProj));	
+		Matrix4.mul(mProj, mView, mViewProjection);
 	}	
 }
\ No newline at end of file
@@ -23,6 +23,10 @@ public class RenderController implements IDisposable {
 	public final Scene scene;
 	public RenderEnvironment env;
 	public AnimationEngine animEngine;
+	/**
+	 * Source Of Transformations Captured On Another Thread (Null To Read The Scene Directly)
+	 */
+	private SceneSnapshotter snapshotter = null;
 	private boolean requestNewScene = false;
 	
 	public RenderController(Scene s, Vector2 viewSize) {
@@ -48,22 +52,32 @@ public class RenderController implements IDisposable {
 	public boolean isNewSceneRequested() {
 		return requestNewScene;
 	}
+	/**
+	 * Read Transformations From Snapshots Instead Of The Scene.  Transformation Events Are Then
+	 * Ignored, Since Snapshots Carry Every Change.
+	 * @param s Snapshotter That Will Track Every Object Of The Environment
+	 */
+	public void setSnapshotter(SceneSnapshotter s) {
+		snapshotter = s;
+		if(s != null) s.addAll(env);
+	}
 	
 	public void update(Renderer r, CameraController camController) {
+		boolean areTransformsModified = snapshotter != null && snapshotter.apply(env);
 		ArrayList<SceneEvent> le = new ArrayList<>();
 		queue.getEvents(le);
-		if(le.size() == 0) return;
+		if(le.size() == 0 && !areTransformsModified) return;
 		
 		boolean isTreeModified = false;
-		boolean areTransformsModified = false;
-		boolean areResourcesModified = false;
+		
+		// Objects Whose Mesh Or Material Changed Move Between Passes Individually
+		ArrayList<RenderObject> relinked = new ArrayList<>();
 		
 		for(SceneEvent e : le) {
 			if(e instanceof SceneCollectionModifiedEvent) {
 				SceneCollectionModifiedEvent cme = (SceneCollectionModifiedEvent)e;
 				switch (cme.dataType) {
 				case Texture:
-					areResourcesModified = true;
 					if(cme.isAdded) {
 						Texture t = scene.textures.get(cme.name);
 						if(t != null) env.addTexture(t);
@@ -73,7 +87,6 @@ public class RenderController implements IDisposable {
 					}
 					break;
 				case Mesh:
-					areResourcesModified = true;
 					if(cme.isAdded) {
 						Mesh m = scene.meshes.get(cme.name);
 						if(m != null) env.addMesh(m);
@@ -81,9 +94,9 @@ public class RenderController implements IDisposable {
 					else {
 						env.removeMesh(cme.name);
 					}
+					env.relinkMeshUsers(cme.name, relinked);
 					break;
 				case Material:
-					areResourcesModified = true;
 					if(cme.isAdded) {
 						Material m = scene.materials.get(cme.name);
 						if(m != null) env.addMaterial(m);
@@ -91,16 +104,35 @@ public class RenderController implements IDisposable {
 					else {
 						env.removeMaterial(cme.name);
 					}
+					env.relinkMaterialUsers(cme.name, relinked);
 					break;
 				case Object:
 					SceneObject o = scene.objects.get(cme.name);
-					isTreeModified = !cme.isAdded || (o != null);
+					if(cme.isAdded) {
+						if(o == null) break;
+						
+						// A Stale Entry Under This Name Belongs To A Node That Was Removed And Replaced
+						RenderObject old = env.objects.get(cme.name);
+						if(old != null && old.sceneObject != o) removeObject(r, cme.name);
+						
+						RenderObject ro = env.addObject(o);
+						if(ro != null) r.addObject(ro);
+						if(ro != null && snapshotter != null) snapshotter.add(ro);
+					}
+					else if(env.findObject(o) != null) {
+						// The Same Object Still Exists, So Only Its Parent Changed
+						env.reparentObject(o);
+					}
+					else {
+						removeObject(r, cme.name);
+					}
+					isTreeModified = true;
 					if(o != null && o instanceof SceneCamera) {
 						System.out.println("Camera " + cme.name + " will not be animated");
 					}
 					else {
 						if(cme.isAdded) animEngine.addObject(cme.name, o);
-						else animEngine.removeObject(cme.name);
+						else if(o == null) animEngine.removeObject(cme.name);
 					}
 					break;
 				default:
@@ -108,10 +140,16 @@ public class RenderController implements IDisposable {
 				}
 			}
 			else if(e instanceof SceneTransformationEvent) {
+				if(snapshotter != null) continue;
 				areTransformsModified = true;
+				env.markTransformDirty(((SceneTransformationEvent)e).object);
 			}
 			else if(e instanceof SceneObjectResourceEvent) {
-				areResourcesModified = true;
+				RenderObject ro = env.findObject(((SceneObjectResourceEvent)e).object);
+				if(ro != null) {
+					env.linkObjectResources(ro);
+					relinked.add(ro);
+				}
 			}
 			else if(e instanceof SceneReloadEvent) {
 				requestNewScene = true;
@@ -119,27 +157,24 @@ public class RenderController implements IDisposable {
 		}
 		
 		if(isTreeModified) {
-			RenderTreeBuilder.buildTree(scene, env);
-			if(camController.camera != null) {
-				SceneObject so = camController.camera.sceneObject;
-				for(RenderCamera cam : env.cameras ) {
-					if(cam.sceneObject == so) {
-						camController.camera = cam;
-						break;
-					}
-				}				
-			}
-			else if(env.cameras.size() > 0) {
-				camController.camera = env.cameras.get(0);
+			// Objects Were Inserted, Removed Or Moved In Place; Keep The Current Camera Unless It Is Gone
+			if(camController.camera == null || !env.cameras.contains(camController.camera)) {
+				camController.camera = env.cameras.size() > 0 ? env.cameras.get(0) : null;
 			}
 		}
-		else if(areTransformsModified) {
-			RenderTreeBuilder.rippleTransformations(env);
+		if(isTreeModified || areTransformsModified) {
+			RenderTreeBuilder.rippleDirtyTransformations(env);
 		}
 		
-		if(areResourcesModified || isTreeModified) {
-			env.linkObjectResources();
-			r.buildPasses(env.root);
+		for(RenderObject ro : relinked) {
+			// Removed Objects Were Already Unregistered
+			if(env.objects.get(ro.sceneObject.getID().name) == ro) r.updateObject(ro);
 		}
 	}
+	private void removeObject(Renderer r, String name) {
+		RenderObject ro = env.removeObject(name);
+		if(ro == null) return;
+		r.removeObject(ro);
+		if(snapshotter != null) snapshotter.remove(ro);
+	}
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package gl;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map.Entry;
 
 import org.lwjgl.BufferUtils;
@@ -10,6 +11,9 @@ import org.lwjgl.BufferUtils;
 import common.Cubemap;
 import common.Material;
 import common.Mesh;
+import common.Scene;
+import common.SceneCamera;
+import common.SceneLight;
 import common.SceneObject;
 import common.Texture;
 import common.texture.TexCubeMap;
@@ -34,6 +38,10 @@ public class RenderEnvironment implements IDisposable {
 	 * OpenGL Mesh Resources
 	 */
 	public final HashMap<String, RenderMesh> meshes = new HashMap<>();
+	/**
+	 * Shared Vertex And Index Buffers Holding The Meshes (Where Supported)
+	 */
+	public final GeometryArena geometry = new GeometryArena();
 	/**
 	 * OpenGL Texture Resources
 	 */
@@ -47,6 +55,39 @@ public class RenderEnvironment implements IDisposable {
 	 * Scene Root Node
 	 */
 	public RenderObject root;
+	/**
+	 * Lookup From Scene Node Names To Their Render Counterparts
+	 */
+	public final HashMap<String, RenderObject> objects = new HashMap<>();
+	/**
+	 * Objects Whose Transformations Changed Since The Last Ripple
+	 */
+	public final ArrayList<RenderObject> dirtyObjects = new ArrayList<>();
+	/**
+	 * Objects Referring To Each Mesh And Material Name (Including Names That Are Not Loaded),
+	 * So That Adding Or Removing A Resource Only Touches The Objects Using It
+	 */
+	private final HashMap<String, HashSet<RenderObject>> meshUsers = new HashMap<>();
+	private final HashMap<String, HashSet<RenderObject>> materialUsers = new HashMap<>();
+	/**
+	 * Flattened Object Tree Used To Propagate Transformations
+	 */
+	public final TransformHierarchy hierarchy = new TransformHierarchy();
+	/**
+	 * Bounding Volume Hierarchy Over The World Bounds Of Every Object With A Mesh,
+	 * Used For Culling, Ray Queries And Region Queries
+	 */
+	public final DynamicBVH bounds = new DynamicBVH();
+	/**
+	 * True When The Object Tree Was Rebuilt Since The Hierarchy Was Last Flattened.  Single
+	 * Objects Are Spliced Into The Hierarchy Directly Instead.
+	 */
+	private boolean isHierarchyStale = true;
+	/**
+	 * Detached Objects Keyed By The Name Of The Parent They Wait For, And The Reverse Lookup
+	 */
+	private final HashMap<String, ArrayList<RenderObject>> detachedChildren = new HashMap<>();
+	private final HashMap<RenderObject, String> awaitedParents = new HashMap<>();
 	/**
 	 * List Of Cameras In The Scene
 	 */
@@ -67,6 +108,8 @@ public class RenderEnvironment implements IDisposable {
 	}
 	@Override
 	public void dispose() {
+		// Release The Shared Storage At Once Instead Of Mesh By Mesh
+		geometry.dispose();
 		for(Entry<String, RenderMesh> e : meshes.entrySet()) e.getValue().dispose();
 		meshes.clear();
 		
@@ -215,7 +258,7 @@ public class RenderEnvironment implements IDisposable {
 
 		// Create OpenGL Resource
 		RenderMesh rm = new RenderMesh(m);
-		rm.build(md);
+		rm.build(md, geometry);
 
 		// Add To Dictionary
 		meshes.put(m.getID().name, rm);
@@ -252,14 +295,230 @@ public class RenderEnvironment implements IDisposable {
 	 * @return Null If No Node Can Be Found
 	 */
 	public RenderObject findObject(SceneObject o) {
-		return findObject(root, o);
+		if(o == null) return null;
+		RenderObject ro = objects.get(o.getID().name);
+		return ro != null && ro.sceneObject == o ? ro : null;
 	}
-	private RenderObject findObject(RenderObject ro, SceneObject o) {
-		if(ro.sceneObject == o) return ro;
-		for(RenderObject cro : ro.children) {
-			if((ro = findObject(cro, o)) != null) return ro;
+
+	/**
+	 * Flag A Scene Node's Render Counterpart So That Its Subtree Is Recomputed On The Next Ripple
+	 * @param o Scene Node Whose Transformation Changed
+	 */
+	public void markTransformDirty(SceneObject o) {
+		RenderObject ro = findObject(o);
+		if(ro != null) markTransformDirty(ro);
+	}
+	void markTransformDirty(RenderObject ro) {
+		if(ro.isTransformDirty) return;
+		ro.isTransformDirty = true;
+		dirtyObjects.add(ro);
+	}
+
+	/**
+	 * Forget All Render Objects (Resources Are Kept)
+	 */
+	public void clearObjects() {
+		cameras.clear();
+		lights.clear();
+		objects.clear();
+		dirtyObjects.clear();
+		meshUsers.clear();
+		materialUsers.clear();
+		bounds.clear();
+		detachedChildren.clear();
+		awaitedParents.clear();
+		root = null;
+		isHierarchyStale = true;
+	}
+
+	/**
+	 * Create The Render Counterpart Of A Scene Node And Register It (Without Linking It Into The Tree)
+	 * @param so Scene Node
+	 * @return The New RenderObject, RenderCamera Or RenderLight
+	 */
+	public RenderObject createObject(SceneObject so) {
+		RenderObject ro;
+		if(so instanceof SceneCamera) {
+			ro = new RenderCamera(so, viewportSize);
+			cameras.add((RenderCamera)ro);
+		}
+		else if(so instanceof SceneLight) {
+			ro = new RenderLight(so);
+			lights.add((RenderLight)ro);
 		}
-		return null;
+		else {
+			ro = new RenderObject(so);
+		}
+		objects.put(so.getID().name, ro);
+		return ro;
+	}
+
+	/**
+	 * Insert A Single New Scene Node Into The Existing Tree.  Nodes That Were Waiting For It As
+	 * Their Parent Are Moved Under It.  Only The Affected Subtrees Are Spliced Into The Hierarchy.
+	 * @param so Scene Node
+	 * @return The New RenderObject, Or Null If The Node Already Has One
+	 */
+	public RenderObject addObject(SceneObject so) {
+		String name = so.getID().name;
+		if(objects.containsKey(name)) return null;
+		RenderObject ro = createObject(so);
+		attach(ro, so.parent);
+		if(!isHierarchyStale) hierarchy.insert(ro);
+		linkObjectResources(ro);
+		markTransformDirty(ro);
+		
+		// Adopt Children That Arrived Before This Node (Unless That Would Close A Cycle)
+		ArrayList<RenderObject> waiting = detachedChildren.remove(name);
+		if(waiting != null) {
+			for(RenderObject c : waiting) {
+				awaitedParents.remove(c);
+				if(isAncestor(c, ro)) continue;
+				if(!isHierarchyStale) hierarchy.remove(c);
+				attach(c, name);
+				if(!isHierarchyStale) hierarchy.insert(c);
+				markTransformDirty(c);
+			}
+		}
+		return ro;
+	}
+	/**
+	 * Move An Existing Node (With Its Subtree) Under The Parent Named By Its Scene Node
+	 * @param so Scene Node Whose Parent Changed
+	 * @return The Moved RenderObject, Or Null If The Node Has No Counterpart
+	 */
+	public RenderObject reparentObject(SceneObject so) {
+		RenderObject ro = findObject(so);
+		if(ro == null) return null;
+		if(!isHierarchyStale) hierarchy.remove(ro);
+		detach(ro);
+		attach(ro, so.parent);
+		if(!isHierarchyStale) hierarchy.insert(ro);
+		markTransformDirty(ro);
+		return ro;
+	}
+	/**
+	 * Remove A Single Node From The Tree.  Its Children Are Moved Under The Root, Like In The Scene.
+	 * @param name Name Of The Removed Scene Node
+	 * @return The Removed RenderObject, Or Null If There Was None
+	 */
+	public RenderObject removeObject(String name) {
+		RenderObject ro = objects.get(name);
+		if(ro == null || ro == root) return null;
+		objects.remove(name);
+		if(!isHierarchyStale) hierarchy.remove(ro);
+		detach(ro);
+		for(RenderObject c : ro.children) {
+			c.parent = null;
+			attach(c, Scene.ROOT_NODE_NAME);
+			if(!isHierarchyStale) hierarchy.insert(c);
+			markTransformDirty(c);
+		}
+		ro.children.clear();
+		if(ro instanceof RenderCamera) cameras.remove(ro);
+		else if(ro instanceof RenderLight) lights.remove(ro);
+		ro.isTransformDirty = false;
+		ro.transformIndex = -1;
+		unlinkObjectResources(ro);
+		bounds.remove(ro);
+		return ro;
+	}
+	/**
+	 * Link A Node Under Its Parent In The Object Tree (Not In The Hierarchy).  If The Parent Does
+	 * Not Exist Yet, The Node Stays Detached And Waits For It.
+	 */
+	private void attach(RenderObject ro, String parentName) {
+		RenderObject p = parentName == null ? null : objects.get(parentName);
+		if(p == null) {
+			if(parentName != null) waitForParent(ro, parentName);
+			return;
+		}
+		
+		// Refuse To Create A Cycle, Leaving The Node Detached Instead
+		if(isAncestor(ro, p)) return;
+		p.children.add(ro);
+		ro.parent = p;
+	}
+	private void detach(RenderObject ro) {
+		if(ro.parent != null) {
+			ro.parent.children.remove(ro);
+			ro.parent = null;
+		}
+		else {
+			String parentName = awaitedParents.remove(ro);
+			if(parentName != null) {
+				ArrayList<RenderObject> waiting = detachedChildren.get(parentName);
+				waiting.remove(ro);
+				if(waiting.isEmpty()) detachedChildren.remove(parentName);
+			}
+		}
+	}
+	/**
+	 * Remember A Detached Node So That It Is Adopted When Its Parent Is Added
+	 * @param ro Node Without A Parent
+	 * @param parentName Name Of The Missing Parent
+	 */
+	void waitForParent(RenderObject ro, String parentName) {
+		ArrayList<RenderObject> waiting = detachedChildren.get(parentName);
+		if(waiting == null) {
+			waiting = new ArrayList<>();
+			detachedChildren.put(parentName, waiting);
+		}
+		waiting.add(ro);
+		awaitedParents.put(ro, parentName);
+	}
+	private static boolean isAncestor(RenderObject a, RenderObject o) {
+		for(RenderObject p = o;p != null;p = p.parent) {
+			if(p == a) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Re-Flatten The Object Tree If Its Structure Changed Since The Last Call
+	 */
+	public void rebuildHierarchy() {
+		if(!isHierarchyStale) return;
+		ArrayList<RenderObject> roots = new ArrayList<>();
+		if(root != null) roots.add(root);
+		for(RenderObject ro : objects.values()) {
+			if(ro.parent == null && ro != root) roots.add(ro);
+		}
+		hierarchy.build(roots);
+		isHierarchyStale = false;
+	}
+
+	/**
+	 * Recompute An Object's World Bounds After Its Mesh Changed And Update Its Leaf In The Bounds Tree
+	 * @param ro Object
+	 */
+	public void updateBounds(RenderObject ro) {
+		ro.updateWorldBounds();
+		syncBounds(ro);
+	}
+	/**
+	 * Bring The Bounds Tree Up To Date With Every Object In The Hierarchy
+	 * (World Bounds Are Already Refreshed By The Transformation Propagation)
+	 */
+	public void refitBounds() {
+		for(int i = 0;i < hierarchy.size();i++) {
+			syncBounds(hierarchy.get(i));
+		}
+	}
+	/**
+	 * Bring The Bounds Tree Up To Date With A Subtree Whose Transformations Were Just Propagated
+	 * @param o Subtree Root (Must Belong To The Hierarchy)
+	 */
+	public void refitBounds(RenderObject o) {
+		int end = hierarchy.subtreeEnd[o.transformIndex];
+		for(int i = o.transformIndex;i < end;i++) {
+			syncBounds(hierarchy.get(i));
+		}
+	}
+	private void syncBounds(RenderObject ro) {
+		if(ro.mesh == null) bounds.remove(ro);
+		else if(!bounds.contains(ro)) bounds.insert(ro);
+		else bounds.update(ro);
 	}
 
 	public void linkMaterials() {
@@ -282,19 +541,91 @@ public class RenderEnvironment implements IDisposable {
 	}
 	private void linkObjectMeshes(RenderObject ro) {
 		ro.mesh = meshes.get(ro.sceneObject.mesh);
+		updateBounds(ro);
 		for(RenderObject cro : ro.children) {
 			linkObjectMeshes(cro);
 		}
 	}
 	public void linkObjectResources() {
-		linkObjectResources(root);
+		// Every Object Is Registered By Name, So Deep Trees Need No Recursion
+		for(RenderObject ro : objects.values()) {
+			linkObjectResources(ro);
+		}
 	}
-	private void linkObjectResources(RenderObject ro) {
-		ro.mesh = meshes.get(ro.sceneObject.mesh);
-		ro.material = materials.get(ro.sceneObject.material);
-		for(RenderObject cro : ro.children) {
-			linkObjectResources(cro);
+	/**
+	 * Resolve A Single Object's Mesh And Material From The Names In Its Scene Node
+	 * @param ro Object Whose Scene Node May Refer To Different Resources Than Before
+	 */
+	public void linkObjectResources(RenderObject ro) {
+		String mesh = ro.sceneObject.mesh, material = ro.sceneObject.material;
+		if(!equalNames(mesh, ro.linkedMesh)) {
+			removeUser(meshUsers, ro.linkedMesh, ro);
+			addUser(meshUsers, mesh, ro);
+			ro.linkedMesh = mesh;
+		}
+		if(!equalNames(material, ro.linkedMaterial)) {
+			removeUser(materialUsers, ro.linkedMaterial, ro);
+			addUser(materialUsers, material, ro);
+			ro.linkedMaterial = material;
 		}
+		ro.mesh = mesh == null ? null : meshes.get(mesh);
+		updateBounds(ro);
+		ro.material = material == null ? null : materials.get(material);
+	}
+	/**
+	 * Re-Resolve The Objects Using A Mesh Name After The Mesh Was Added Or Removed
+	 * @param name Mesh Name
+	 * @param changed Receives Every Object Whose Mesh Changed
+	 */
+	public void relinkMeshUsers(String name, ArrayList<RenderObject> changed) {
+		HashSet<RenderObject> users = meshUsers.get(name);
+		if(users == null) return;
+		RenderMesh m = meshes.get(name);
+		for(RenderObject ro : users) {
+			if(ro.mesh == m) continue;
+			ro.mesh = m;
+			updateBounds(ro);
+			changed.add(ro);
+		}
+	}
+	/**
+	 * Re-Resolve The Objects Using A Material Name After The Material Was Added Or Removed
+	 * @param name Material Name
+	 * @param changed Receives Every Object Whose Material Changed
+	 */
+	public void relinkMaterialUsers(String name, ArrayList<RenderObject> changed) {
+		HashSet<RenderObject> users = materialUsers.get(name);
+		if(users == null) return;
+		RenderMaterial m = materials.get(name);
+		for(RenderObject ro : users) {
+			if(ro.material == m) continue;
+			ro.material = m;
+			changed.add(ro);
+		}
+	}
+	private void unlinkObjectResources(RenderObject ro) {
+		removeUser(meshUsers, ro.linkedMesh, ro);
+		removeUser(materialUsers, ro.linkedMaterial, ro);
+		ro.linkedMesh = ro.linkedMaterial = null;
+	}
+	private static boolean equalNames(String a, String b) {
+		return a == null ? b == null : a.equals(b);
+	}
+	private static void addUser(HashMap<String, HashSet<RenderObject>> users, String name, RenderObject ro) {
+		if(name == null) return;
+		HashSet<RenderObject> set = users.get(name);
+		if(set == null) {
+			set = new HashSet<>();
+			users.put(name, set);
+		}
+		set.add(ro);
+	}
+	private static void removeUser(HashMap<String, HashSet<RenderObject>> users, String name, RenderObject ro) {
+		if(name == null) return;
+		HashSet<RenderObject> set = users.get(name);
+		if(set == null) return;
+		set.remove(ro);
+		if(set.isEmpty()) users.remove(name);
 	}
 
 	public void linkResources() {
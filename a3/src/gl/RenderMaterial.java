@@ -3,22 +3,28 @@ package gl;
 import java.io.BufferedReader;
 import java.nio.FloatBuffer;
 import java.util.ArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.ContextCapabilities;
 
 import common.Material;
 import common.Material.InputProvider.Type;
+import egl.ArrayBind;
 import egl.GL;
-import egl.GL.TextureTarget;
+import egl.GL.GLType;
 import egl.GL.TextureUnit;
 import egl.GLProgram;
 import egl.GLTexture;
-import egl.GLUniform;
+import egl.GLUniformHandle;
+import egl.GLUtil;
 import egl.IDisposable;
-import egl.NativeMem;
+import egl.RenderCommandBuffer;
 import egl.SamplerState;
+import egl.Semantic;
 import egl.ShaderInterface;
 import egl.math.Color;
+import egl.math.ScratchStack;
 import egl.math.Vector3;
 import egl.math.Vector3d;
 import egl.math.Vector4;
@@ -27,14 +33,14 @@ import ext.java.IOUtils;
 
 public class RenderMaterial implements IDisposable {
 	private static interface IProvider {
-		void set(GLProgram p);
+		void set(RenderCommandBuffer cb);
 	}
 	private static class ColorProvider implements IProvider {
-		String uniformName;
+		GLUniformHandle unColor;
 		Vector4 color;
 
-		public ColorProvider(String name, Color c) {
-			uniformName = "col" + name;
+		public ColorProvider(String name, GLProgram p, Color c) {
+			unColor = p.getUniformHandle("col" + name);
 			color = new Vector4(
 					c.r() / 255.0f,
 					c.g() / 255.0f,
@@ -44,10 +50,8 @@ public class RenderMaterial implements IDisposable {
 		}
 
 		@Override
-		public void set(GLProgram p) {
-			int uniform = p.getUniform(uniformName);
-			if(uniform == GL.BadUniformLocation) return;
-			GL20.glUniform4f(uniform, color.x, color.y, color.z, color.w);
+		public void set(RenderCommandBuffer cb) {
+			cb.setUniform(unColor, color);
 		}
 	}
 	private static class TextureProvider implements IProvider {
@@ -62,10 +66,9 @@ public class RenderMaterial implements IDisposable {
 		}
 
 		@Override
-		public void set(GLProgram p) {
+		public void set(RenderCommandBuffer cb) {
 			if(unTextureSampler == GL.BadUniformLocation) return;
-			t.use(tUnit, unTextureSampler);
-			SamplerState.LINEAR_CLAMP.set(TextureTarget.Texture2D);
+			cb.useTexture(t, tUnit, unTextureSampler, SamplerState.LINEAR_CLAMP);
 		}
 	}
 
@@ -86,6 +89,57 @@ public class RenderMaterial implements IDisposable {
 					"	return textureCube(cubeMap, v);" +
 					"} ";
 	
+	private static final Pattern RGX_WORLD = Pattern.compile("\\buniform\\s+mat4\\s+mWorld\\s*;");
+	private static final Pattern RGX_WORLD_IT = Pattern.compile("\\buniform\\s+mat3\\s+mWorldIT\\s*;");
+	private static final Pattern RGX_WORLD_ANY = Pattern.compile("\\bmWorld(IT)?\\b");
+	private static final Pattern RGX_WORLD_IT_ANY = Pattern.compile("\\bmWorldIT\\b");
+
+	/**
+	 * Size In Bytes Of The Per-Instance Data Of An Instanced Draw (mWorld Then mWorldIT, Column-Major)
+	 */
+	public static final int INSTANCE_SIZE = (16 + 9) * 4;
+	/**
+	 * Per-Instance Attributes, One Per Matrix Column.  Locations Are Filled In From The
+	 * mWorld And mWorldIT Attributes Of The Instanced Program, Since Matrix Attributes Take
+	 * One Location Per Column.
+	 */
+	public static final ArrayBind[] INSTANCE_DECLARATION = {
+		new ArrayBind(Semantic.Custom | Semantic.Index0, GLType.Float, 4, 0),
+		new ArrayBind(Semantic.Custom | Semantic.Index1, GLType.Float, 4, 4 * 4),
+		new ArrayBind(Semantic.Custom | Semantic.Index2, GLType.Float, 4, 8 * 4),
+		new ArrayBind(Semantic.Custom | Semantic.Index3, GLType.Float, 4, 12 * 4),
+		new ArrayBind(Semantic.Custom | Semantic.Index4, GLType.Float, 3, 16 * 4),
+		new ArrayBind(Semantic.Custom | Semantic.Index5, GLType.Float, 3, 19 * 4),
+		new ArrayBind(Semantic.Custom | Semantic.Index6, GLType.Float, 3, 22 * 4)
+	};
+
+	/**
+	 * @return True If The Context Supports Instanced Draws With Per-Instance Attributes
+	 */
+	public static boolean isInstancingSupported() {
+		ContextCapabilities caps = GLUtil.getCapabilities();
+		return caps != null && caps.OpenGL33;
+	}
+	/**
+	 * Turn A Vertex Shader Into One That Reads mWorld And mWorldIT From Per-Instance Attributes
+	 * @param vsSrc Vertex Shader Source
+	 * @param fsSrc Fragment Shader Source (Which Must Not Use The Matrices)
+	 * @return The Converted Vertex Shader Source, Or Null If The Shaders Do Not Declare The Matrices As Expected
+	 */
+	private static String createInstancedSource(String vsSrc, String fsSrc) {
+		if(RGX_WORLD_ANY.matcher(fsSrc).find()) return null;
+
+		Matcher mWorld = RGX_WORLD.matcher(vsSrc);
+		if(!mWorld.find()) return null;
+		vsSrc = mWorld.replaceFirst("attribute mat4 mWorld;");
+
+		// mWorldIT Is Optional, But Any Declaration Must Be Convertible
+		Matcher mWorldIT = RGX_WORLD_IT.matcher(vsSrc);
+		if(mWorldIT.find()) vsSrc = mWorldIT.replaceFirst("attribute mat3 mWorldIT;");
+		else if(RGX_WORLD_IT_ANY.matcher(vsSrc).find()) return null;
+		return vsSrc;
+	}
+
 	private static String getProvider(String provider, String type) {
 		return String.format(provider, type, type, type);
 	}
@@ -94,6 +148,15 @@ public class RenderMaterial implements IDisposable {
 	public final ShaderInterface shaderInterface = new ShaderInterface(RenderMesh.VERTEX_DECLARATION);
 	public final ShaderInterface shaderInterfaceTangentSpace = new ShaderInterface(RenderMesh.VERTEX_DECLARATION_TANGENT_SPACE);
 	public final ShaderInterface shaderInterfaceSkinned = new ShaderInterface(RenderMesh.VERTEX_DECLARATION_SKINNED);
+	/**
+	 * Per-Instance Matrices (Only Bound In Instanced Variants)
+	 */
+	public final ShaderInterface shaderInterfaceInstance = new ShaderInterface(INSTANCE_DECLARATION);
+	/**
+	 * Variant Of This Material Drawing Many Objects In One Call, With mWorld And mWorldIT Read
+	 * From Per-Instance Attributes.  Null If Instancing Is Unsupported Or The Shaders Could Not Be Converted.
+	 */
+	public RenderMaterial instanced = null;
 	
 	private IProvider pDiffuse = null;
 	private IProvider pNormal = null;
@@ -103,20 +166,52 @@ public class RenderMaterial implements IDisposable {
 
 	public final Material sceneMaterial;
 	
-	public int
-		unWorld, unWorldIT, unWorldBones, unWorldITBones,
+	public GLUniformHandle
+		unWorld, unWorldIT,
 		unV, unP, unVP, unWorldCam,
 		unLPos, unLIntensity, unLCount,
-		unCubeMap, unShininess, unRoughness, unDispMagnitude, unAmbientLIntensity, unExposure,
+		unShininess, unRoughness, unDispMagnitude, unAmbientLIntensity, unExposure,
 		unTime;
-	private FloatBuffer fbLight = NativeMem.createFloatBuffer(16 * 3);
+	public int unWorldBones, unWorldITBones, unCubeMap;
+	/**
+	 * True If The Program Reads Camera And Light Data From The {@link FrameUniformBlock}
+	 */
+	public boolean isFrameBlockBound = false;
+
+	/**
+	 * Small Number Used In Render Queue Sort Keys, Unique Among Live Materials
+	 */
+	public final int sortID;
+	private static final RenderQueue.IDPool SORT_IDS = new RenderQueue.IDPool(RenderQueue.MATERIAL_BITS);
+	/**
+	 * True While This Material Holds Its Sort ID (Instanced Variants Borrow Their Parent's)
+	 */
+	private boolean isSortIDHeld;
 
 	public RenderMaterial(Material m) {
 		sceneMaterial = m;
+		sortID = SORT_IDS.acquire();
+		isSortIDHeld = true;
+	}
+	/**
+	 * Create The Instanced Variant Of A Material (Which Sorts Together With It)
+	 */
+	private RenderMaterial(RenderMaterial parent) {
+		sceneMaterial = parent.sceneMaterial;
+		sortID = parent.sortID;
+		isSortIDHeld = false;
 	}
 	@Override
 	public void dispose() {
+		if(isSortIDHeld) {
+			SORT_IDS.release(sortID);
+			isSortIDHeld = false;
+		}
 		program.dispose();
+		if(instanced != null) {
+			instanced.dispose();
+			instanced = null;
+		}
 	}
 	
 	private String readFullResource(String name) {
@@ -135,7 +230,11 @@ public class RenderMaterial implements IDisposable {
 		code = getProvider(sceneMaterial.inputFiberColor.type == Type.TEXTURE ? PROVIDER_FORMAT_TEXTURE : PROVIDER_FORMAT_COLOR, "FiberColor") + code;
 		code = getProvider(sceneMaterial.inputFiberDirection.type == Type.TEXTURE ? PROVIDER_FORMAT_TEXTURE : PROVIDER_FORMAT_COLOR, "FiberDirection") + code;
 		code = PROVIDER_CUBE_MAP + code;
-		code = "\r\n#version 120\r\n" + code;
+		code = FrameUniformBlock.declare(code);
+		
+		// The Extension Directive Takes The Place Of The Leading Blank Line
+		if(FrameUniformBlock.isSupported()) code = "#version 120\r\n" + FrameUniformBlock.EXTENSION_DIRECTIVE + "\r\n" + code;
+		else code = "\r\n#version 120\r\n" + code;
 		
 		return code;
 	}
@@ -159,9 +258,22 @@ public class RenderMaterial implements IDisposable {
 		vsSrc = this.addSpecProviders(vsSrc);
 		fsSrc = this.addSpecProviders(fsSrc);
 		
-		// Unfortunately some drivers behave differently
-		String arrSuffix = "[0]";
-
+		loadShaders(env, vsSrc, fsSrc);
+		
+		// Build The Instanced Variant From The Same Sources
+		if(instanced != null) instanced.dispose();
+		instanced = null;
+		String vsInstancedSrc = isInstancingSupported() ? createInstancedSource(vsSrc, fsSrc) : null;
+		if(vsInstancedSrc != null) {
+			instanced = new RenderMaterial(this);
+			instanced.loadShaders(env, vsInstancedSrc, fsSrc);
+			if(!instanced.program.getIsLinked() || instanced.shaderInterfaceInstance.binds[0].location == GL.BadAttributeLocation) {
+				instanced.dispose();
+				instanced = null;
+			}
+		}
+	}
+	private void loadShaders(RenderEnvironment env, String vsSrc, String fsSrc) {
 		// Create The Program
 		program.quickCreateSource(sceneMaterial.materialType, vsSrc, fsSrc, null);
 		
@@ -169,132 +281,144 @@ public class RenderMaterial implements IDisposable {
 		shaderInterface.build(program.semanticLinks);
 		shaderInterfaceTangentSpace.build(program.semanticLinks);
 		shaderInterfaceSkinned.build(program.semanticLinks);
+		int anWorld = program.getAttribute("mWorld");
+		int anWorldIT = program.getAttribute("mWorldIT");
+		for(int i = 0;i < 4;i++) {
+			shaderInterfaceInstance.binds[i].location = anWorld == GL.BadAttributeLocation ? GL.BadAttributeLocation : anWorld + i;
+		}
+		for(int i = 0;i < 3;i++) {
+			shaderInterfaceInstance.binds[4 + i].location = anWorldIT == GL.BadAttributeLocation ? GL.BadAttributeLocation : anWorldIT + i;
+		}
+		// Camera And Lights Come From The Shared Block When The Program Reads It
+		isFrameBlockBound = FrameUniformBlock.bind(program);
+		
 		System.out.print("Your shader program's registered uniforms: ");
 		program.printUniforms();
+		createUniformHandles();
+		
+		// Cube map
+		//TexCubeMap.setupCubeMap(unCubeMap, "data/textures/Envir/");
+		env.cubemap.use(TextureUnit.Texture3, unCubeMap);
+		
+		createInputProviders(env);
+	}
+	/**
+	 * Resolve The Program's Uniforms.  Before The Program Is Linked Every Handle Is Invalid,
+	 * Which Lets A Material Be Drawn Into A {@link RenderCommandBuffer} Without A Context.
+	 */
+	public void createUniformHandles() {
+		// Unfortunately some drivers behave differently
+		String arrSuffix = "[0]";
 		
 		// Transformation info
-		unWorld = program.getUniform("mWorld");
-		unWorldIT = program.getUniform("mWorldIT");
+		unWorld = program.getUniformHandle("mWorld");
+		unWorldIT = program.getUniformHandle("mWorldIT");
 		unWorldBones = program.getUniform("mWorldBones");
 		unWorldITBones = program.getUniform("mWorldITBones");
-		unV = program.getUniform("mView");
-		unP = program.getUniform("mProj");
-		unVP = program.getUniform("mViewProjection");
-		unWorldCam = program.getUniform("worldCam");
+		unV = program.getUniformHandle("mView");
+		unP = program.getUniformHandle("mProj");
+		unVP = program.getUniformHandle("mViewProjection");
+		unWorldCam = program.getUniformHandle("worldCam");
 		
 		// Shading info
-		unShininess = program.getUniform("shininess");
-		unRoughness = program.getUniform("roughness");
-		unDispMagnitude = program.getUniform("dispMagnitude");
+		unShininess = program.getUniformHandle("shininess");
+		unRoughness = program.getUniformHandle("roughness");
+		unDispMagnitude = program.getUniformHandle("dispMagnitude");
 		
 		// Lighting info
-		unLCount = program.getUniform("numLights");
+		unLCount = program.getUniformHandle("numLights");
 		
 		// Try with and without suffix...
-		unLPos = program.getUniform("lightPosition");
-		if (unLPos == GL.BadUniformLocation) {
-			unLPos = program.getUniform("lightPosition" + arrSuffix);
+		unLPos = program.getUniformHandle("lightPosition");
+		if (!unLPos.isValid()) {
+			unLPos = program.getUniformHandle("lightPosition" + arrSuffix);
 		}
-		unLIntensity = program.getUniform("lightIntensity");
-		if (unLIntensity == GL.BadUniformLocation) {
-			unLIntensity = program.getUniform("lightIntensity" + arrSuffix);
+		unLIntensity = program.getUniformHandle("lightIntensity");
+		if (!unLIntensity.isValid()) {
+			unLIntensity = program.getUniformHandle("lightIntensity" + arrSuffix);
 		}
 		
-		unAmbientLIntensity = program.getUniform("ambientLightIntensity");
+		unAmbientLIntensity = program.getUniformHandle("ambientLightIntensity");
 		
 		// Camera info
-		unExposure = program.getUniform("exposure");
-				
+		unExposure = program.getUniformHandle("exposure");
+		
 		// Cube map
 		unCubeMap = program.getUniform("cubeMap");
-		//TexCubeMap.setupCubeMap(unCubeMap, "data/textures/Envir/");
-		env.cubemap.use(TextureUnit.Texture3, unCubeMap);
 		
 		// Animation Information
-		unTime = program.getUniform("time");
-		
-		createInputProviders(env);
+		unTime = program.getUniformHandle("time");
 	}
 
 	public void createInputProviders(RenderEnvironment env) {
 		if(sceneMaterial.inputDiffuse.type == Type.TEXTURE)
 			pDiffuse = new TextureProvider("Diffuse", program, 0, sceneMaterial.inputDiffuse.texture, env);
 		else
-			pDiffuse = new ColorProvider("Diffuse", sceneMaterial.inputDiffuse.color);
+			pDiffuse = new ColorProvider("Diffuse", program, sceneMaterial.inputDiffuse.color);
 		
 		if(sceneMaterial.inputNormal.type == Type.TEXTURE)
 			pNormal = new TextureProvider("Normal", program, 1, sceneMaterial.inputNormal.texture, env);
 		else
-			pNormal = new ColorProvider("Normal", sceneMaterial.inputNormal.color);
+			pNormal = new ColorProvider("Normal", program, sceneMaterial.inputNormal.color);
 		
 		if(sceneMaterial.inputSpecular.type == Type.TEXTURE)
 			pSpecular = new TextureProvider("Specular", program, 2, sceneMaterial.inputSpecular.texture, env);
 		else
-			pSpecular = new ColorProvider("Specular", sceneMaterial.inputSpecular.color);
+			pSpecular = new ColorProvider("Specular", program, sceneMaterial.inputSpecular.color);
 		
 		if(sceneMaterial.inputFiberColor.type == Type.TEXTURE)
 			pFiberColor = new TextureProvider("FiberColor", program, 3, sceneMaterial.inputFiberColor.texture, env);
 		else
-			pFiberColor = new ColorProvider("FiberColor", sceneMaterial.inputFiberColor.color);
+			pFiberColor = new ColorProvider("FiberColor", program, sceneMaterial.inputFiberColor.color);
 		
 		if(sceneMaterial.inputFiberDirection.type == Type.TEXTURE)
 			pFiberDirection = new TextureProvider("FiberDirection", program, 4, sceneMaterial.inputFiberDirection.texture, env);
 		else
-			pFiberDirection = new ColorProvider("FiberDirection", sceneMaterial.inputFiberDirection.color);
+			pFiberDirection = new ColorProvider("FiberDirection", program, sceneMaterial.inputFiberDirection.color);
 		
 
 	}
 	
-	public void useMaterialProperties() {
-		pDiffuse.set(program);
-		pNormal.set(program);
-		pSpecular.set(program);
-		pFiberColor.set(program);
-		pFiberDirection.set(program);
+	public void useMaterialProperties(RenderCommandBuffer cb) {
+		pDiffuse.set(cb);
+		pNormal.set(cb);
+		pSpecular.set(cb);
+		pFiberColor.set(cb);
+		pFiberDirection.set(cb);
 		
-		if (unShininess != GL.BadUniformLocation) {
-			GL20.glUniform1f(unShininess, sceneMaterial.shininess);
-		}
-		if (unRoughness != GL.BadUniformLocation) {
-			GL20.glUniform1f(unRoughness, sceneMaterial.roughness);
-		}
-		if (unDispMagnitude != GL.BadUniformLocation) {
-			GL20.glUniform1f(unDispMagnitude, sceneMaterial.dispMagnitude);
-		}
+		cb.setUniform(unShininess, sceneMaterial.shininess);
+		cb.setUniform(unRoughness, sceneMaterial.roughness);
+		cb.setUniform(unDispMagnitude, sceneMaterial.dispMagnitude);
 	}
 	
-	public void useObject(RenderObject o) {
-		if(unWorld != GL.BadUniformLocation) {
-			GLUniform.setST(unWorld, o.mWorldTransform, false);
-		}
-		if(unWorldIT != GL.BadUniformLocation) {
-			GLUniform.setST(unWorldIT, o.mWorldTransformIT, false);
-		}
+	public void useObject(RenderCommandBuffer cb, RenderObject o) {
+		cb.setUniform(unWorld, o.mWorldTransform);
+		cb.setUniform(unWorldIT, o.mWorldTransformIT);
 	}
 	
-	public void useCameraAndLights(RenderCamera c, ArrayList<RenderLight> lights, int s, int lightCount) {
-		// Use camera
-		if(unV != GL.BadUniformLocation) {
-			GLUniform.setST(unV, c.mView, false);
-		}
-		if(unP != GL.BadUniformLocation) {
-			GLUniform.setST(unP, c.mProj, false);
-		}
-		if(unVP != GL.BadUniformLocation) {
-			GLUniform.setST(unVP, c.mViewProjection, false);
-		}
-		if(unExposure != GL.BadUniformLocation) {
-			GL20.glUniform1f(unExposure, c.sceneCamera.exposure);
-		}
+	/**
+	 * Send Camera And Light Data To Programs That Do Not Read The {@link FrameUniformBlock}
+	 * @param lightData Scratch For Packing Light Arrays (At Least 3 Floats Per Light, Owned By The Caller's Thread)
+	 */
+	public void useCameraAndLights(RenderCommandBuffer cb, RenderCamera c, ArrayList<RenderLight> lights, int s, int lightCount, FloatBuffer lightData) {
+		// The Renderer Uploads These Once Per Frame For Programs Using The Block
+		if(isFrameBlockBound) return;
+		
+		// Use camera (Handles Skip Values This Program Already Holds)
+		cb.setUniform(unV, c.mView);
+		cb.setUniform(unP, c.mProj);
+		cb.setUniform(unVP, c.mViewProjection);
+		cb.setUniform(unExposure, c.sceneCamera.exposure);
 		
-		// Use lights
+		// Use lights (Packed Into The Caller's Scratch, Since Encoders On Several Threads May Use This Material At Once)
+		ScratchStack scratch = ScratchStack.get();
+		Vector3 pos = scratch.pushVector3();
 		int nonAmbientLightCount = 0;
 		// Default color is black
-		Vector3d ambientLightColor = new Vector3d(0.0);
+		Vector3d ambientLightColor = null;
 		
-		if(unLPos != GL.BadUniformLocation) {
-			fbLight.clear();
-			Vector3 pos = new Vector3();
+		if(unLPos.isValid()) {
+			lightData.clear();
 			for(int i = 0;i < lightCount;i++) {
 				RenderLight rl = lights.get(s + i);
 				
@@ -303,50 +427,44 @@ public class RenderMaterial implements IDisposable {
 					nonAmbientLightCount++;
 					
 					rl.mWorldTransform.getTrans(pos);
-					fbLight.put(pos.x);
-					fbLight.put(pos.y);
-					fbLight.put(pos.z);
-					pos.set(0);
+					lightData.put(pos.x);
+					lightData.put(pos.y);
+					lightData.put(pos.z);
 				} else {
 					ambientLightColor = rl.sceneLight.intensity;
 				}
 			}
-			fbLight.rewind();
-			GL20.glUniform3(unLPos, fbLight);
+			lightData.rewind();
+			cb.setUniform3(unLPos, lightData);
 		}
 		
-		if(unWorldCam != GL.BadUniformLocation) {
-			Vector3 camTrans = new Vector3();
-			c.mWorldTransform.getTrans(camTrans);
-			GLUniform.set(unWorldCam, camTrans);
+		if(unWorldCam.isValid()) {
+			c.mWorldTransform.getTrans(pos);
+			cb.setUniform(unWorldCam, pos);
 		}
+		scratch.popVector3(1);
 		
-		if(unLIntensity != GL.BadUniformLocation) {
-			fbLight.clear();
+		if(unLIntensity.isValid()) {
+			lightData.clear();
 			for(int i = 0;i < lightCount;i++) {
 				RenderLight rl = lights.get(s + i);
 				
 				// We skip ambient lights here
 				if (!rl.sceneLight.isAmbient) {
-					fbLight.put((float)rl.sceneLight.intensity.x);
-					fbLight.put((float)rl.sceneLight.intensity.y);
-					fbLight.put((float)rl.sceneLight.intensity.z);
+					lightData.put((float)rl.sceneLight.intensity.x);
+					lightData.put((float)rl.sceneLight.intensity.y);
+					lightData.put((float)rl.sceneLight.intensity.z);
 				}
 			}
-			fbLight.rewind();
-			GL20.glUniform3(unLIntensity, fbLight);
-		}
-		if(unLCount != GL.BadUniformLocation) {
-			GL20.glUniform1i(unLCount, nonAmbientLightCount);
-		}
-		if (unAmbientLIntensity != GL.BadUniformLocation) {
-			GL20.glUniform3f(unAmbientLIntensity, (float)ambientLightColor.x, (float)ambientLightColor.y, (float)ambientLightColor.z);
+			lightData.rewind();
+			cb.setUniform3(unLIntensity, lightData);
 		}
+		cb.setUniform(unLCount, nonAmbientLightCount);
+		if(ambientLightColor == null) cb.setUniform(unAmbientLIntensity, 0, 0, 0);
+		else cb.setUniform(unAmbientLIntensity, (float)ambientLightColor.x, (float)ambientLightColor.y, (float)ambientLightColor.z);
 	}
 	
-	public void useTime(float time) {
-		if (unTime != GL.BadUniformLocation) {
-			GL20.glUniform1f(unTime, time);
-		}
+	public void useTime(RenderCommandBuffer cb, float time) {
+		cb.setUniform(unTime, time);
 	}
 }
@@ -6,27 +6,33 @@ import java.nio.FloatBuffer;
 
 import common.Mesh;
 import mesh.MeshData;
+import mesh.TriangleBVH;
 import egl.ArrayBind;
 import egl.GL.BufferTarget;
 import egl.GL.BufferUsageHint;
 import egl.GL.GLType;
+import egl.GL.PrimitiveType;
 import egl.GLBuffer;
 import egl.GLError;
+import egl.GLVertexArray;
 import egl.IDisposable;
 import egl.NativeMem;
+import egl.RenderCommandBuffer;
 import egl.Semantic;
+import egl.ShaderInterface;
+import egl.math.BatchMath;
 import egl.math.Vector2;
 import egl.math.Vector3;
 import egl.math.Vector3i;
 
 public class RenderMesh implements IDisposable {
-	private static final int VERTEX_SIZE = 8 * 4;
+	static final int VERTEX_SIZE = 8 * 4;
 	public static final ArrayBind[] VERTEX_DECLARATION = {
 		new ArrayBind(Semantic.Position, GLType.Float, 3, 0),
 		new ArrayBind(Semantic.Normal, GLType.Float, 3, 3 * 4),
 		new ArrayBind(Semantic.TexCoord, GLType.Float, 2, 6 * 4)
 	};
-	private static final int VERTEX_SIZE_TANGENT_SPACE = 6 * 4;
+	static final int VERTEX_SIZE_TANGENT_SPACE = 6 * 4;
 	public static final ArrayBind[] VERTEX_DECLARATION_TANGENT_SPACE = {
 		new ArrayBind(Semantic.Tangent, GLType.Float, 3, 0),
 		new ArrayBind(Semantic.Bitangent, GLType.Float, 3, 3 * 4)
@@ -43,23 +49,126 @@ public class RenderMesh implements IDisposable {
 	public final GLBuffer iBuffer = new GLBuffer(BufferTarget.ElementArrayBuffer, BufferUsageHint.StaticDraw, false);
 	public int vertexCount;
 	public int indexCount;
+	/**
+	 * Corners Of The Axis-Aligned Bounding Box Of The Positions, In Object Space
+	 */
+	public final Vector3 boundsMin = new Vector3();
+	public final Vector3 boundsMax = new Vector3();
+	/**
+	 * Triangles In Object Space, For CPU Ray Casts (Null Until The Mesh Is Built)
+	 */
+	public TriangleBVH triangles = null;
+
+	/**
+	 * Ranges In The Environment's Shared Buffers When The Mesh Was Built Into Them (Otherwise Null,
+	 * And The Mesh's Own Buffers Hold Its Data)
+	 */
+	public GeometryArena.Allocation allocation = null;
+	private GeometryArena arena = null;
+	/**
+	 * Vertex Arrays Over The Mesh's Own Buffers (Discarded When The Mesh Is Rebuilt)
+	 */
+	private final VertexArrayCache vertexArrays = new VertexArrayCache();
 
 	public final Mesh sceneMesh;
 
+	/**
+	 * Small Number Used In Render Queue Sort Keys, Unique Among Live Meshes
+	 */
+	public final int sortID = SORT_IDS.acquire();
+	private static final RenderQueue.IDPool SORT_IDS = new RenderQueue.IDPool(RenderQueue.MESH_BITS);
+	private boolean isSortIDHeld = true;
+
 	public RenderMesh(Mesh m) {
 		sceneMesh = m;
 	}
 	@Override
 	public void dispose() {
+		if(isSortIDHeld) {
+			SORT_IDS.release(sortID);
+			isSortIDHeld = false;
+		}
 		vBuffer.dispose();
 		vBufferTangentSpace.dispose();
 		vBufferSkinned.dispose();
 		iBuffer.dispose();
+		vertexArrays.dispose();
+		releaseAllocation();
+	}
+	private void releaseAllocation() {
+		if(allocation == null) return;
+		arena.free(allocation);
+		allocation = null;
+		arena = null;
+	}
+	
+	/**
+	 * @return Buffer Holding The Mesh's Vertices (Shared With Other Meshes When Allocated In An Arena)
+	 */
+	public GLBuffer getVertexBuffer() {
+		return allocation == null ? vBuffer : arena.getVertexBuffer();
+	}
+	/**
+	 * @return Buffer Holding The Mesh's Tangent Space Vectors
+	 */
+	public GLBuffer getTangentSpaceBuffer() {
+		return allocation == null ? vBufferTangentSpace : arena.getTangentSpaceBuffer();
+	}
+	/**
+	 * @return Buffer Holding The Mesh's Indices
+	 */
+	public GLBuffer getIndexBuffer() {
+		return allocation == null ? iBuffer : arena.getIndexBuffer();
+	}
+	/**
+	 * Get A Vertex Array With This Mesh's Buffers Bound To A Program's Inputs.  Meshes In An
+	 * Arena Share One Vertex Array Per Input Layout With Every Other Mesh There.
+	 * @param si Inputs Of The Main Vertex Buffer
+	 * @param siTangentSpace Inputs Of The Tangent Space Buffer (Or Null)
+	 * @param siSkinned Inputs Of The Skinning Buffer (Or Null; Unused Without Skinning Information)
+	 * @return The Vertex Array (Bind It Before Drawing)
+	 */
+	public GLVertexArray getVertexArray(ShaderInterface si, ShaderInterface siTangentSpace, ShaderInterface siSkinned) {
+		if(allocation != null) return arena.getVertexArray(si, siTangentSpace);
+		return vertexArrays.get(si, siTangentSpace, siSkinned,
+				vBuffer, vBufferTangentSpace, vBufferSkinned.getIsCreated() ? vBufferSkinned : null, iBuffer);
+	}
+	/**
+	 * Draw The Triangles With The Bound Program And Inputs
+	 * @param cb Commands Of The Frame
+	 */
+	public void draw(RenderCommandBuffer cb) {
+		if(allocation == null) cb.drawElements(PrimitiveType.Triangles, indexCount, 0);
+		else cb.drawElements(PrimitiveType.Triangles, indexCount, allocation.firstIndex * 4L, allocation.baseVertex, 0);
+	}
+	/**
+	 * Draw Several Instances Of The Triangles With The Bound Program And Inputs
+	 * @param cb Commands Of The Frame
+	 * @param count Number Of Instances
+	 */
+	public void drawInstanced(RenderCommandBuffer cb, int count) {
+		if(allocation == null) cb.drawElements(PrimitiveType.Triangles, indexCount, 0, 0, count);
+		else cb.drawElements(PrimitiveType.Triangles, indexCount, allocation.firstIndex * 4L, allocation.baseVertex, count);
 	}
 
+	/**
+	 * @see #build(MeshData, GeometryArena) build(data, null)
+	 */
 	public void build(MeshData data) {
+		build(data, null);
+	}
+	/**
+	 * Upload A Mesh
+	 * @param data Mesh Data
+	 * @param arena Shared Storage To Place The Mesh In (Or Null, Or Unsupported, To Give It Its Own Buffers)
+	 */
+	public void build(MeshData data, GeometryArena arena) {
+		vertexArrays.dispose();
+		releaseAllocation();
 		vertexCount = data.vertexCount;
 		indexCount = data.indexCount;
+		BatchMath.computeBounds(data.positions, vertexCount, boundsMin, boundsMax);
+		triangles = new TriangleBVH(data);
 
 		// Interlace The Data
 		ByteBuffer bb = NativeMem.createByteBuffer(vertexCount * VERTEX_SIZE);
@@ -81,18 +190,6 @@ public class RenderMesh implements IDisposable {
 		}
 		bb.flip();
 
-		// Send Data To GPU
-		vBuffer.init();
-		vBuffer.setAsVertex(VERTEX_SIZE);
-		vBuffer.setDataInitial(bb);
-		GLError.get("RenderMesh init: vertex setDataInitial");
-		
-		iBuffer.init();
-		iBuffer.setAsIndexInt();
-		data.indices.position(0);
-		data.indices.limit(indexCount);
-		iBuffer.setDataInitial(data.indices);
-
 		// Calculate Tangent Space Information
 		FloatBuffer fb = NativeMem.createFloatBuffer(vertexCount * VERTEX_SIZE_TANGENT_SPACE / 4);
 		int ii = 0;
@@ -151,13 +248,37 @@ public class RenderMesh implements IDisposable {
 		}
 		fb.position(0);
 		fb.limit(vertexCount * VERTEX_SIZE_TANGENT_SPACE / 4);
+		data.indices.position(0);
+		data.indices.limit(indexCount);
+		
+		// Send Data To GPU
+		if(arena != null && GeometryArena.isSupported()) {
+			this.arena = arena;
+			allocation = arena.allocate(bb, fb, data.indices, vertexCount, indexCount);
+			return;
+		}
+		
+		vBuffer.init();
+		vBuffer.setAsVertex(VERTEX_SIZE);
+		vBuffer.setDataInitial(bb);
+		GLError.get("RenderMesh init: vertex setDataInitial");
+		
+		iBuffer.init();
+		iBuffer.setAsIndexInt();
+		iBuffer.setDataInitial(data.indices);
 		GLError.get("RenderMesh init: index setDataInitial");
 		
 		vBufferTangentSpace.init();
 		vBufferTangentSpace.setAsVertex(VERTEX_SIZE_TANGENT_SPACE);
 		vBufferTangentSpace.setDataInitial(fb);
 	}
+	/**
+	 * Add Per-Vertex Bone Indices And Weights (Only To Meshes With Their Own Buffers, Since
+	 * A Base Vertex Would Also Offset Into The Mesh's Separate Skinning Buffer)
+	 */
 	public void addSkinningInformation(FloatBuffer indices, FloatBuffer weights) {
+		if(allocation != null) throw new RuntimeException("Skinned Meshes Cannot Be Stored In A Geometry Arena");
+		vertexArrays.dispose();
 		ByteBuffer bb = NativeMem.createByteBuffer(vertexCount * VERTEX_SIZE_SKINNED);
 		indices.position(0);
 		indices.limit(vertexCount * 4);
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import common.SceneObject;
 import egl.math.Matrix3;
 import egl.math.Matrix4;
+import egl.math.Vector3;
 
 public class RenderObject {
 	/**
@@ -15,6 +16,22 @@ public class RenderObject {
 	 * The normal matrix of this object
 	 */
 	public final Matrix3 mWorldTransformIT = new Matrix3();
+	/**
+	 * World-space axis-aligned box around the mesh (a point at the object's origin if there is no mesh)
+	 */
+	public final Vector3 worldBoundsMin = new Vector3(), worldBoundsMax = new Vector3();
+	/**
+	 * Leaf of this object in RenderEnvironment.bounds (-1 if not part of it)
+	 */
+	int boundsNode = -1;
+	/**
+	 * True when this object's transformation changed and its subtree awaits recomputation
+	 */
+	public boolean isTransformDirty = false;
+	/**
+	 * Slot of this object in RenderEnvironment.hierarchy (-1 if not part of it)
+	 */
+	public int transformIndex = -1;
 	
 	/**
 	 * The parent object
@@ -38,8 +55,62 @@ public class RenderObject {
 	 * Material
 	 */
 	public RenderMaterial material = null;
+	/**
+	 * Mesh and material names this object is registered under in RenderEnvironment (null if none)
+	 */
+	String linkedMesh = null, linkedMaterial = null;
+	/**
+	 * Render pass holding this object and its position in the pass (managed by the one Renderer drawing this environment)
+	 */
+	Renderer.RenderPass pass = null;
+	int passIndex = -1;
+	/**
+	 * Last frame in which Renderer found this object inside the view frustum
+	 */
+	int visibleFrame = -1;
+	/**
+	 * Local transformation from the last TransformSnapshot applied to this object (null to read sceneObject.transformation)
+	 */
+	float[] snapshotTransform = null;
+	/**
+	 * Slot of this object in the snapshots of the SceneSnapshotter tracking it (-1 if none; used by the snapshot thread only)
+	 */
+	int snapshotSlot = -1;
 	
 	public RenderObject(SceneObject o) {
 		sceneObject = o;
 	}
+	
+	/**
+	 * @return The packed object-to-parent transformation, from the latest snapshot when there is one
+	 */
+	public float[] getLocalTransform() {
+		return snapshotTransform != null ? snapshotTransform : sceneObject.transformation.m;
+	}
+	
+	/**
+	 * Recompute the world-space bounds after the world transformation or the mesh changed.
+	 * The mesh box is transformed by center and half-extents, which gives the tightest
+	 * axis-aligned box around the transformed box.
+	 */
+	public void updateWorldBounds() {
+		float[] m = mWorldTransform.m;
+		float cx = 0, cy = 0, cz = 0, ex = 0, ey = 0, ez = 0;
+		if(mesh != null) {
+			cx = (mesh.boundsMin.x + mesh.boundsMax.x) * 0.5f;
+			cy = (mesh.boundsMin.y + mesh.boundsMax.y) * 0.5f;
+			cz = (mesh.boundsMin.z + mesh.boundsMax.z) * 0.5f;
+			ex = (mesh.boundsMax.x - mesh.boundsMin.x) * 0.5f;
+			ey = (mesh.boundsMax.y - mesh.boundsMin.y) * 0.5f;
+			ez = (mesh.boundsMax.z - mesh.boundsMin.z) * 0.5f;
+		}
+		float wx = m[0] * cx + m[4] * cy + m[8] * cz + m[12];
+		float wy = m[1] * cx + m[5] * cy + m[9] * cz + m[13];
+		float wz = m[2] * cx + m[6] * cy + m[10] * cz + m[14];
+		float wex = Math.abs(m[0]) * ex + Math.abs(m[4]) * ey + Math.abs(m[8]) * ez;
+		float wey = Math.abs(m[1]) * ex + Math.abs(m[5]) * ey + Math.abs(m[9]) * ez;
+		float wez = Math.abs(m[2]) * ex + Math.abs(m[6]) * ey + Math.abs(m[10]) * ez;
+		worldBoundsMin.set(wx - wex, wy - wey, wz - wez);
+		worldBoundsMax.set(wx + wex, wy + wey, wz + wez);
+	}
 }
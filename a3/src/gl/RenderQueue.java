@@ -0,0 +1,220 @@
+package gl;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * List Of Draw Items Ordered By Packed 64-Bit Sort Keys.
+ *
+ * Each key packs, from most to least significant bits:
+ * <pre>
+ * | layer (4) | program (12) | material (12) | mesh (12) | depth (24) |
+ * </pre>
+ * so that sorting the keys as unsigned integers groups draws by layer, then shader program,
+ * then material and mesh, and orders draws that share all state by depth.  Depth is quantized by
+ * {@link #quantizeDepth(float, float, float, boolean)}: opaque layers usually sort front-to-back
+ * (to reject hidden fragments early) and translucent layers back-to-front (for correct blending).
+ *
+ * Keys are sorted with an LSD radix sort over 8-bit digits into reusable primitive arrays, so a
+ * sort allocates nothing once the queue has grown to its working size.  Digits that are equal in
+ * every key (for example an unused depth field) are skipped.
+ */
+public class RenderQueue {
+	public static final int LAYER_BITS = 4;
+	public static final int PROGRAM_BITS = 12;
+	public static final int MATERIAL_BITS = 12;
+	public static final int MESH_BITS = 12;
+	public static final int DEPTH_BITS = 24;
+
+	public static final int DEPTH_SHIFT = 0;
+	public static final int MESH_SHIFT = DEPTH_SHIFT + DEPTH_BITS;
+	public static final int MATERIAL_SHIFT = MESH_SHIFT + MESH_BITS;
+	public static final int PROGRAM_SHIFT = MATERIAL_SHIFT + MATERIAL_BITS;
+	public static final int LAYER_SHIFT = PROGRAM_SHIFT + PROGRAM_BITS;
+
+	/**
+	 * Layer For Opaque Geometry (Drawn First)
+	 */
+	public static final int LAYER_OPAQUE = 0;
+	/**
+	 * Layer For Blended Geometry (Drawn After All Opaque Geometry)
+	 */
+	public static final int LAYER_TRANSLUCENT = 8;
+
+	private static final int RADIX_BITS = 8;
+	private static final int RADIX = 1 << RADIX_BITS;
+
+	/**
+	 * Number Of Items In The Queue
+	 */
+	private int count = 0;
+	/**
+	 * Sort Keys Of The Items
+	 */
+	private long[] keys = new long[0];
+	/**
+	 * The Items, In The Same Order As The Keys
+	 */
+	private RenderObject[] items = new RenderObject[0];
+	/**
+	 * Scatter Targets Of The Radix Sort, Swapped With The Main Arrays After Each Digit
+	 */
+	private long[] swapKeys = new long[0];
+	private RenderObject[] swapItems = new RenderObject[0];
+	private final int[] histogram = new int[RADIX];
+
+	/**
+	 * Hands Out The Smallest Unused IDs For A Key Field, So That IDs Of Disposed Resources Are
+	 * Reused And Always Fit The Field's Bit Range
+	 */
+	public static class IDPool {
+		private final BitSet used = new BitSet();
+		private final int bits;
+
+		/**
+		 * @param bits Width Of The Key Field The IDs Are Packed Into
+		 */
+		public IDPool(int bits) {
+			this.bits = bits;
+		}
+
+		/**
+		 * @return The Smallest Free ID
+		 * @throws RuntimeException If Every ID That Fits The Field Is In Use (Keys Would Collide)
+		 */
+		public synchronized int acquire() {
+			int id = used.nextClearBit(0);
+			if(id >= 1 << bits) throw new RuntimeException("More Than " + (1 << bits) + " Live IDs Do Not Fit A " + bits + "-Bit Sort Key Field");
+			used.set(id);
+			return id;
+		}
+		/**
+		 * Return An ID So That It Can Be Handed Out Again
+		 * @param id ID From {@link #acquire()}
+		 */
+		public synchronized void release(int id) {
+			used.clear(id);
+		}
+	}
+
+	/**
+	 * Pack A Sort Key.  Fields Wider Than Their Bit Range Are Truncated.
+	 * @param layer Layer (Such As {@link #LAYER_OPAQUE})
+	 * @param program Shader Program ID
+	 * @param material Material Sort ID
+	 * @param mesh Mesh Sort ID
+	 * @param depth Quantized Depth
+	 * @return The Key
+	 */
+	public static long createKey(int layer, int program, int material, int mesh, int depth) {
+		return
+				field(layer, LAYER_BITS) << LAYER_SHIFT |
+				field(program, PROGRAM_BITS) << PROGRAM_SHIFT |
+				field(material, MATERIAL_BITS) << MATERIAL_SHIFT |
+				field(mesh, MESH_BITS) << MESH_SHIFT |
+				field(depth, DEPTH_BITS) << DEPTH_SHIFT;
+	}
+	private static long field(int v, int bits) {
+		return v & ((1L << bits) - 1);
+	}
+	/**
+	 * Map A View-Space Distance To The Depth Field Of A Key
+	 * @param distance Distance From The Camera Along The View Direction
+	 * @param near Distance Mapped To The Smallest Value
+	 * @param far Distance Mapped To The Largest Value
+	 * @param backToFront Reverse The Order So That Far Items Sort First
+	 * @return Depth In [0, 2^DEPTH_BITS)
+	 */
+	public static int quantizeDepth(float distance, float near, float far, boolean backToFront) {
+		float t = (distance - near) / (far - near);
+		if(!(t > 0)) t = 0;
+		else if(t > 1) t = 1;
+		int max = (1 << DEPTH_BITS) - 1;
+		int d = (int)(t * max);
+		return backToFront ? max - d : d;
+	}
+
+	/**
+	 * @return Number Of Items In The Queue
+	 */
+	public int size() {
+		return count;
+	}
+	/**
+	 * @param i Position In The Queue
+	 * @return The Item At That Position
+	 */
+	public RenderObject get(int i) {
+		return items[i];
+	}
+	/**
+	 * @param i Position In The Queue
+	 * @return The Key Of The Item At That Position
+	 */
+	public long getKey(int i) {
+		return keys[i];
+	}
+
+	/**
+	 * Remove All Items (Storage Is Kept For Reuse)
+	 */
+	public void clear() {
+		Arrays.fill(items, 0, count, null);
+		Arrays.fill(swapItems, 0, count, null);
+		count = 0;
+	}
+	/**
+	 * Append An Item
+	 * @param ro Object To Draw
+	 * @param key Sort Key From {@link #createKey(int, int, int, int, int)}
+	 */
+	public void add(RenderObject ro, long key) {
+		if(count == keys.length) {
+			int n = Math.max(64, count * 2);
+			keys = Arrays.copyOf(keys, n);
+			items = Arrays.copyOf(items, n);
+			swapKeys = new long[n];
+			swapItems = new RenderObject[n];
+		}
+		keys[count] = key;
+		items[count] = ro;
+		count++;
+	}
+
+	/**
+	 * Sort The Items By Key (As Unsigned Integers).  The Sort Is Stable.
+	 */
+	public void sort() {
+		for(int shift = 0;shift < Long.SIZE;shift += RADIX_BITS) {
+			// Count Digits
+			Arrays.fill(histogram, 0);
+			for(int i = 0;i < count;i++) {
+				histogram[(int)(keys[i] >>> shift) & (RADIX - 1)]++;
+			}
+
+			// Every Key Has The Same Digit: Nothing To Reorder
+			if(count == 0 || histogram[(int)(keys[0] >>> shift) & (RADIX - 1)] == count) continue;
+
+			// Prefix Sums Give The First Output Slot Of Each Digit
+			int sum = 0;
+			for(int d = 0;d < RADIX;d++) {
+				int c = histogram[d];
+				histogram[d] = sum;
+				sum += c;
+			}
+
+			// Scatter And Swap Buffers
+			for(int i = 0;i < count;i++) {
+				int slot = histogram[(int)(keys[i] >>> shift) & (RADIX - 1)]++;
+				swapKeys[slot] = keys[i];
+				swapItems[slot] = items[i];
+			}
+			long[] k = keys;
+			keys = swapKeys;
+			swapKeys = k;
+			RenderObject[] r = items;
+			items = swapItems;
+			swapItems = r;
+		}
+	}
+}
@@ -1,13 +1,10 @@
 package gl;
 
-import java.util.HashMap;
 
 import common.Cubemap;
 import common.Material;
 import common.Mesh;
 import common.Scene;
-import common.SceneCamera;
-import common.SceneLight;
 import common.SceneObject;
 import common.Texture;
 import egl.math.Vector2;
@@ -54,48 +51,39 @@ public class RenderTreeBuilder {
 	 */
 	public static void buildTree(Scene scene, RenderEnvironment env) {
 		// Clear Out Any Old Data
-		env.cameras.clear();
-		env.lights.clear();
+		env.clearObjects();
 		
 		// Pass 1: Create The Render Object Mapping
-		HashMap<String, RenderObject> dict = new HashMap<>();
 		for(SceneObject so : scene.objects) {
-			RenderObject ro;
-			
-			if(so instanceof SceneCamera) {
-				ro = new RenderCamera(so, env.viewportSize);
-				env.cameras.add((RenderCamera)ro);
-			}
-			else if(so instanceof SceneLight) {
-				ro = new RenderLight(so);
-				env.lights.add((RenderLight)ro);
-			}
-			else {
-				ro = new RenderObject(so);
-			}
-			dict.put(so.getID().name, ro);
-
+			env.createObject(so);
 		}
 
 		// Pass 2: Create Parent-Children Bindings
 		for(SceneObject so : scene.objects) {
 			if(so.parent != null) {
 				// Get The Child
-				RenderObject o = dict.get(so.getID().name);
+				RenderObject o = env.objects.get(so.getID().name);
 				if(o != null) {
 					// Get The Parent
-					RenderObject p = dict.get(so.parent);
+					RenderObject p = env.objects.get(so.parent);
 					if(p != null) {
 						// Bind Child And Parent
 						p.children.add(o);
 						o.parent = p;
 					}
+					else {
+						// Adopted If The Parent Is Added Later
+						env.waitForParent(o, so.parent);
+					}
 				}
 			}
 		}
 
 		// Pass 3: Find A Root Node If It Exists
-		env.root = dict.get("World");
+		env.root = env.objects.get("World");
+		
+		// Pass 4: Flatten The Tree (Root First, Then Any Detached Nodes)
+		env.rebuildHierarchy();
 		rippleTransformations(env);
 		
 		// Set Up Render State
@@ -112,41 +100,65 @@ public class RenderTreeBuilder {
 	 * The results are stored in the RenderObject.mWorldTransform field of each object
 	 * in the hierarchy.  At the same time, the inverse-transpose matrices, which are used
 	 * in transforming normal vectors, are stored in the RenderObject.mWorldTransformIT.
+	 * Both are computed by a single linear pass over RenderEnvironment.hierarchy, whose
+	 * pre-order layout guarantees each parent is finished before its children.
 	 * 
 	 * Additionally, for all the cameras in the scene (RenderEnvironment.cameras) you must
 	 * recalculate the camera's ViewPerspectiveProjection matrix.
 	 * 
+	 * Any pending dirty flags are consumed, since every object is brought up to date.
+	 * 
 	 * @param env  The environment containing the hierarchy to be processed.
 	 */
 	public static void rippleTransformations(RenderEnvironment env) {
 		// TODO#A3#Part 1
-		for(RenderObject i: env.root.children){
-			//sets the transform matrix
-			i.mWorldTransform.set(i.sceneObject.transformation.clone().mulAfter(env.root.mWorldTransform.clone()));
-			//sets the transformIT matrix
-			i.mWorldTransformIT.set(i.mWorldTransform.clone().invert().transpose().getAxes());
-			//goes through every child of the root
-			if(!i.children.isEmpty()){
-				for(RenderObject child: i.children){
-					//should recursively go through the children of every child object
-					recursiveTreeTransform(child);
-				}
-			}
-		}
+		env.hierarchy.update();
+		env.refitBounds();
 		for(RenderCamera cam: env.cameras){
 			cam.updateCameraMatrix(env.viewportSize);
 		}
+		env.dirtyObjects.clear();
 	}
 	
-	public static void recursiveTreeTransform(RenderObject o){
-		o.mWorldTransform.set(o.sceneObject.transformation.clone().mulAfter(o.parent.mWorldTransform));
-		o.mWorldTransformIT.set(o.mWorldTransform.clone().getAxes().invert().transpose());
-		if(!o.children.isEmpty()){
-			for(RenderObject newChild: o.children){
-				recursiveTreeTransform(newChild);
+	/**
+	 * Recompute the frame-to-world transformations of only those subtrees whose roots were flagged
+	 * through RenderEnvironment.markTransformDirty since the last ripple.
+	 * 
+	 * Structural edits made through RenderEnvironment.addObject, removeObject and reparentObject
+	 * flag the objects they touch, so the same call also finishes those edits.
+	 * 
+	 * A flagged object that has a flagged ancestor is skipped, because the ancestor's subtree
+	 * recomputation already covers it.  Cameras are only updated when they lie inside a recomputed
+	 * subtree, so moving a single object leaves every other camera and branch untouched.
+	 * 
+	 * @param env  The environment containing the hierarchy to be processed.
+	 */
+	public static void rippleDirtyTransformations(RenderEnvironment env) {
+		// Objects May Have Been Inserted, Removed Or Moved Since The Last Flattening
+		env.rebuildHierarchy();
+		
+		// Indexed Loops Avoid Allocating Iterators Every Frame
+		for(int i = 0;i < env.dirtyObjects.size();i++) {
+			RenderObject o = env.dirtyObjects.get(i);
+			
+			// Already Refreshed By An Ancestor, Or Will Be By One Later In The List
+			if(!o.isTransformDirty || hasDirtyAncestor(o)) continue;
+			
+			// Subtrees Are Contiguous In The Flattened Hierarchy
+			env.hierarchy.update(o);
+			env.refitBounds(o);
+			for(int c = 0;c < env.cameras.size();c++){
+				RenderCamera cam = env.cameras.get(c);
+				if(env.hierarchy.contains(o, cam)) cam.updateCameraMatrix(env.viewportSize);
 			}
 		}
-		else{return;}
+		env.dirtyObjects.clear();
+	}
+	private static boolean hasDirtyAncestor(RenderObject o) {
+		for(RenderObject p = o.parent; p != null; p = p.parent) {
+			if(p.isTransformDirty) return true;
+		}
+		return false;
 	}
 
 	/**
@@ -1,154 +1,762 @@
 package gl;
 
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+import org.lwjgl.opengl.ContextCapabilities;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL20;
 
 import egl.BlendState;
 import egl.DepthState;
 import egl.GL;
-import egl.GLProgram;
+import egl.GLBuffer;
+import egl.GLCommandExecutor;
+import egl.GLUtil;
+import egl.GLVertexArray;
 import egl.IDisposable;
-import egl.GL.GLType;
+import egl.NativeMem;
+import egl.GL.BufferTarget;
+import egl.GL.BufferUsageHint;
 import egl.GL.PrimitiveType;
-import egl.GLError;
 import egl.RasterizerState;
+import egl.RecordingCommandExecutor;
+import egl.RenderCommandBuffer;
+import egl.ShaderInterface;
+import egl.math.Frustum;
+import egl.math.Matrix4;
+import egl.math.ScratchStack;
+import ext.java.IntHashSet;
 
 public class Renderer implements IDisposable {
-	private static final Comparator<RenderObject> cmpMesh = new Comparator<RenderObject>() {
-		@Override
-		public int compare(RenderObject arg0, RenderObject arg1) {
-			return Integer.compare(arg0.mesh.vBuffer.getID(), arg1.mesh.vBuffer.getID());
-		}
-	};
-	private static final Comparator<RenderObject> cmpMaterial = new Comparator<RenderObject>(){
-		@Override
-		public int compare(RenderObject arg0, RenderObject arg1) {
-			return Integer.compare(arg0.mesh.vBuffer.getID(), arg1.mesh.vBuffer.getID());
-		}
-	};
-
 	public final PickingProgram pickProgram = new PickingProgram();
 	
-	private static class RenderPass {
+	/**
+	 * A Bucket Of Objects Sharing A Material And A Mesh
+	 */
+	static class RenderPass {
 		public RenderMaterial material;
 		public RenderMesh mesh;
+		/**
+		 * Position Of The Pass In Draw Order (See RenderQueue)
+		 */
+		public long key;
 		public final ArrayList<RenderObject> objects = new ArrayList<>();
 	}
-	private ArrayList<RenderPass> passes = null;
+	/**
+	 * Passes In Draw Order.  Objects Register And Unregister Individually, So The List
+	 * Persists Between Frames And Only Changes Where Objects Change.
+	 */
+	private final ArrayList<RenderPass> passes = new ArrayList<>();
+	/**
+	 * Lookup From Material, Then Mesh, To Their Pass.  Keyed By The Resources Themselves Since Sort
+	 * IDs Are Reused Once A Resource Is Disposed.
+	 */
+	private final HashMap<RenderMaterial, HashMap<RenderMesh, RenderPass>> passLookup = new HashMap<>();
+	/**
+	 * Reused Storage For Sorting Draw Items When Passes Are Rebuilt
+	 */
+	private final RenderQueue queue = new RenderQueue();
+	
+	/**
+	 * Passes With At Least This Many Objects Are Drawn With A Single Instanced Call When Their
+	 * Material Has An Instanced Variant (Set To Integer.MAX_VALUE To Disable Instancing)
+	 */
+	public int instancingThreshold = 4;
+	/**
+	 * Per-Instance Matrices Of The Pass Being Drawn, Streamed Into A Fresh Buffer Store Each Pass
+	 */
+	private final GLBuffer instanceBuffer = new GLBuffer(BufferTarget.ArrayBuffer, BufferUsageHint.StreamDraw, false)
+			.setAsVertex(RenderMaterial.INSTANCE_SIZE);
+	/**
+	 * Submit Each Run Of Passes Sharing A Material As One Indirect Multi-Draw (Where Supported)
+	 */
+	public boolean useMultiDrawIndirect = true;
+	/**
+	 * Size In Bytes Of One Indirect Command (count, instanceCount, firstIndex, baseVertex, baseInstance)
+	 */
+	private static final int COMMAND_SIZE = 5 * 4;
+	/**
+	 * Indirect Commands Of The Bucket Being Drawn, Streamed Into A Fresh Buffer Store Each Bucket
+	 */
+	private final GLBuffer indirectBuffer = new GLBuffer(BufferTarget.DrawIndirectBuffer, BufferUsageHint.StreamDraw, false);
+	/**
+	 * Camera And Lights Of The Frame, Shared By Every Material That Reads The Block
+	 */
+	private final FrameUniformBlock frameBlock = new FrameUniformBlock();
+	/**
+	 * Commands Setting Up The Frame, Replayed Before The Commands Of The Passes
+	 */
+	private final RenderCommandBuffer frameCommands = new RenderCommandBuffer();
+	/**
+	 * Encoders Of The Last Frame's Passes (One For Small Frames, One Per Chunk Otherwise) And Of Picking
+	 */
+	private final ArrayList<Encoder> encoders = new ArrayList<>();
+	private int encoderCount = 0;
+	private final Encoder pickEncoder = new Encoder();
+	private final GLCommandExecutor executor = new GLCommandExecutor();
+	
+	/**
+	 * Encode The Passes Of Large Frames On Multiple Threads, Each Writing Its Own Commands.
+	 * The Commands Are Still Replayed Into The Context On The Drawing Thread.
+	 */
+	public boolean isParallel = true;
+	/**
+	 * Frames With At Most This Many Objects Are Encoded Serially; Larger Ones Are Split Into Chunks
+	 * Of Consecutive Passes Holding About This Many Objects
+	 */
+	public int parallelThreshold = 4096;
+	
+	/**
+	 * Draw Each Pass By Binding One Vertex Array Cached On Its Mesh, Instead Of Setting Every Attribute
+	 * (Only Where Vertex Arrays Are Supported)
+	 */
+	public boolean useVertexArrays = true;
+	/**
+	 * Parameters Of The Frame Being Encoded, Set On The Drawing Thread And Only Read By Encoders.
+	 * Features Are Decided Here Too, As Other Threads Have No Context To Ask.
+	 */
+	private RenderCamera frameCamera;
+	private ArrayList<RenderLight> frameLights;
+	private int frameLightCount;
+	private float frameTime;
+	private boolean isFrameTimed, isUsingVertexArrays, isMultiDrawing;
+	/**
+	 * True When The Frame Is Replayed To The Context Right Away, So Uniform Handles May Skip
+	 * Values Their Programs Hold
+	 */
+	private boolean isFrameSkippingUniforms;
+	
+	/**
+	 * Skip Objects Whose World Bounds Lie Outside The Camera's View Frustum
+	 */
+	public boolean isCulling = true;
+	/**
+	 * Half Size (In Pixels, Excluding The Center) Of The Square Drawn By A Scissored Picking Pass
+	 */
+	public int pickRadius = 1;
+	/**
+	 * Objects Drawn And Objects Skipped By Culling During The Last Draw
+	 */
+	public int visibleCount = 0, culledCount = 0;
+	/**
+	 * Draw Calls Issued During The Last Draw (An Indirect Multi-Draw Counts Once)
+	 */
+	public int drawCallCount = 0;
+	/**
+	 * Bounds Tree Of The Drawn Environment, Which Lets Culling Reject Or Accept Whole Regions At Once
+	 * (Null To Test Every Object Separately)
+	 */
+	public DynamicBVH bounds = null;
+	private final Frustum frustum = new Frustum();
+	/**
+	 * Incremented Whenever A Frustum Is Set; Objects Found Inside It Are Stamped With The Value
+	 */
+	private int frame = 0;
+	/**
+	 * Reused List Of The Objects The Bounds Tree Finds Inside The Frustum
+	 */
+	private final ArrayList<RenderObject> found = new ArrayList<>();
 	
 	@Override
 	public void dispose() {
 		pickProgram.dispose();
+		instanceBuffer.dispose();
+		indirectBuffer.dispose();
+		frameBlock.dispose();
 	}
 	
+	/**
+	 * Rebuild Every Pass From The Objects Below The Root.
+	 * Only Needed When The Whole Scene Is Replaced; Use addObject, removeObject And updateObject Otherwise.
+	 * @param root Root Of The Render Tree
+	 */
 	public void buildPasses(RenderObject root) {
-		// Create An Array Of Objects To Draw From The Root
-		ArrayList<RenderObject> objs = new ArrayList<>();
-		addToDrawList(root, objs);
-
-		// Sort To Allow For Following Ordering: For Each Material, For Each Mesh
-		Collections.sort(objs, cmpMesh);
-		Collections.sort(objs, cmpMaterial);
+		for(RenderPass p : passes) {
+			for(RenderObject ro : p.objects) {
+				ro.pass = null;
+				ro.passIndex = -1;
+			}
+		}
+		passes.clear();
+		passLookup.clear();
+		
+		// Queue Every Drawable Object In Pre-Order Without Recursing (Chains Can Be Very Deep)
+		queue.clear();
+		ArrayList<RenderObject> stack = new ArrayList<>();
+		stack.add(root);
+		while(!stack.isEmpty()) {
+			RenderObject ro = stack.remove(stack.size() - 1);
+			if(ro.mesh != null && ro.material != null) queue.add(ro, createSortKey(ro));
+			for(int c = ro.children.size() - 1;c >= 0;c--) {
+				stack.add(ro.children.get(c));
+			}
+		}
 
-		// Add Objects To Render Passes
-		passes = new ArrayList<>();
-		RenderPass curPass = new RenderPass();
-		for(RenderObject ro : objs) {
-			if(ro.mesh != curPass.mesh || ro.material != curPass.material) {
-				curPass = new RenderPass();
-				curPass.material = ro.material;
-				curPass.mesh = ro.mesh;
-				passes.add(curPass);
+		// Sort To Allow For Following Ordering: For Each Program, For Each Material, For Each Mesh
+		// (Passes Are Then Created In Order, So Each One Is Appended)
+		queue.sort();
+		for(int i = 0;i < queue.size();i++) {
+			addObject(queue.get(i));
+		}
+		queue.clear();
+	}
+	/**
+	 * Build The Render Queue Key Of An Opaque Object (Depth Is Left Unused)
+	 * @param ro Object With Linked Mesh And Material
+	 * @return Sort Key
+	 */
+	public static long createSortKey(RenderObject ro) {
+		return RenderQueue.createKey(RenderQueue.LAYER_OPAQUE, ro.material.program.getID(), ro.material.sortID, ro.mesh.sortID, 0);
+	}
+	/**
+	 * Register An Object's Draw Item In The Pass Of Its Current Mesh And Material.
+	 * Objects Without A Mesh Or Material Are Not Drawn.
+	 * @param ro Object To Draw (Must Not Already Be Registered)
+	 */
+	public void addObject(RenderObject ro) {
+		if(ro.pass != null || ro.mesh == null || ro.material == null) return;
+		HashMap<RenderMesh, RenderPass> meshPasses = passLookup.get(ro.material);
+		if(meshPasses == null) {
+			meshPasses = new HashMap<>();
+			passLookup.put(ro.material, meshPasses);
+		}
+		RenderPass pass = meshPasses.get(ro.mesh);
+		if(pass == null) {
+			pass = new RenderPass();
+			pass.material = ro.material;
+			pass.mesh = ro.mesh;
+			pass.key = createSortKey(ro);
+			meshPasses.put(ro.mesh, pass);
+			
+			// Keep Passes Ordered By Key (After Any Passes With An Equal Key)
+			int lo = 0, hi = passes.size();
+			while(lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if(Long.compareUnsigned(passes.get(mid).key, pass.key) <= 0) lo = mid + 1;
+				else hi = mid;
 			}
-			curPass.objects.add(ro);
+			passes.add(lo, pass);
 		}
+		ro.pass = pass;
+		ro.passIndex = pass.objects.size();
+		pass.objects.add(ro);
 	}
-	private void addToDrawList(RenderObject ro, ArrayList<RenderObject> objs) {
-		if(ro.mesh != null && ro.material != null) objs.add(ro);
-		for(RenderObject c : ro.children) {
-			addToDrawList(c, objs);
+	/**
+	 * Unregister An Object's Draw Item, Dropping Its Pass If It Becomes Empty
+	 * @param ro Object To Stop Drawing (Its Mesh And Material May Have Changed Since It Was Added)
+	 */
+	public void removeObject(RenderObject ro) {
+		RenderPass pass = ro.pass;
+		if(pass == null) return;
+		
+		// Swap With The Last Object So That Removal Is Constant Time
+		int last = pass.objects.size() - 1;
+		RenderObject moved = pass.objects.get(last);
+		pass.objects.set(ro.passIndex, moved);
+		moved.passIndex = ro.passIndex;
+		pass.objects.remove(last);
+		ro.pass = null;
+		ro.passIndex = -1;
+		
+		if(pass.objects.isEmpty()) {
+			passes.remove(pass);
+			HashMap<RenderMesh, RenderPass> meshPasses = passLookup.get(pass.material);
+			meshPasses.remove(pass.mesh);
+			if(meshPasses.isEmpty()) passLookup.remove(pass.material);
 		}
 	}
+	/**
+	 * Move An Object To The Pass Of Its Current Mesh And Material
+	 * @param ro Object Whose Mesh Or Material Changed
+	 */
+	public void updateObject(RenderObject ro) {
+		RenderPass pass = ro.pass;
+		if(pass != null && pass.mesh == ro.mesh && pass.material == ro.material) return;
+		removeObject(ro);
+		addObject(ro);
+	}
 
 	public void draw(RenderCamera camera, ArrayList<RenderLight> lights) {
 		draw(camera, lights, 0.0f);
 	}
 	
 	public void draw(RenderCamera camera, ArrayList<RenderLight> lights, float time) {
-		DepthState.DEFAULT.set();
-		BlendState.OPAQUE.set();
-		RasterizerState.CULL_CLOCKWISE.set();
-		
+		encode(camera, lights, time, true, RasterizerState.CULL_CLOCKWISE, true);
+		replay(executor);
+	}
+	
+	public void draw(RenderCamera camera, ArrayList<RenderLight> lights, RasterizerState rs) {
+		encode(camera, lights, 0.0f, false, rs != null ? rs : RasterizerState.CULL_CLOCKWISE, true);
+		encoders.get(encoderCount - 1).commands.useProgram(null);
+		replay(executor);
+	}
+	/**
+	 * Write The Commands Of A Frame Instead Of Drawing It.  Without A Context This Makes No
+	 * OpenGL Calls (Features Needing One Are Left Unused), So Whole Frames Can Be Recorded And
+	 * Checked Headless, For Instance With A {@link RecordingCommandExecutor}.  Every uniform is
+	 * written out and the uniform handles of the drawn materials are reset, since nothing says
+	 * whether or when the commands reach the context.
+	 * @param cb Commands To Append To (They May Be Replayed Any Number Of Times, Or Never)
+	 * @param camera Camera
+	 * @param lights Lights (Up To 16 Are Used)
+	 * @param time Animation Time
+	 */
+	public void record(RenderCommandBuffer cb, RenderCamera camera, ArrayList<RenderLight> lights, float time) {
+		encode(camera, lights, time, true, RasterizerState.CULL_CLOCKWISE, false);
+		invalidateUniformHandles();
+		cb.append(frameCommands);
+		for(int i = 0;i < encoderCount;i++) cb.append(encoders.get(i).commands);
+	}
+	/**
+	 * Send The Encoded Frame To An Executor: The Frame Setup, Then Each Chunk In Pass Order
+	 */
+	private void replay(RenderCommandBuffer.IExecutor e) {
+		frameCommands.replay(e);
+		for(int i = 0;i < encoderCount;i++) encoders.get(i).commands.replay(e);
+	}
+	/**
+	 * Write The Frame Setup And The Draws Of Every Pass That Survives Culling, Splitting The
+	 * Passes Among Threads When There Are More Than {@link #parallelThreshold} Objects
+	 * @param camera Camera
+	 * @param lights Lights (Up To 16 Are Used)
+	 * @param time Animation Time
+	 * @param isTimed True To Send The Time To Materials
+	 * @param rs Rasterizer State Of The Passes
+	 * @param isReplayedNow True When The Frame Goes To The Context Before Anything Else Is Encoded
+	 */
+	private void encode(RenderCamera camera, ArrayList<RenderLight> lights, float time, boolean isTimed, RasterizerState rs, boolean isReplayedNow) {
 		// Draw Up To 16 Lights
 		int cc = lights.size() > 16 ? 16 : lights.size();
-
-		RenderMaterial material = null;
-		RenderMesh mesh = null;
-		for(RenderPass p : passes) {
-			if(material != p.material) {
-				material = p.material;
-				material.program.use();
-				material.useMaterialProperties();
-				material.useCameraAndLights(camera, lights, 0, cc);
-				material.useTime(time);
-			}
-			if(mesh != p.mesh) {
-				if(mesh != null) mesh.iBuffer.unbind();
-				mesh = p.mesh;
-				mesh.iBuffer.bind();
-			}
-
-			mesh.vBuffer.useAsAttrib(material.shaderInterface);
-			mesh.vBufferTangentSpace.useAsAttrib(material.shaderInterfaceTangentSpace);
-			if(mesh.vBufferSkinned.getIsCreated()) {
-				mesh.vBufferSkinned.useAsAttrib(material.shaderInterfaceSkinned);
+		frameCommands.reset();
+		frameCommands.setDepthState(DepthState.DEFAULT);
+		frameCommands.setBlendState(BlendState.OPAQUE);
+		frameCommands.setRasterizerState(rs);
+		frameBlock.update(frameCommands, camera, lights, 0, cc);
+		
+		frameCamera = camera;
+		frameLights = lights;
+		frameLightCount = cc;
+		frameTime = time;
+		isFrameTimed = isTimed;
+		isFrameSkippingUniforms = isReplayedNow;
+		isUsingVertexArrays = useVertexArrays && GLVertexArray.isSupported();
+		isMultiDrawing = useMultiDrawIndirect && isMultiDrawSupported();
+		beginCulling(camera);
+		
+		int objectCount = 0;
+		for(RenderPass p : passes) objectCount += p.objects.size();
+		if(isParallel && objectCount > parallelThreshold) {
+			encodeParallel();
+		}
+		else {
+			encoderCount = 1;
+			getEncoder(0).encode(0, passes.size(), false);
+		}
+		
+		visibleCount = 0;
+		culledCount = 0;
+		drawCallCount = 0;
+		for(int i = 0;i < encoderCount;i++) {
+			Encoder e = encoders.get(i);
+			visibleCount += e.visibleCount;
+			culledCount += e.culledCount;
+			drawCallCount += e.drawCallCount;
+		}
+	}
+	private Encoder getEncoder(int i) {
+		while(encoders.size() <= i) encoders.add(new Encoder());
+		return encoders.get(i);
+	}
+	/**
+	 * Split The Passes Into Chunks Of About {@link #parallelThreshold} Objects And Encode Them
+	 * On The Common ForkJoinPool
+	 */
+	private void encodeParallel() {
+		// Vertex Arrays Are Recorded On First Use, Which Needs The Context, So Make Sure They Exist
+		if(isUsingVertexArrays) {
+			for(RenderPass p : passes) {
+				getVertexArray(p.mesh, p.material);
+				if(p.material.instanced != null) getVertexArray(p.mesh, p.material.instanced);
 			}
-			for(RenderObject ro : p.objects) {
-				material.useObject(ro);
-				GL11.glDrawElements(PrimitiveType.Triangles, mesh.indexCount, GLType.UnsignedInt, 0);
-				GLError.get("Draw");
+			GLVertexArray.unbind();
+		}
+		
+		// Chunks Only End Between Buckets, So Each Bucket Stays One Multi-Draw
+		encoderCount = 0;
+		int start = 0, objects = 0;
+		for(int i = 0;i < passes.size();i++) {
+			RenderPass p = passes.get(i);
+			objects += p.objects.size();
+			if(i + 1 < passes.size()) {
+				RenderPass next = passes.get(i + 1);
+				boolean isInBucket = isMultiDrawing && canMultiDraw(p) && next.material == p.material && canMultiDraw(next);
+				if(objects < parallelThreshold || isInBucket) continue;
 			}
+			Encoder e = getEncoder(encoderCount++);
+			e.start = start;
+			e.end = i + 1;
+			start = i + 1;
+			objects = 0;
+		}
+		ForkJoinPool.commonPool().invoke(new EncodeTask(0, encoderCount));
+		
+		// Uniforms Were Written Past Their Handles, Which No Longer Know What The Programs Hold
+		invalidateUniformHandles();
+	}
+	/**
+	 * Make The Uniform Handles Of Every Pass's Material Forget The Values Their Programs Hold
+	 */
+	private void invalidateUniformHandles() {
+		RenderMaterial last = null;
+		for(RenderPass p : passes) {
+			if(p.material == last) continue;
+			last = p.material;
+			last.program.invalidateUniformHandles();
+			if(last.instanced != null) last.instanced.program.invalidateUniformHandles();
 		}
 	}
+	private static void getVertexArray(RenderMesh mesh, RenderMaterial material) {
+		mesh.getVertexArray(material.shaderInterface, material.shaderInterfaceTangentSpace, material.shaderInterfaceSkinned);
+	}
 	
-	public void draw(RenderCamera camera, ArrayList<RenderLight> lights, RasterizerState rs) {
-		DepthState.DEFAULT.set();
-		BlendState.OPAQUE.set();
-		if(rs != null)
-			rs.set();
-		else
-			RasterizerState.CULL_CLOCKWISE.set();
+	/**
+	 * Set The Frustum For The Following Passes And Mark The Objects The Bounds Tree Finds Inside It
+	 * @param camera Camera Whose View Is Culled Against
+	 */
+	private void beginCulling(RenderCamera camera) {
+		beginCulling(camera.mViewProjection);
+	}
+	private void beginCulling(Matrix4 viewProjection) {
+		frustum.set(viewProjection);
+		frame++;
+		if(!isCulling || bounds == null) return;
+		found.clear();
+		bounds.query(frustum, found);
+		for(int i = 0;i < found.size();i++) {
+			found.get(i).visibleFrame = frame;
+		}
+		found.clear();
+	}
+	/**
+	 * Choose Between A Pass's Material And Its Instanced Variant
+	 * @param p Pass To Draw
+	 * @param count Number Of Objects To Draw
+	 * @return The Material To Draw The Pass With
+	 */
+	private RenderMaterial selectMaterial(RenderPass p, int count) {
+		// Skinned Meshes Keep Their Per-Object Path
+		if(count < instancingThreshold || p.material.instanced == null || p.mesh.vBufferSkinned.getIsCreated()) {
+			return p.material;
+		}
+		return p.material.instanced;
+	}
+	
+	/**
+	 * @return True If The Context Can Draw A Bucket With One Indirect Multi-Draw
+	 * (Which Also Needs The Shared Geometry Arena And Per-Instance Base Offsets)
+	 */
+	public static boolean isMultiDrawSupported() {
+		ContextCapabilities caps = GLUtil.getCapabilities();
+		return caps != null && caps.OpenGL43 && GeometryArena.isSupported() && GLVertexArray.isSupported();
+	}
+	/**
+	 * A Pass Joins Its Material's Bucket When Its Mesh Shares The Arena's Buffers And Its
+	 * Material Can Read World Matrices Per Instance
+	 */
+	private static boolean canMultiDraw(RenderPass p) {
+		return p.material.instanced != null && p.mesh.allocation != null && !p.mesh.vBufferSkinned.getIsCreated();
+	}
+	
+	/**
+	 * Writes The Commands Of A Run Of Passes Into Its Own Buffer, With Its Own Scratch Storage And
+	 * Bindings, So Encoders Of Different Runs Can Work At Once.  Encoders Only Read The Passes,
+	 * The Frame Parameters, And The Objects' Matrices.
+	 */
+	private class Encoder {
+		public final RenderCommandBuffer commands = new RenderCommandBuffer();
+		/**
+		 * Passes [start, end) Of A Chunk
+		 */
+		public int start, end;
+		/**
+		 * Counts Of The Last Encoding (See The Renderer's Own)
+		 */
+		public int visibleCount, culledCount, drawCallCount;
 		
-		// Draw Up To 16 Lights
-		int cc = lights.size() > 16 ? 16 : lights.size();
-
-		RenderMaterial material = null;
-		RenderMesh mesh = null;
-		for(RenderPass p : passes) {
-			if(material != p.material) {
-				material = p.material;
-				material.program.use();
-				material.useMaterialProperties();
-				material.useCameraAndLights(camera, lights, 0, cc);
+		private ByteBuffer instanceData = null;
+		private FloatBuffer instanceFloats = null;
+		private ByteBuffer indirectData = null;
+		private IntBuffer indirectInts = null;
+		/**
+		 * Number Of Instances Packed For The Bucket Being Drawn
+		 */
+		private int bucketInstanceCount = 0;
+		/**
+		 * Mesh Whose Buffers Feed The Current Pass, Or Its Vertex Array When Vertex Arrays Are Used
+		 */
+		private RenderMesh boundMesh = null;
+		private GLVertexArray boundArray = null;
+		/**
+		 * Reused List Of The Objects Of One Pass That Survive Culling
+		 */
+		private final ArrayList<RenderObject> visible = new ArrayList<>();
+		/**
+		 * Scratch For Packing Light Arrays, So Encoders Never Share Material State
+		 */
+		private final FloatBuffer lightData = NativeMem.createFloatBuffer(16 * 3);
+		
+		/**
+		 * Rewrite The Commands With The Draws Of A Run Of Passes
+		 * @param start First Pass
+		 * @param end Pass After The Last
+		 * @param isConcurrent True When Other Encoders Run At The Same Time
+		 */
+		public void encode(int start, int end, boolean isConcurrent) {
+			RenderCommandBuffer cb = commands;
+			cb.reset();
+			cb.isSkippingRedundantUniforms = isFrameSkippingUniforms && !isConcurrent;
+			visibleCount = 0;
+			culledCount = 0;
+			drawCallCount = 0;
+			
+			RenderMaterial material = null;
+			int i = start;
+			while(i < end) {
+				RenderPass p = passes.get(i);
+				
+				// Passes Are Sorted By Material, So A Bucket Is A Run Of Consecutive Passes
+				if(isMultiDrawing && canMultiDraw(p)) {
+					int bucketEnd = i + 1;
+					while(bucketEnd < end && passes.get(bucketEnd).material == p.material && canMultiDraw(passes.get(bucketEnd))) bucketEnd++;
+					int commandCount = writeBucket(i, bucketEnd);
+					i = bucketEnd;
+					if(commandCount == 0) continue;
+					
+					RenderMaterial m = p.material.instanced;
+					if(material != m) {
+						material = m;
+						useMaterial(material);
+					}
+					useMesh(p.mesh, material.shaderInterface, material.shaderInterfaceTangentSpace, material.shaderInterfaceSkinned);
+					drawBucket(material, commandCount);
+					continue;
+				}
+				i++;
+				
+				ArrayList<RenderObject> objects = cull(p, true);
+				if(objects.isEmpty()) continue;
+				
+				RenderMaterial m = selectMaterial(p, objects.size());
+				if(material != m) {
+					material = m;
+					useMaterial(material);
+				}
+				useMesh(p.mesh, material.shaderInterface, material.shaderInterfaceTangentSpace, material.shaderInterfaceSkinned);
+				drawObjects(p, material, objects);
 			}
-			if(mesh != p.mesh) {
-				if(mesh != null) mesh.iBuffer.unbind();
-				mesh = p.mesh;
-				mesh.iBuffer.bind();
+			endMeshes();
+		}
+		public void encode(boolean isConcurrent) {
+			encode(start, end, isConcurrent);
+		}
+		private void useMaterial(RenderMaterial material) {
+			commands.useProgram(material.program);
+			material.useMaterialProperties(commands);
+			material.useCameraAndLights(commands, frameCamera, frameLights, 0, frameLightCount, lightData);
+			if(isFrameTimed) material.useTime(commands, frameTime);
+		}
+		
+		/**
+		 * Collect The Objects Of A Pass That May Be Inside The Current Frustum
+		 * @param p Pass To Draw
+		 * @param isCounted Add The Results To visibleCount And culledCount
+		 * @return The Objects To Draw (The Pass's Own List When Culling Is Off, Otherwise Reused Between Calls)
+		 */
+		public ArrayList<RenderObject> cull(RenderPass p, boolean isCounted) {
+			ArrayList<RenderObject> objects = p.objects;
+			if(isCulling) {
+				visible.clear();
+				for(RenderObject ro : p.objects) {
+					// Objects Outside The Tree (Or Without One) Are Tested On Their Own
+					boolean isVisible = bounds != null && ro.boundsNode >= 0 ?
+							ro.visibleFrame == frame :
+							frustum.intersects(ro.worldBoundsMin, ro.worldBoundsMax);
+					if(isVisible) visible.add(ro);
+				}
+				objects = visible;
 			}
-
-			mesh.vBuffer.useAsAttrib(material.shaderInterface);
-			for(RenderObject ro : p.objects) {
-				material.useObject(ro);
-				GL11.glDrawElements(PrimitiveType.Triangles, mesh.indexCount, GLType.UnsignedInt, 0);
-				GLError.get("Draw");
+			if(isCounted) {
+				visibleCount += objects.size();
+				culledCount += p.objects.size() - objects.size();
+			}
+			return objects;
+		}
+		/**
+		 * Feed A Mesh's Buffers To The Bound Program, Through The Mesh's Cached Vertex Array When Supported
+		 * @param mesh Mesh Of The Pass
+		 * @param si Inputs Of The Main Vertex Buffer
+		 * @param siTangentSpace Inputs Of The Tangent Space Buffer (Or Null)
+		 * @param siSkinned Inputs Of The Skinning Buffer (Or Null)
+		 */
+		public void useMesh(RenderMesh mesh, ShaderInterface si, ShaderInterface siTangentSpace, ShaderInterface siSkinned) {
+			if(isUsingVertexArrays) {
+				GLVertexArray va = mesh.getVertexArray(si, siTangentSpace, siSkinned);
+				if(boundArray != va) {
+					boundArray = va;
+					commands.bindVertexArray(va);
+				}
+				return;
+			}
+			
+			if(boundMesh != mesh) {
+				boundMesh = mesh;
+				commands.bindIndexBuffer(mesh.getIndexBuffer());
+			}
+			commands.useAttributes(mesh.getVertexBuffer(), si, 0);
+			if(siTangentSpace != null) commands.useAttributes(mesh.getTangentSpaceBuffer(), siTangentSpace, 0);
+			if(siSkinned != null && mesh.vBufferSkinned.getIsCreated()) commands.useAttributes(mesh.vBufferSkinned, siSkinned, 0);
+		}
+		/**
+		 * Return To The Default Vertex Array After A Loop Over Passes
+		 */
+		public void endMeshes() {
+			if(boundArray != null) commands.bindVertexArray(null);
+			boundArray = null;
+			boundMesh = null;
+		}
+		/**
+		 * Draw The Objects Of A Pass Once The Program And Mesh Buffers Are Bound
+		 * @param p Pass To Draw
+		 * @param material The Pass's Material Or Its Instanced Variant
+		 * @param objects The Pass's Objects That Survived Culling
+		 */
+		private void drawObjects(RenderPass p, RenderMaterial material, ArrayList<RenderObject> objects) {
+			RenderMesh mesh = p.mesh;
+			if(material == p.material) {
+				for(RenderObject ro : objects) {
+					material.useObject(commands, ro);
+					mesh.draw(commands);
+					drawCallCount++;
+				}
+				return;
+			}
+			
+			// Pack Each Object's World Matrices As One Instance
+			int count = objects.size();
+			reserveInstances(count);
+			instanceFloats.clear();
+			putInstances(objects);
+			uploadInstances(count, material);
+			
+			mesh.drawInstanced(commands, count);
+			drawCallCount++;
+			commands.unuseAttributes(material.shaderInterfaceInstance);
+		}
+		private void reserveInstances(int count) {
+			int bytes = count * RenderMaterial.INSTANCE_SIZE;
+			if(instanceData == null || instanceData.capacity() < bytes) {
+				instanceData = NativeMem.createByteBuffer(bytes * 2);
+				instanceFloats = instanceData.asFloatBuffer();
+			}
+		}
+		private void putInstances(ArrayList<RenderObject> objects) {
+			for(RenderObject ro : objects) {
+				instanceFloats.put(ro.mWorldTransform.m);
+				instanceFloats.put(ro.mWorldTransformIT.m);
+			}
+		}
+		/**
+		 * Send The Packed Instances And Feed Them To An Instanced Material's Per-Instance Inputs
+		 */
+		private void uploadInstances(int count, RenderMaterial material) {
+			instanceData.position(0);
+			instanceData.limit(count * RenderMaterial.INSTANCE_SIZE);
+			commands.setBufferData(instanceBuffer, instanceData);
+			commands.useAttributes(instanceBuffer, material.shaderInterfaceInstance, 1);
+		}
+		
+		/**
+		 * Cull A Bucket Of Passes, Packing The Visible Objects' Matrices As Instances And Writing One
+		 * Command Per Pass That Draws Its Objects As Consecutive Instances
+		 * @param start First Pass
+		 * @param end Pass After The Last
+		 * @return Number Of Commands Written
+		 */
+		private int writeBucket(int start, int end) {
+			int maxInstances = 0;
+			for(int i = start;i < end;i++) maxInstances += passes.get(i).objects.size();
+			reserveInstances(maxInstances);
+			int bytes = (end - start) * COMMAND_SIZE;
+			if(indirectData == null || indirectData.capacity() < bytes) {
+				indirectData = NativeMem.createByteBuffer(bytes * 2);
+				indirectInts = indirectData.asIntBuffer();
 			}
+			instanceFloats.clear();
+			indirectInts.clear();
+			
+			int instanceCount = 0, commandCount = 0;
+			for(int i = start;i < end;i++) {
+				RenderPass p = passes.get(i);
+				ArrayList<RenderObject> objects = cull(p, true);
+				if(objects.isEmpty()) continue;
+				
+				GeometryArena.Allocation a = p.mesh.allocation;
+				indirectInts.put(a.indexCount);
+				indirectInts.put(objects.size());
+				indirectInts.put(a.firstIndex);
+				indirectInts.put(a.baseVertex);
+				indirectInts.put(instanceCount);
+				putInstances(objects);
+				instanceCount += objects.size();
+				commandCount++;
+			}
+			bucketInstanceCount = instanceCount;
+			return commandCount;
+		}
+		/**
+		 * Issue The Commands Of A Bucket Once Its Instanced Material And The Arena's Vertex Array Are Bound
+		 * @param material Instanced Material
+		 * @param commandCount Number Of Commands Written By {@link #writeBucket(int, int)}
+		 */
+		private void drawBucket(RenderMaterial material, int commandCount) {
+			uploadInstances(bucketInstanceCount, material);
+			
+			indirectData.position(0);
+			indirectData.limit(commandCount * COMMAND_SIZE);
+			commands.setBufferData(indirectBuffer, indirectData);
+			commands.multiDrawElements(indirectBuffer, PrimitiveType.Triangles, commandCount);
+			drawCallCount++;
+			commands.unuseAttributes(material.shaderInterfaceInstance);
+		}
+	}
+	/**
+	 * Fork/Join Task Over A Range Of Chunk Encoders
+	 */
+	private class EncodeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final int start, end;
+		
+		EncodeTask(int s, int e) {
+			start = s;
+			end = e;
+		}
+		
+		@Override
+		protected void compute() {
+			if(end - start == 1) {
+				encoders.get(start).encode(true);
+				return;
+			}
+			int mid = (start + end) >>> 1;
+			invokeAll(new EncodeTask(start, mid), new EncodeTask(mid, end));
 		}
-		GLProgram.unuse();
 	}
 
 	public void beginPickingPass(RenderCamera camera) {
@@ -160,26 +768,101 @@ public class Renderer implements IDisposable {
 		BlendState.OPAQUE.set();
 		RasterizerState.CULL_CLOCKWISE.set();
 		
-		pickProgram.use(camera.mViewProjection);		
+		pickProgram.use(camera.mViewProjection);
+		beginCulling(camera);
+	}
+	/**
+	 * Begin A Picking Pass That Only Draws The Pixels Within {@link #pickRadius} Of A Cursor.
+	 * Finish With {@link #endPickingPass()}.
+	 * @param camera Camera
+	 * @param x Cursor Pixel X
+	 * @param y Cursor Pixel Y
+	 */
+	public void beginPickingPass(RenderCamera camera, int x, int y) {
+		int size = 2 * pickRadius + 1;
+		beginPickingPass(camera, x - pickRadius, y - pickRadius, size, size);
+	}
+	/**
+	 * Begin A Picking Pass That Only Draws A Rectangle Of Pixels.  Clearing And Shading Are
+	 * Scissored To The Rectangle, And Objects Are Culled Against The Narrow Frustum Through It.
+	 * Finish With {@link #endPickingPass()}.
+	 * @param camera Camera
+	 * @param x Left Pixel
+	 * @param y Bottom Pixel
+	 * @param w Width In Pixels
+	 * @param h Height In Pixels
+	 */
+	public void beginPickingPass(RenderCamera camera, int x, int y, int w, int h) {
+		GL11.glScissor(x, y, w, h);
+		GL11.glEnable(GL11.GL_SCISSOR_TEST);
+		
+		GL11.glClearColor(1.0f, 1.0f, 1.0f, 1.0f);
+		GL11.glClearDepth(1.0);
+		GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
+		
+		DepthState.DEFAULT.set();
+		BlendState.OPAQUE.set();
+		RasterizerState.CULL_CLOCKWISE.set();
+		
+		pickProgram.use(camera.mViewProjection);
+		
+		// Stretch The Rectangle To The Whole Clip Volume, So The Frustum Only Contains What Is Inside It
+		float hx = w / camera.viewportSize.x, hy = h / camera.viewportSize.y;
+		float cx = (x + w * 0.5f) * 2 / camera.viewportSize.x - 1, cy = (y + h * 0.5f) * 2 / camera.viewportSize.y - 1;
+		Matrix4 mPick = ScratchStack.get().pushMatrix4();
+		mPick.set(
+				1 / hx, 0, 0, -cx / hx,
+				0, 1 / hy, 0, -cy / hy,
+				0, 0, 1, 0,
+				0, 0, 0, 1
+				);
+		beginCulling(mPick.mulBefore(camera.mViewProjection));
+		ScratchStack.get().popMatrix4(1);
+	}
+	/**
+	 * Restore State Changed By {@link #beginPickingPass(RenderCamera, int, int)}
+	 */
+	public void endPickingPass() {
+		GL11.glDisable(GL11.GL_SCISSOR_TEST);
 	}
 	public void drawPassesPick() {
-		RenderMesh mesh = null;
+		RenderCommandBuffer cb = pickEncoder.commands;
+		cb.reset();
 		for(RenderPass p : passes) {
-			if(mesh != p.mesh) {
-				if(mesh != null) mesh.iBuffer.unbind();
-				mesh = p.mesh;
-				mesh.iBuffer.bind();
+			ArrayList<RenderObject> objects = pickEncoder.cull(p, false);
+			if(objects.isEmpty()) continue;
+			
+			pickEncoder.useMesh(p.mesh, pickProgram.fxsi, null, null);
+			for(RenderObject ro : objects) {
+				pickProgram.setObject(cb, ro.mWorldTransform, ro.sceneObject.getID().id);
+				p.mesh.draw(cb);
 			}
-
-			mesh.vBuffer.useAsAttrib(pickProgram.fxsi);
-			for(RenderObject ro : p.objects) {
-				pickProgram.setObject(ro.mWorldTransform, ro.sceneObject.getID().id);
-				GL11.glDrawElements(PrimitiveType.Triangles, mesh.indexCount, GLType.UnsignedInt, 0);
-			}
-		}		
+		}
+		pickEncoder.endMeshes();
+		cb.replay(executor);
 	}
 	public int getPickID(int x, int y) {
 		int id = pickProgram.getID(x, y);
 		return id;
 	}
+	/**
+	 * Read Every ID Drawn In A Rectangle
+	 * @see PickingProgram#getIDs(int, int, int, int, IntHashSet)
+	 */
+	public void getPickIDs(int x, int y, int w, int h, IntHashSet out) {
+		pickProgram.getIDs(x, y, w, h, out);
+	}
+	/**
+	 * Queue An Asynchronous Read Of The Picked ID At A Pixel
+	 * @see PickingProgram#requestID(int, int, PickingProgram.IPickCallback)
+	 */
+	public void requestPickID(int x, int y, PickingProgram.IPickCallback cb) {
+		pickProgram.requestID(x, y, cb);
+	}
+	/**
+	 * Deliver Picked IDs Whose Reads Have Had Time To Finish.  Call Once Per Frame.
+	 */
+	public void resolvePicks() {
+		pickProgram.resolve();
+	}
 }
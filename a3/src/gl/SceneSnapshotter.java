@@ -0,0 +1,228 @@
+package gl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import common.Scene;
+import common.SceneObject;
+import common.event.SceneEvent;
+import common.event.SceneEventQueue;
+import common.event.SceneTransformationEvent;
+import ext.java.TripleBuffer;
+
+/**
+ * Collects The Local Transformations Of Scene Objects On Its Own Thread At A Fixed Rate, And
+ * Publishes Them As {@link TransformSnapshot}s Through A {@link TripleBuffer}.
+ *
+ * Editors publish each change themselves: a SceneTransformationEvent carries a copy of the matrix
+ * taken by the editing thread, and this thread only drains those events into the next snapshot.
+ * Nobody locks a matrix, and the render thread, which applies the latest snapshot with
+ * {@link #apply(RenderEnvironment)}, never reads SceneObject.transformation while it is edited.
+ *
+ * Only transformations are snapshotted; the scene has no per-object visibility, and culling
+ * stays on the render thread.
+ */
+public class SceneSnapshotter implements Runnable {
+	/**
+	 * Snapshots Published Per Second, Independent Of The Display Rate
+	 */
+	public volatile double stepsPerSecond = 60.0;
+
+	private final Scene scene;
+	/**
+	 * Transformation Events Sent By The Editors
+	 */
+	private final SceneEventQueue queue;
+	private final ArrayList<SceneEvent> events = new ArrayList<>();
+
+	private final TripleBuffer<TransformSnapshot> snapshots = new TripleBuffer<>(
+			new TransformSnapshot(), new TransformSnapshot(), new TransformSnapshot());
+	/**
+	 * Objects To Start And Stop Tracking, Queued By The Render Thread
+	 */
+	private final ConcurrentLinkedQueue<RenderObject> added = new ConcurrentLinkedQueue<>();
+	private final ConcurrentLinkedQueue<RenderObject> removed = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Latest Transformations, Copied Into The Back Snapshot When They Change (Snapshot Thread Only)
+	 */
+	private final TransformSnapshot current = new TransformSnapshot();
+	private final HashMap<SceneObject, RenderObject> tracked = new HashMap<>();
+	private int step = 0;
+	/**
+	 * Step Of The Last Snapshot Applied (Render Thread Only)
+	 */
+	private int appliedStep = 0;
+
+	private Thread thread = null;
+	private volatile boolean isRunning = false;
+
+	/**
+	 * @param s Scene Whose Transformation Events Are Collected (Until {@link #stop()})
+	 */
+	public SceneSnapshotter(Scene s) {
+		scene = s;
+		queue = new SceneEventQueue(s);
+		scene.addListener(queue);
+	}
+
+	/**
+	 * Start Tracking An Object (From The Render Thread)
+	 */
+	public void add(RenderObject ro) {
+		added.offer(ro);
+	}
+	/**
+	 * Start Tracking Every Object Of An Environment (From The Render Thread)
+	 */
+	public void addAll(RenderEnvironment env) {
+		for(RenderObject ro : env.objects.values()) added.offer(ro);
+	}
+	/**
+	 * Stop Tracking An Object (From The Render Thread)
+	 */
+	public void remove(RenderObject ro) {
+		removed.offer(ro);
+	}
+
+	/**
+	 * Run The Steps On A New Daemon Thread
+	 */
+	public void start() {
+		if(thread != null) return;
+		isRunning = true;
+		thread = new Thread(this, "Scene Snapshots");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	/**
+	 * Stop The Thread, Waiting For Its Current Step To Finish, And Stop Listening To The Scene
+	 */
+	public void stop() {
+		scene.removeListener(queue);
+		if(thread == null) return;
+		isRunning = false;
+		try {
+			thread.join();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		thread = null;
+	}
+	@Override
+	public void run() {
+		long next = System.nanoTime();
+		while(isRunning) {
+			step();
+			
+			// Sleep Until The Next Step Is Due, Without Trying To Catch Up After A Long Stall
+			long period = (long)(1000000000.0 / stepsPerSecond);
+			next += period;
+			long wait = next - System.nanoTime();
+			if(wait < -period) {
+				next = System.nanoTime();
+			}
+			else if(wait > 0) {
+				try {
+					Thread.sleep(wait / 1000000, (int)(wait % 1000000));
+				}
+				catch(InterruptedException e) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Apply The Changes Published Since The Last Step And Publish A Snapshot If Any Were Found.
+	 * Called By The Snapshot Thread, Or Directly While It Is Not Running.
+	 */
+	public void step() {
+		step++;
+		boolean isChanged = false;
+		
+		RenderObject ro;
+		while((ro = added.poll()) != null) {
+			if(ro.snapshotSlot >= 0) continue;
+			int i = current.count++;
+			current.reserve(current.count);
+			current.objects[i] = ro;
+			ro.snapshotSlot = i;
+			tracked.put(ro.sceneObject, ro);
+			
+			// Edits Sent Before The Object Was Tracked Are Already In Its Matrix
+			System.arraycopy(ro.sceneObject.transformation.m, 0, current.local, i * TransformHierarchy.STRIDE_MATRIX4, TransformHierarchy.STRIDE_MATRIX4);
+			current.changedStep[i] = step;
+			isChanged = true;
+		}
+		while((ro = removed.poll()) != null) {
+			int i = ro.snapshotSlot;
+			if(i < 0) continue;
+			ro.snapshotSlot = -1;
+			if(tracked.get(ro.sceneObject) == ro) tracked.remove(ro.sceneObject);
+			
+			// Fill The Hole With The Last Slot
+			int last = --current.count;
+			if(i != last) {
+				RenderObject moved = current.objects[last];
+				current.objects[i] = moved;
+				moved.snapshotSlot = i;
+				System.arraycopy(current.local, last * TransformHierarchy.STRIDE_MATRIX4, current.local, i * TransformHierarchy.STRIDE_MATRIX4, TransformHierarchy.STRIDE_MATRIX4);
+				current.changedStep[i] = current.changedStep[last];
+			}
+			current.objects[last] = null;
+			isChanged = true;
+		}
+		
+		queue.getEvents(events);
+		for(SceneEvent e : events) {
+			if(!(e instanceof SceneTransformationEvent)) continue;
+			SceneTransformationEvent te = (SceneTransformationEvent)e;
+			ro = tracked.get(te.object);
+			if(ro == null) continue;
+			int i = ro.snapshotSlot;
+			System.arraycopy(te.transformation.m, 0, current.local, i * TransformHierarchy.STRIDE_MATRIX4, TransformHierarchy.STRIDE_MATRIX4);
+			current.changedStep[i] = step;
+			isChanged = true;
+		}
+		events.clear();
+		if(!isChanged) return;
+		
+		TransformSnapshot back = snapshots.getBack();
+		int n = current.count;
+		back.reserve(n);
+		System.arraycopy(current.objects, 0, back.objects, 0, n);
+		System.arraycopy(current.local, 0, back.local, 0, n * TransformHierarchy.STRIDE_MATRIX4);
+		System.arraycopy(current.changedStep, 0, back.changedStep, 0, n);
+		back.count = n;
+		back.step = step;
+		snapshots.publish();
+	}
+
+	/**
+	 * Take The Latest Snapshot, Copy The Transformations That Changed Since The Last One Applied Into
+	 * Their Objects, And Mark Those Objects Dirty (From The Render Thread, Before Rippling)
+	 * @param env Environment Of The Tracked Objects
+	 * @return True If Any Object Was Marked
+	 */
+	public boolean apply(RenderEnvironment env) {
+		if(!snapshots.acquire()) return false;
+		TransformSnapshot s = snapshots.getFront();
+		boolean isChanged = false;
+		for(int i = 0;i < s.count;i++) {
+			if(s.changedStep[i] <= appliedStep) continue;
+			
+			// Objects Removed After The Snapshot Was Taken Are Skipped
+			RenderObject ro = s.objects[i];
+			if(env.objects.get(ro.sceneObject.getID().name) != ro) continue;
+			if(ro.snapshotTransform == null) ro.snapshotTransform = new float[TransformHierarchy.STRIDE_MATRIX4];
+			System.arraycopy(s.local, i * TransformHierarchy.STRIDE_MATRIX4, ro.snapshotTransform, 0, TransformHierarchy.STRIDE_MATRIX4);
+			env.markTransformDirty(ro);
+			isChanged = true;
+		}
+		appliedStep = s.step;
+		return isChanged;
+	}
+}
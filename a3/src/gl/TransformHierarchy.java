@@ -0,0 +1,364 @@
+package gl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import egl.math.BatchMath;
+import egl.math.Matrix4;
+
+/**
+ * Flattened Copy Of The RenderObject Tree Used For World Transformation Propagation.
+ *
+ * Nodes are stored in depth-first pre-order, so every parent precedes its children and
+ * every subtree occupies the contiguous index range [i, subtreeEnd[i]).  Local, world and
+ * normal matrices are packed into primitive arrays using the same column-major layout as
+ * Matrix4 and Matrix3, which turns propagation into a single linear loop and lets the packed
+ * world matrices be uploaded in one copy.
+ *
+ * Each RenderObject remembers its slot in RenderObject.transformIndex, and the results of
+ * every update are written back to RenderObject.mWorldTransform and mWorldTransformIT, and the
+ * object's world bounds are refreshed.  Local transformations are read through
+ * RenderObject.getLocalTransform(), so a SceneSnapshotter can supply them.
+ *
+ * Single objects and subtrees can be spliced in and out with insert() and remove(), which only
+ * move the nodes after the splice point, so adding an object under the last root or removing
+ * one near the end does not touch the rest of the tree.
+ *
+ * Ranges larger than parallelThreshold are split along subtree boundaries and processed
+ * on the common ForkJoinPool, since disjoint subtrees never read each other's results.
+ */
+public class TransformHierarchy {
+	/**
+	 * Number Of Floats Per Packed 4x4 Matrix
+	 */
+	public static final int STRIDE_MATRIX4 = 16;
+	/**
+	 * Number Of Floats Per Packed 3x3 Matrix
+	 */
+	public static final int STRIDE_MATRIX3 = 9;
+
+	/**
+	 * Propagate Large Ranges On Multiple Threads
+	 */
+	public boolean isParallel = true;
+	/**
+	 * Ranges With At Most This Many Nodes Are Processed Serially
+	 */
+	public int parallelThreshold = 2048;
+
+	/**
+	 * Number Of Nodes In The Hierarchy
+	 */
+	private int count = 0;
+	/**
+	 * Nodes In Pre-Order
+	 */
+	private RenderObject[] nodes = new RenderObject[0];
+	/**
+	 * Index Of Each Node's Parent (-1 For Roots)
+	 */
+	public int[] parents = new int[0];
+	/**
+	 * One Past The Last Index Of Each Node's Subtree
+	 */
+	public int[] subtreeEnd = new int[0];
+	/**
+	 * Packed Local (Object-To-Parent) Matrices
+	 */
+	public float[] local = new float[0];
+	/**
+	 * Packed Frame-To-World Matrices
+	 */
+	public float[] world = new float[0];
+	/**
+	 * Packed Normal (Inverse-Transpose) Matrices
+	 */
+	public float[] normal = new float[0];
+	/**
+	 * Reused Traversal Storage For Splicing Subtrees
+	 */
+	private final ArrayList<RenderObject> stack = new ArrayList<>();
+	private final ArrayList<RenderObject> added = new ArrayList<>();
+
+	/**
+	 * @return Number Of Nodes In The Hierarchy
+	 */
+	public int size() {
+		return count;
+	}
+	/**
+	 * @param i Node Index
+	 * @return The RenderObject Stored At Index i
+	 */
+	public RenderObject get(int i) {
+		return nodes[i];
+	}
+	/**
+	 * Check If A Node Lies In The Subtree Of Another (Including Itself)
+	 * @param ancestor Subtree Root
+	 * @param o Node To Test
+	 * @return True If o Is ancestor Or One Of Its Descendants
+	 */
+	public boolean contains(RenderObject ancestor, RenderObject o) {
+		int a = ancestor.transformIndex;
+		int i = o.transformIndex;
+		return a >= 0 && i >= a && i < subtreeEnd[a];
+	}
+
+	/**
+	 * Flatten The Trees Below The Given Roots
+	 * @param roots Nodes Without A Parent (The Scene Root Should Come First)
+	 */
+	public void build(ArrayList<RenderObject> roots) {
+		// Count Nodes To Size The Arrays
+		int n = 0;
+		stack.clear();
+		stack.addAll(roots);
+		while(!stack.isEmpty()) {
+			RenderObject ro = stack.remove(stack.size() - 1);
+			n++;
+			stack.addAll(ro.children);
+		}
+		resize(n);
+
+		// Assign Indices In Pre-Order Without Recursing (Chains Can Be Very Deep)
+		count = 0;
+		for(RenderObject r : roots) {
+			stack.add(r);
+			while(!stack.isEmpty()) {
+				RenderObject ro = stack.remove(stack.size() - 1);
+				int i = count++;
+				nodes[i] = ro;
+				ro.transformIndex = i;
+				parents[i] = ro.parent == null ? -1 : ro.parent.transformIndex;
+				for(int c = ro.children.size() - 1;c >= 0;c--) {
+					stack.add(ro.children.get(c));
+				}
+			}
+		}
+
+		// Subtrees End Where The Next Node Outside Them Begins
+		for(int i = count - 1;i >= 0;i--) {
+			if(subtreeEnd[i] < i + 1) subtreeEnd[i] = i + 1;
+			int p = parents[i];
+			if(p >= 0 && subtreeEnd[p] < subtreeEnd[i]) subtreeEnd[p] = subtreeEnd[i];
+		}
+
+		seed(0, count);
+	}
+	/**
+	 * Splice A Subtree Into The Flattened Arrays As The Last Child Of Its Parent (Or As The Last
+	 * Root), Shifting Only The Nodes That Follow It
+	 * @param ro Subtree Root, Not Yet In The Hierarchy (Its Parent, If Any, Must Be)
+	 */
+	public void insert(RenderObject ro) {
+		// Collect The Subtree In Pre-Order
+		added.clear();
+		stack.add(ro);
+		while(!stack.isEmpty()) {
+			RenderObject n = stack.remove(stack.size() - 1);
+			added.add(n);
+			for(int c = n.children.size() - 1;c >= 0;c--) {
+				stack.add(n.children.get(c));
+			}
+		}
+		int k = added.size();
+
+		// Children Are Appended, So The Subtree Goes Where The Parent's Subtree Ends
+		int parent = ro.parent == null ? -1 : ro.parent.transformIndex;
+		int pos = parent < 0 ? count : subtreeEnd[parent];
+		grow(count + k);
+		shift(pos, k);
+		for(int a = parent;a >= 0;a = parents[a]) {
+			subtreeEnd[a] += k;
+		}
+
+		for(int j = 0;j < k;j++) {
+			int i = pos + j;
+			RenderObject n = added.get(j);
+			nodes[i] = n;
+			n.transformIndex = i;
+			parents[i] = n.parent == null ? -1 : n.parent.transformIndex;
+			subtreeEnd[i] = i + 1;
+		}
+		for(int i = pos + k - 1;i > pos;i--) {
+			int p = parents[i];
+			if(subtreeEnd[p] < subtreeEnd[i]) subtreeEnd[p] = subtreeEnd[i];
+		}
+		seed(pos, pos + k);
+		added.clear();
+	}
+	/**
+	 * Cut A Subtree Out Of The Flattened Arrays, Shifting Only The Nodes That Follow It
+	 * @param ro Subtree Root (Does Nothing If It Is Not In The Hierarchy)
+	 */
+	public void remove(RenderObject ro) {
+		int start = ro.transformIndex;
+		if(start < 0) return;
+		int end = subtreeEnd[start];
+		int k = end - start;
+		for(int i = start;i < end;i++) {
+			nodes[i].transformIndex = -1;
+		}
+		for(int a = parents[start];a >= 0;a = parents[a]) {
+			subtreeEnd[a] -= k;
+		}
+		shift(end, -k);
+		Arrays.fill(nodes, count, count + k, null);
+	}
+	/**
+	 * Move The Nodes From An Index To The End By An Offset, Fixing Their Indices
+	 * @param from First Node To Move
+	 * @param k Offset (Negative To Close A Gap Of -k Nodes Before from)
+	 */
+	private void shift(int from, int k) {
+		int n = count - from;
+		System.arraycopy(nodes, from, nodes, from + k, n);
+		System.arraycopy(parents, from, parents, from + k, n);
+		System.arraycopy(subtreeEnd, from, subtreeEnd, from + k, n);
+		System.arraycopy(world, from * STRIDE_MATRIX4, world, (from + k) * STRIDE_MATRIX4, n * STRIDE_MATRIX4);
+		System.arraycopy(normal, from * STRIDE_MATRIX3, normal, (from + k) * STRIDE_MATRIX3, n * STRIDE_MATRIX3);
+		count += k;
+		for(int i = from + k;i < count;i++) {
+			nodes[i].transformIndex = i;
+			if(parents[i] >= from) parents[i] += k;
+			subtreeEnd[i] += k;
+		}
+	}
+	/**
+	 * Make Room For n Nodes, Keeping The Current Ones
+	 */
+	private void grow(int n) {
+		if(nodes.length >= n) return;
+		int c = Math.max(n, nodes.length * 2);
+		nodes = Arrays.copyOf(nodes, c);
+		parents = Arrays.copyOf(parents, c);
+		subtreeEnd = Arrays.copyOf(subtreeEnd, c);
+		local = Arrays.copyOf(local, c * STRIDE_MATRIX4);
+		world = Arrays.copyOf(world, c * STRIDE_MATRIX4);
+		normal = Arrays.copyOf(normal, c * STRIDE_MATRIX3);
+	}
+	/**
+	 * Copy The Objects' Current Results Into A Range So That Partial Updates Can Read Unchanged Parents
+	 * (Roots Always Keep An Identity World Transformation)
+	 */
+	private void seed(int start, int end) {
+		for(int i = start;i < end;i++) {
+			if(parents[i] < 0) {
+				nodes[i].mWorldTransform.setIdentity();
+				nodes[i].mWorldTransformIT.setIdentity();
+				nodes[i].updateWorldBounds();
+			}
+			System.arraycopy(nodes[i].mWorldTransform.m, 0, world, i * STRIDE_MATRIX4, STRIDE_MATRIX4);
+			System.arraycopy(nodes[i].mWorldTransformIT.m, 0, normal, i * STRIDE_MATRIX3, STRIDE_MATRIX3);
+		}
+	}
+	private void resize(int n) {
+		if(nodes.length < n) {
+			nodes = new RenderObject[n];
+			parents = new int[n];
+			subtreeEnd = new int[n];
+			local = new float[n * STRIDE_MATRIX4];
+			world = new float[n * STRIDE_MATRIX4];
+			normal = new float[n * STRIDE_MATRIX3];
+		}
+		else {
+			Arrays.fill(nodes, null);
+		}
+		Arrays.fill(subtreeEnd, 0);
+	}
+
+	/**
+	 * Recompute The Frame-To-World Transformations Of Every Node
+	 */
+	public void update() {
+		propagate(0, count);
+	}
+	/**
+	 * Recompute The Frame-To-World Transformations Of A Node And Its Descendants
+	 * @param ro Subtree Root (Must Belong To This Hierarchy)
+	 */
+	public void update(RenderObject ro) {
+		int i = ro.transformIndex;
+		propagate(i, subtreeEnd[i]);
+	}
+	/**
+	 * Recompute A Range Of Whole Subtrees, In Parallel When It Is Large Enough
+	 */
+	private void propagate(int start, int end) {
+		if(isParallel && end - start > parallelThreshold) {
+			ForkJoinPool.commonPool().invoke(new PropagateTask(start, end));
+		}
+		else {
+			update(start, end);
+		}
+	}
+	/**
+	 * Recompute The Frame-To-World Transformations Of A Contiguous Range Of Nodes On The Calling Thread.
+	 * The Parents Of All Nodes In The Range Must Already Be Up To Date.
+	 * @param start First Index
+	 * @param end One Past The Last Index
+	 */
+	public void update(int start, int end) {
+		// Gather Local Transformations
+		for(int i = start;i < end;i++) {
+			System.arraycopy(nodes[i].getLocalTransform(), 0, local, i * STRIDE_MATRIX4, STRIDE_MATRIX4);
+		}
+
+		// Propagate In Order: Parents Always Come First
+		for(int i = start;i < end;i++) {
+			int p = parents[i];
+			if(p < 0) continue;
+			BatchMath.mul(world, p * STRIDE_MATRIX4, local, i * STRIDE_MATRIX4, world, i * STRIDE_MATRIX4);
+			Matrix4.normalMatrix(world, i * STRIDE_MATRIX4, normal, i * STRIDE_MATRIX3);
+		}
+
+		// Scatter Results Back To The Objects
+		for(int i = start;i < end;i++) {
+			RenderObject ro = nodes[i];
+			System.arraycopy(world, i * STRIDE_MATRIX4, ro.mWorldTransform.m, 0, STRIDE_MATRIX4);
+			System.arraycopy(normal, i * STRIDE_MATRIX3, ro.mWorldTransformIT.m, 0, STRIDE_MATRIX3);
+			ro.updateWorldBounds();
+			ro.isTransformDirty = false;
+		}
+	}
+
+	/**
+	 * Fork/Join Task Over A Range Made Of Consecutive Whole Subtrees (Siblings Or Roots)
+	 */
+	private class PropagateTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private int start;
+		private final int end;
+
+		PropagateTask(int s, int e) {
+			start = s;
+			end = e;
+		}
+
+		@Override
+		protected void compute() {
+			// A Single Large Subtree: Finish Its Root, Then Split Its Children
+			// (Looping Rather Than Recursing Keeps Deep Chains Off The Stack)
+			while(end - start > parallelThreshold && subtreeEnd[start] == end) {
+				update(start, start + 1);
+				start++;
+			}
+			if(end - start <= parallelThreshold) {
+				update(start, end);
+				return;
+			}
+
+			// Split Between Subtrees Near The Middle Of The Range
+			int mid = start + (end - start) / 2;
+			int split = subtreeEnd[start];
+			while(subtreeEnd[split] <= mid) split = subtreeEnd[split];
+			int next = subtreeEnd[split];
+			if(next < end && next - mid < mid - split) split = next;
+			invokeAll(new PropagateTask(start, split), new PropagateTask(split, end));
+		}
+	}
+}
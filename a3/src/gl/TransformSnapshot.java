@@ -0,0 +1,42 @@
+package gl;
+
+import java.util.Arrays;
+
+/**
+ * The Local Transformations Of Every Tracked Object At One Simulation Step, Written By A
+ * {@link SceneSnapshotter} And Read By The Render Thread.  A Snapshot Is Never Changed While
+ * The Render Thread Holds It.
+ */
+public class TransformSnapshot {
+	/**
+	 * Simulation Step That Wrote This Snapshot
+	 */
+	public int step = 0;
+	/**
+	 * Number Of Tracked Objects
+	 */
+	public int count = 0;
+	/**
+	 * Object Of Each Slot
+	 */
+	public RenderObject[] objects = new RenderObject[0];
+	/**
+	 * Packed Local (Object-To-Parent) Matrices Of Each Slot
+	 */
+	public float[] local = new float[0];
+	/**
+	 * Last Step In Which Each Slot's Matrix Changed (Or Its Object Was Added)
+	 */
+	public int[] changedStep = new int[0];
+
+	/**
+	 * Grow The Arrays To Hold At Least n Slots, Keeping Their Contents
+	 */
+	void reserve(int n) {
+		if(objects.length >= n) return;
+		int c = Math.max(n, objects.length * 2);
+		objects = Arrays.copyOf(objects, c);
+		local = Arrays.copyOf(local, c * TransformHierarchy.STRIDE_MATRIX4);
+		changedStep = Arrays.copyOf(changedStep, c);
+	}
+}
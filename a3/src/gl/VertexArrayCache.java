@@ -0,0 +1,68 @@
+package gl;
+
+import java.util.HashMap;
+
+import egl.GLBuffer;
+import egl.GLVertexArray;
+import egl.IDisposable;
+import egl.ShaderInterface;
+
+/**
+ * Vertex Arrays Recording One Set Of Buffers Bound To The Inputs Of Different Programs.
+ * Arrays are keyed by the interface of the main vertex buffer and are recorded again when
+ * any of their interfaces was rebuilt for a relinked program.
+ */
+class VertexArrayCache implements IDisposable {
+	private static class Entry {
+		public final GLVertexArray vao = new GLVertexArray();
+		public int version, versionTangentSpace, versionSkinned;
+	}
+	private final HashMap<ShaderInterface, Entry> entries = new HashMap<>();
+
+	/**
+	 * Drop Every Array (When The Buffers They Record Are Replaced)
+	 */
+	@Override
+	public void dispose() {
+		for(Entry e : entries.values()) e.vao.dispose();
+		entries.clear();
+	}
+
+	/**
+	 * Get The Vertex Array Feeding Buffers To A Program's Inputs, Recording It If Needed
+	 * @param si Inputs Of The Main Vertex Buffer
+	 * @param siTangentSpace Inputs Of The Tangent Space Buffer (Or Null)
+	 * @param siSkinned Inputs Of The Skinning Buffer (Or Null)
+	 * @param vb Main Vertex Buffer
+	 * @param vbTangentSpace Tangent Space Buffer
+	 * @param vbSkinned Skinning Buffer (Or Null If There Is None)
+	 * @param ib Index Buffer
+	 * @return The Vertex Array (Bind It Before Drawing)
+	 */
+	public GLVertexArray get(ShaderInterface si, ShaderInterface siTangentSpace, ShaderInterface siSkinned,
+			GLBuffer vb, GLBuffer vbTangentSpace, GLBuffer vbSkinned, GLBuffer ib) {
+		int versionTangentSpace = siTangentSpace == null ? -1 : siTangentSpace.version;
+		int versionSkinned = siSkinned == null ? -1 : siSkinned.version;
+		Entry e = entries.get(si);
+		if(e != null && e.version == si.version &&
+				e.versionTangentSpace == versionTangentSpace && e.versionSkinned == versionSkinned) {
+			return e.vao;
+		}
+		if(e == null) {
+			e = new Entry();
+			entries.put(si, e);
+		}
+
+		// Record Into A Fresh Object, So No Attribute Of The Old Locations Stays Enabled
+		e.vao.dispose();
+		e.vao.init().bind();
+		vb.useAsAttrib(si);
+		if(siTangentSpace != null) vbTangentSpace.useAsAttrib(siTangentSpace);
+		if(siSkinned != null && vbSkinned != null) vbSkinned.useAsAttrib(siSkinned);
+		ib.bind();
+		e.version = si.version;
+		e.versionTangentSpace = versionTangentSpace;
+		e.versionSkinned = versionSkinned;
+		return e.vao;
+	}
+}
@@ -1,11 +1,11 @@
 package gl.manip;
 
 import java.awt.Component;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map.Entry;
 
 import org.lwjgl.input.Keyboard;
-import org.lwjgl.input.Mouse;
 import org.lwjgl.opengl.GL11;
 
 import blister.input.KeyboardEventDispatcher;
@@ -18,6 +18,7 @@ import common.SceneObject;
 import common.UUIDGenerator;
 import common.event.SceneTransformationEvent;
 import gl.PickingProgram;
+import gl.RayPicker;
 import gl.RenderCamera;
 import gl.RenderEnvironment;
 import gl.RenderObject;
@@ -29,9 +30,11 @@ import egl.DepthState;
 import egl.IDisposable;
 import egl.RasterizerState;
 import egl.math.Matrix4;
+import egl.math.ScratchStack;
 import egl.math.Vector2;
 import egl.math.Vector3;
 import ext.csharp.ACEventFunc;
+import ext.java.IntHashSet;
 
 public class ManipController implements IDisposable {
 	public final ManipRenderer renderer = new ManipRenderer();
@@ -46,9 +49,23 @@ public class ManipController implements IDisposable {
 	
 	private final Manipulator[] currentManips = new Manipulator[3];
 	private RenderObject currentObject = null;
+	/**
+	 * Every Selected Object (The Manipulators Act On currentObject, Its First Entry)
+	 */
+	private final ArrayList<RenderObject> selection = new ArrayList<>();
+	/**
+	 * Distinct IDs Found By The Last Box Selection
+	 */
+	private final IntHashSet boxIDs = new IntHashSet(256);
 	
 	private Manipulator selectedManipulator = null;
 	
+	/**
+	 * Pick By Casting A Ray On The CPU (True) Or By Drawing And Reading Back A Picking Pass (False)
+	 */
+	public boolean useRayPicking = true;
+	private final RayPicker picker = new RayPicker();
+	
 	/**
 	 * Is parent mode on?  That is, should manipulation happen in parent rather than object coordinates?
 	 */
@@ -159,8 +176,14 @@ public class ManipController implements IDisposable {
 	 * @return
 	 */
 	public Matrix4 getTransformation(Manipulator manip, RenderCamera camera, RenderObject object) {
-		Matrix4 mManip = new Matrix4();
-		
+		return getTransformation(manip, camera, object, new Matrix4());
+	}
+	/**
+	 * Same As {@link #getTransformation(Manipulator, RenderCamera, RenderObject)}, Written Into <b>mManip</b> Without Allocating.
+	 * @param mManip Non-Null Output Matrix
+	 * @return mManip
+	 */
+	public Matrix4 getTransformation(Manipulator manip, RenderCamera camera, RenderObject object, Matrix4 mManip) {
 		switch (manip.axis) {
 		case Manipulator.Axis.X:
 			Matrix4.createRotationY((float)(Math.PI / 2.0), mManip);
@@ -212,20 +235,25 @@ public class ManipController implements IDisposable {
 		
 		// TODO#A3#Part 4
 				
+		ScratchStack scratch = ScratchStack.get();
+		Matrix4 mVPInverse = Matrix4.invert(camera.mViewProjection, scratch.pushMatrix4());
+		Matrix4 mViewInverse = Matrix4.invertAffine(camera.mView, scratch.pushMatrix4());
+		Matrix4 transform = scratch.pushMatrix4().setIdentity();
+		
 		//convert click points to real world coordinates
 		Vector3 lastM1 = new Vector3(lastMousePos.x,lastMousePos.y,-1);
 		Vector3 lastM2 = new Vector3(lastMousePos.x,lastMousePos.y,1);
 		
 		//real world coordinates for the last mouse position
-		Vector3 realLast1 = camera.mViewProjection.clone().invert().mulPos(lastM1);
-		Vector3 realLast2 = camera.mViewProjection.clone().invert().mulPos(lastM2);
+		Vector3 realLast1 = mVPInverse.mulPos(lastM1);
+		Vector3 realLast2 = mVPInverse.mulPos(lastM2);
 		
 		Vector3 currM1 = new Vector3(curMousePos.x,curMousePos.y,-1);
 		Vector3 currM2 = new Vector3(curMousePos.x,curMousePos.y,1);
 		
 		//real world coordinates for the current mouse position
-		Vector3 realCurr1 = camera.mViewProjection.clone().invert().mulPos(currM1);
-		Vector3 realCurr2 = camera.mViewProjection.clone().invert().mulPos(currM2);
+		Vector3 realCurr1 = mVPInverse.mulPos(currM1);
+		Vector3 realCurr2 = mVPInverse.mulPos(currM2);
 		
 		//set direction of the vectors
 		Vector3 dirLastM = realLast2.clone().sub(realLast1);
@@ -233,7 +261,7 @@ public class ManipController implements IDisposable {
 		
 		//set direction of normal of image plane
 		Vector3 nImage = new Vector3(0,0,1);
-		nImage.set(camera.mView.clone().invert().mulDir(nImage));
+		mViewInverse.mulDir(nImage);
 		
 		//set direction of manipulator axis (in object space)
 		Vector3 mAxis = new Vector3();
@@ -249,14 +277,14 @@ public class ManipController implements IDisposable {
 		
 		//set direction of manipulator axis (in world space)
 		if(!this.parentSpace){
-			mAxis.set(object.mWorldTransform.clone().mulDir(mAxis));
+			object.mWorldTransform.mulDir(mAxis);
 		}
 		else{
-			mAxis.set(object.parent.mWorldTransform.clone().mulDir(mAxis));
+			object.parent.mWorldTransform.mulDir(mAxis);
 		}
 		//find origin of manipulator (in world space)
 		Vector3 mOrigin = new Vector3(0,0,0);
-		mOrigin.set(object.mWorldTransform.clone().mulPos(mOrigin));
+		object.mWorldTransform.mulPos(mOrigin);
 		
 		//direction of 2nd vector in manipulator plane (in world space)
 		Vector3 mPerp = mAxis.clone().cross(nImage);
@@ -292,7 +320,6 @@ public class ManipController implements IDisposable {
 			float factor = t2Manip/t1Manip;
 			//float factor = secondPt/firstPt;
 			String axis;
-			Matrix4 transform = new Matrix4();
 			if(this.parentSpace){
 				if(manip.axis == Manipulator.Axis.X){
 					transform.set(0,0,factor);
@@ -334,39 +361,38 @@ public class ManipController implements IDisposable {
 		//rotate
 		else if(manip.type == Manipulator.Type.ROTATE){
 			//float angle = (float)(1/(Math.PI*2));
-			Matrix4 transform = new Matrix4();
 			float angle = (float)(delta/(Math.PI*2));
 			String axis;
 			if(this.parentSpace){
 				if(manip.axis == Manipulator.Axis.X){
-					transform.set(setRotationalTransform(0, angle));
+					setRotationalTransform(0, angle, transform);
 					object.sceneObject.transformation.mulBefore(transform);
 					axis = "X";
 				}
 				else if(manip.axis == Manipulator.Axis.Y){
-					transform.set(setRotationalTransform(1, angle));
+					setRotationalTransform(1, angle, transform);
 					object.sceneObject.transformation.mulBefore(transform);
 					axis = "Y";
 				}
 				else{
-					transform.set(setRotationalTransform(2, angle));
+					setRotationalTransform(2, angle, transform);
 					object.sceneObject.transformation.mulBefore(transform);
 					axis = "Z";
 				}
 			}
 			else{
 				if(manip.axis == Manipulator.Axis.X){
-					transform.set(setRotationalTransform(0, angle));
+					setRotationalTransform(0, angle, transform);
 					object.sceneObject.transformation.mulAfter(transform);
 					axis = "X";
 				}
 				else if(manip.axis == Manipulator.Axis.Y){
-					transform.set(setRotationalTransform(1, angle));
+					setRotationalTransform(1, angle, transform);
 					object.sceneObject.transformation.mulAfter(transform);
 					axis = "Y";
 				}
 				else{
-					transform.set(setRotationalTransform(2, angle));
+					setRotationalTransform(2, angle, transform);
 					object.sceneObject.transformation.mulAfter(transform);
 					axis = "Z";
 				}
@@ -380,7 +406,6 @@ public class ManipController implements IDisposable {
 			//float displacement = 1.0f;
 			float displacement = (float)delta;
 			String axis;
-			Matrix4 transform = new Matrix4();
 			if(this.parentSpace){
 				if(manip.axis == Manipulator.Axis.X){
 					transform.set(0,3,displacement);
@@ -419,6 +444,7 @@ public class ManipController implements IDisposable {
 			System.out.println(transform);
 			System.out.println();
 		}
+		scratch.popMatrix4(3);
 	}
 	
 	public static float getAxisProjection(Vector3 rayOrigin, Vector3 rayDirection, Vector3 intersectionPt){
@@ -461,7 +487,11 @@ public class ManipController implements IDisposable {
 	}
 	
 	public static Matrix4 setRotationalTransform(int axis, float angle){
-		Matrix4 transform = new Matrix4();
+		return setRotationalTransform(axis, angle, new Matrix4());
+	}
+	
+	public static Matrix4 setRotationalTransform(int axis, float angle, Matrix4 transform){
+		transform.setIdentity();
 		//x-axis
 		if(axis == 0){
 			transform.set(1,1,(float)Math.cos(angle));
@@ -530,25 +560,28 @@ public class ManipController implements IDisposable {
 		}
 	}
 
+	/**
+	 * Receives IDs Read Back Asynchronously By The GPU Picking Pass, A Few Frames After The Click
+	 */
+	public final PickingProgram.IPickCallback onPickResolved = new PickingProgram.IPickCallback() {
+		@Override
+		public void picked(int id) {
+			applyPick(id);
+		}
+	};
+	
 	public void checkPicking(Renderer renderer, RenderCamera camera, int mx, int my) {
 		if(camera == null) return;
 		
-		// Pick An Object
-		renderer.beginPickingPass(camera);
-		renderer.drawPassesPick();
-		if(currentObject != null) {
-			// Draw Object Manipulators
-			GL11.glClearDepth(1.0);
-			GL11.glClear(GL11.GL_DEPTH_BUFFER_BIT);
-			
-			DepthState.DEFAULT.set();
-			BlendState.OPAQUE.set();
-			RasterizerState.CULL_NONE.set();
-			
-			drawPick(camera, currentObject, renderer.pickProgram);
-		}
-		int id = renderer.getPickID(Mouse.getX(), Mouse.getY());
-		
+		// Pick An Object (The GPU Result Arrives Later Through onPickResolved)
+		if(useRayPicking) applyPick(pickRay(camera, mx, my));
+		else pickGPU(renderer, camera, mx, my);
+	}
+	/**
+	 * Select The Manipulator Or Scene Object With A Picked ID, Or Deselect If The ID Matches Neither
+	 * @param id Picked ID
+	 */
+	public void applyPick(int id) {
 		selectedManipulator = manips.get(id);
 		if(selectedManipulator != null) {
 			// Begin Manipulator Operations
@@ -557,6 +590,7 @@ public class ManipController implements IDisposable {
 		}
 		
 		SceneObject o = scene.objects.get(id);
+		selection.clear();
 		if(o != null) {
 			System.out.println("Picked An Object: " + o.getID().name);
 			if(scenePanel != null) {
@@ -564,11 +598,102 @@ public class ManipController implements IDisposable {
 				propWindow.tabToForefront("Object");
 			}
 			currentObject = rEnv.findObject(o);
+			if(currentObject != null) selection.add(currentObject);
 		}
 		else if(currentObject != null) {
 			currentObject = null;
 		}
 	}
+	/**
+	 * Select Every Object Visible In A Screen Rectangle, With One Picking Pass Over The Rectangle And One Read Of Its Pixels
+	 * @param renderer Renderer Holding The Passes
+	 * @param camera Camera
+	 * @param x0 Pixel X Of One Corner
+	 * @param y0 Pixel Y Of One Corner
+	 * @param x1 Pixel X Of The Opposite Corner
+	 * @param y1 Pixel Y Of The Opposite Corner
+	 */
+	public void boxSelect(Renderer renderer, RenderCamera camera, int x0, int y0, int x1, int y1) {
+		if(camera == null) return;
+		
+		// Clamp To The Viewport, Since Pixels Outside The Window Have No Defined Value
+		int maxX = (int)camera.viewportSize.x - 1, maxY = (int)camera.viewportSize.y - 1;
+		int x = Math.max(0, Math.min(x0, x1)), y = Math.max(0, Math.min(y0, y1));
+		int w = Math.min(maxX, Math.max(x0, x1)) - x + 1, h = Math.min(maxY, Math.max(y0, y1)) - y + 1;
+		if(w <= 0 || h <= 0) return;
+		
+		renderer.beginPickingPass(camera, x, y, w, h);
+		renderer.drawPassesPick();
+		boxIDs.clear();
+		renderer.getPickIDs(x, y, w, h, boxIDs);
+		renderer.endPickingPass();
+		
+		selection.clear();
+		selectedManipulator = null;
+		for(int i = 0;i < boxIDs.size();i++) {
+			SceneObject o = scene.objects.get(boxIDs.get(i));
+			if(o == null) continue;
+			RenderObject ro = rEnv.findObject(o);
+			if(ro != null) selection.add(ro);
+		}
+		currentObject = selection.isEmpty() ? null : selection.get(0);
+		if(currentObject != null && scenePanel != null) {
+			scenePanel.select(currentObject.sceneObject.getID().name);
+			propWindow.tabToForefront("Object");
+		}
+	}
+	/**
+	 * @return Every Selected Object
+	 */
+	public ArrayList<RenderObject> getSelection() {
+		return selection;
+	}
+	
+	/**
+	 * Find The ID Under A Pixel With Ray Casts.  Manipulators Are Drawn Over The Scene, So Any Manipulator Hit Wins.
+	 * @return ID Of A Manipulator Or Scene Object, Or -1 If The Ray Hits Nothing
+	 */
+	private int pickRay(RenderCamera camera, int mx, int my) {
+		picker.setRay(camera, mx, my);
+		if(currentObject != null) {
+			Matrix4 mTransform = ScratchStack.get().pushMatrix4();
+			Manipulator hit = null;
+			float hitDistance = Float.POSITIVE_INFINITY;
+			for(Manipulator manip : currentManips) {
+				getTransformation(manip, camera, currentObject, mTransform);
+				float t = picker.raycast(manipRenderer.triangles[manip.type], mTransform, Math.min(hitDistance, 1));
+				if(t < hitDistance) {
+					hit = manip;
+					hitDistance = t;
+				}
+			}
+			ScratchStack.get().popMatrix4(1);
+			if(hit != null) return manipIDs.get(hit).id;
+		}
+		
+		RenderObject ro = picker.pick(rEnv.bounds);
+		return ro == null ? -1 : ro.sceneObject.getID().id;
+	}
+	/**
+	 * Draw IDs Into The Pixels Around The Cursor And Queue A Read Of The One Under It, Without Waiting For The GPU
+	 */
+	private void pickGPU(Renderer renderer, RenderCamera camera, int mx, int my) {
+		renderer.beginPickingPass(camera, mx, my);
+		renderer.drawPassesPick();
+		if(currentObject != null) {
+			// Draw Object Manipulators
+			GL11.glClearDepth(1.0);
+			GL11.glClear(GL11.GL_DEPTH_BUFFER_BIT);
+			
+			DepthState.DEFAULT.set();
+			BlendState.OPAQUE.set();
+			RasterizerState.CULL_NONE.set();
+			
+			drawPick(camera, currentObject, renderer.pickProgram);
+		}
+		renderer.requestPickID(mx, my, onPickResolved);
+		renderer.endPickingPass();
+	}
 	
 	public RenderObject getCurrentObject() {
 		return currentObject;
@@ -576,13 +701,14 @@ public class ManipController implements IDisposable {
 	
 	public void draw(RenderCamera camera) {
 		if(currentObject == null) return;
+		Matrix4 mTransform = ScratchStack.get().pushMatrix4();
 		
 		DepthState.NONE.set();
 		BlendState.ALPHA_BLEND.set();
 		RasterizerState.CULL_CLOCKWISE.set();
 		
 		for(Manipulator manip : currentManips) {
-			Matrix4 mTransform = getTransformation(manip, camera, currentObject);
+			getTransformation(manip, camera, currentObject, mTransform);
 			manipRenderer.render(mTransform, camera.mViewProjection, manip.type, manip.axis);
 		}
 		
@@ -591,17 +717,19 @@ public class ManipController implements IDisposable {
 		RasterizerState.CULL_CLOCKWISE.set();
 		
 		for(Manipulator manip : currentManips) {
-			Matrix4 mTransform = getTransformation(manip, camera, currentObject);
+			getTransformation(manip, camera, currentObject, mTransform);
 			manipRenderer.render(mTransform, camera.mViewProjection, manip.type, manip.axis);
 		}
-
-}
+		ScratchStack.get().popMatrix4(1);
+	}
 	public void drawPick(RenderCamera camera, RenderObject ro, PickingProgram prog) {
+		Matrix4 mTransform = ScratchStack.get().pushMatrix4();
 		for(Manipulator manip : currentManips) {
-			Matrix4 mTransform = getTransformation(manip, camera, ro);
+			getTransformation(manip, camera, ro, mTransform);
 			prog.setObject(mTransform, manipIDs.get(manip).id);
 			manipRenderer.drawCall(manip.type, prog.getPositionAttributeLocation());
 		}
+		ScratchStack.get().popMatrix4(1);
 	}
 	
 }
@@ -1,22 +1,25 @@
 package gl.manip;
 
 import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.util.HashMap;
 
-import org.lwjgl.opengl.GL11;
-
 import common.UUIDGenerator;
 import mesh.OBJMesh;
 import mesh.OBJParser;
+import mesh.TriangleBVH;
 import egl.GL.BufferTarget;
 import egl.GL.BufferUsageHint;
-import egl.GL.GLType;
 import egl.GL.PrimitiveType;
 import egl.GLBuffer;
+import egl.GLCommandExecutor;
 import egl.GLProgram;
-import egl.GLUniform;
+import egl.GLUniformHandle;
+import egl.GLVertexArray;
 import egl.IDisposable;
 import egl.NativeMem;
+import egl.RenderCommandBuffer;
 import egl.math.Matrix4;
 import egl.math.Vector3;
 import egl.math.Vector3i;
@@ -31,13 +34,24 @@ public class ManipRenderer implements IDisposable {
 	}
 	
 	GLProgram program = new GLProgram(true);
+	private final GLUniformHandle unAxisColor, unWorld, unVP;
 	
 	public final GLBuffer vb = new GLBuffer(BufferTarget.ArrayBuffer, BufferUsageHint.StaticDraw, true);
 	public final GLBuffer ib = new GLBuffer(BufferTarget.ElementArrayBuffer, BufferUsageHint.StaticDraw, true);
 	
 	int[] ind = new int[3];
 	int[] count = new int[3];
+	/**
+	 * Triangles Of Each Manipulator Type, For CPU Ray Picking
+	 */
+	final TriangleBVH[] triangles = new TriangleBVH[3];
 	private final HashMap<Manipulator, UUIDGenerator.ID> manipIDs = new HashMap<>();
+	/**
+	 * Vertex Arrays By The Attribute Location Positions Feed (The Drawing And Picking Programs May Differ)
+	 */
+	private final HashMap<Integer, GLVertexArray> vertexArrays = new HashMap<>();
+	private final RenderCommandBuffer commands = new RenderCommandBuffer(1024);
+	private final GLCommandExecutor executor = new GLCommandExecutor();
 	
 	public ManipRenderer() {
 		OBJMesh omT = OBJParser.parse("data/meshes/Translate.obj");
@@ -57,6 +71,9 @@ public class ManipRenderer implements IDisposable {
 		int vi = addMesh(omS, bbVerts, bbInds, 0);
 		vi = addMesh(omR, bbVerts, bbInds, vi);
 		vi = addMesh(omT, bbVerts, bbInds, vi);
+		triangles[Manipulator.Type.SCALE] = createTriangleBVH(omS);
+		triangles[Manipulator.Type.ROTATE] = createTriangleBVH(omR);
+		triangles[Manipulator.Type.TRANSLATE] = createTriangleBVH(omT);
 		
 		bbVerts.flip();
 		vb.setAsVertexVec3();
@@ -69,12 +86,17 @@ public class ManipRenderer implements IDisposable {
 		HashMap<String, Integer> attrMap = new HashMap<>();
 		attrMap.put("vPos", 0);
 		program.quickCreateResource("Manip", "gl/manip/Manip.vert", "gl/manip/Manip.frag", attrMap);
+		unAxisColor = program.getUniformHandle("AxisColor");
+		unWorld = program.getUniformHandle("World");
+		unVP = program.getUniformHandle("VP");
 	}
 	@Override
 	public void dispose() {
 		vb.dispose();
 		ib.dispose();
 		program.dispose();
+		for(GLVertexArray va : vertexArrays.values()) va.dispose();
+		vertexArrays.clear();
 	}
 
 	private int addMesh(OBJMesh om, ByteBuffer vb, ByteBuffer ib, int vi) {
@@ -93,11 +115,51 @@ public class ManipRenderer implements IDisposable {
 		return vi + om.vertices.size();
 	}
 	
+	private static TriangleBVH createTriangleBVH(OBJMesh om) {
+		FloatBuffer positions = NativeMem.createFloatBuffer(om.vertices.size() * 3);
+		for(Vector3i v : om.vertices) {
+			Vector3 pos = om.positions.get(v.x);
+			positions.put(pos.x);
+			positions.put(pos.y);
+			positions.put(pos.z);
+		}
+		IntBuffer indices = NativeMem.createIntBuffer(om.triangles.size() * 3);
+		for(Vector3i t : om.triangles) {
+			indices.put(t.x);
+			indices.put(t.y);
+			indices.put(t.z);
+		}
+		return new TriangleBVH(positions, indices, om.triangles.size() * 3);
+	}
+	
 	public void drawCall(int type, int vertexPositionAttrib) {
-		vb.useAsAttrib(vertexPositionAttrib);
-		ib.bind();
-		GL11.glDrawElements(PrimitiveType.Triangles, count[type], GLType.UnsignedInt, ind[type] * 4);
-		ib.unbind();
+		commands.reset();
+		drawCall(commands, type, vertexPositionAttrib);
+		commands.replay(executor);
+	}
+	/**
+	 * Write The Draw Of One Manipulator Type, With Its Positions Fed To An Attribute Of The Program In Use
+	 * @param cb Commands To Append To
+	 * @param type Manipulator Type
+	 * @param vertexPositionAttrib Attribute Location Of Positions
+	 */
+	public void drawCall(RenderCommandBuffer cb, int type, int vertexPositionAttrib) {
+		if(GLVertexArray.isSupported()) {
+			GLVertexArray va = vertexArrays.get(vertexPositionAttrib);
+			if(va == null) {
+				va = new GLVertexArray().build(vb, vertexPositionAttrib, ib);
+				vertexArrays.put(vertexPositionAttrib, va);
+			}
+			cb.bindVertexArray(va);
+			cb.drawElements(PrimitiveType.Triangles, count[type], ind[type] * 4L);
+			cb.bindVertexArray(null);
+			return;
+		}
+		
+		cb.useAttribute(vb, vertexPositionAttrib);
+		cb.bindIndexBuffer(ib);
+		cb.drawElements(PrimitiveType.Triangles, count[type], ind[type] * 4L);
+		cb.bindIndexBuffer(null);
 	}
 
 	public void setIDs(HashMap<Manipulator, UUIDGenerator.ID> ids) {
@@ -106,14 +168,23 @@ public class ManipRenderer implements IDisposable {
 	}
 	
 	public void render(Matrix4 mWorld, Matrix4 mCamera, int type, int axis) {
-		program.use();
+		commands.reset();
+		record(commands, mWorld, mCamera, type, axis);
+		commands.replay(executor);
+	}
+	/**
+	 * Write The Commands That Draw One Manipulator
+	 * @param cb Commands To Append To
+	 */
+	public void record(RenderCommandBuffer cb, Matrix4 mWorld, Matrix4 mCamera, int type, int axis) {
+		cb.useProgram(program);
 		
-		GLUniform.set(program.getUniform("AxisColor"), AxisColors[axis]);
-		GLUniform.setST(program.getUniform("World"), mWorld, false);
-		GLUniform.setST(program.getUniform("VP"), mCamera, false);
+		cb.setUniform(unAxisColor, AxisColors[axis]);
+		cb.setUniform(unWorld, mWorld);
+		cb.setUniform(unVP, mCamera);
 		
-		drawCall(type, 0);
+		drawCall(cb, type, 0);
 		
-		GLProgram.unuse();
+		cb.useProgram(null);
 	}
 }
\ No newline at end of file
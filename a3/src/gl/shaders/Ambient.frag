@@ -5,10 +5,8 @@
 // vec4 getNormalColor(vec2 uv)
 // vec4 getSpecularColor(vec2 uv)
 
-// Lighting Information
-uniform int numLights;
-uniform vec3 lightPosition[16];
-uniform vec3 lightIntensity[16];
+// Lighting Information (numLights, lightPosition[16], lightIntensity[16], ambientLightIntensity)
+// Is Declared For You (In The FrameData Uniform Block When Uniform Buffers Are Supported)
 
 varying vec2 fUV;
 
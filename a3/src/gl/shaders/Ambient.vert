@@ -1,7 +1,7 @@
 #version 120
 
-// RenderCamera Input
-uniform mat4 mViewProjection;
+// RenderCamera Input (mView, mProj, mViewProjection, worldCam, exposure)
+// Is Declared For You (In The FrameData Uniform Block When Uniform Buffers Are Supported)
 
 // RenderObject Input
 uniform mat4 mWorld;
@@ -3,6 +3,7 @@ package mesh;
 import java.util.ArrayList;
 
 import egl.NativeMem;
+import egl.math.BatchMath;
 import egl.math.Vector3;
 import egl.math.Vector3i;
 
@@ -39,17 +40,21 @@ public class MeshConverter {
 		data.normals = NativeMem.createFloatBuffer(data.vertexCount * 3);
 		data.indices = NativeMem.createIntBuffer(data.indexCount);
 		
+		// Compute All Face Normals In One Pass Over Flat Arrays
+		float[] pos = flattenPositions(positions);
+		int[] idx = flattenTriangles(tris);
+		float[] faceNormals = new float[tris.size() * 3];
+		BatchMath.faceNormals(pos, idx, tris.size(), faceNormals);
+		
 		// Loop Through Triangles
+		float[] outPositions = new float[data.vertexCount * 3];
+		float[] outNormals = new float[data.vertexCount * 3];
 		int vertIndex = 0;
-		for(Vector3i t : tris) {
-			// Compute The Normal
-			Vector3 n = new Vector3(positions.get(t.z));
-			n.sub(positions.get(t.y));
-			n.cross(positions.get(t.x).clone().sub(positions.get(t.y)));
-			n.normalize();
+		for(int t = 0;t < tris.size();t++) {
+			float nx = faceNormals[t * 3], ny = faceNormals[t * 3 + 1], nz = faceNormals[t * 3 + 2];
 			
 			// Check For Degenerate Triangle
-			if(Float.isNaN(n.x) || Float.isNaN(n.y) || Float.isNaN(n.z)) {
+			if(Float.isNaN(nx) || Float.isNaN(ny) || Float.isNaN(nz)) {
 				data.vertexCount -= 3;
 				data.indexCount -= 3;
 				continue;
@@ -57,12 +62,15 @@ public class MeshConverter {
 			
 			// Add A Vertex
 			for(int vi = 0;vi < 3;vi++) {
-				Vector3 v = positions.get(t.get(vi));
-				data.positions.put(v.x); data.positions.put(v.y); data.positions.put(v.z);
-				data.normals.put(n.x); data.normals.put(n.y); data.normals.put(n.z);
+				int v = idx[t * 3 + vi] * 3;
+				int o = vertIndex * 3;
+				outPositions[o] = pos[v]; outPositions[o + 1] = pos[v + 1]; outPositions[o + 2] = pos[v + 2];
+				outNormals[o] = nx; outNormals[o + 1] = ny; outNormals[o + 2] = nz;
 				data.indices.put(vertIndex++);
 			}
 		}
+		data.positions.put(outPositions, 0, vertIndex * 3);
+		data.normals.put(outNormals, 0, vertIndex * 3);
 		
 		// #SOLUTION END
 
@@ -86,48 +94,63 @@ public class MeshConverter {
 		data.normals = NativeMem.createFloatBuffer(data.vertexCount * 3);
 		data.indices = NativeMem.createIntBuffer(data.indexCount);		
 		
-		// Create New Array Of Vertex Normals
-		Vector3[] normals = new Vector3[positions.size()];
-		for(int i = 0;i < positions.size();i++) {
-			normals[i] = new Vector3(0, 0, 0);
-		}
+		// Compute All Face Normals In One Pass Over Flat Arrays
+		float[] pos = flattenPositions(positions);
+		int[] idx = flattenTriangles(tris);
+		float[] faceNormals = new float[tris.size() * 3];
+		BatchMath.faceNormals(pos, idx, tris.size(), faceNormals);
 		
 		// Loop Over Triangles
-		for(Vector3i t : tris) {
-			// Compute The Face Normal
-			Vector3 n = new Vector3(positions.get(t.z));
-			n.sub(positions.get(t.y));
-			n.cross(positions.get(t.x).clone().sub(positions.get(t.y)));
-			n.normalize();
+		float[] normals = new float[positions.size() * 3];
+		for(int t = 0;t < tris.size();t++) {
+			float nx = faceNormals[t * 3], ny = faceNormals[t * 3 + 1], nz = faceNormals[t * 3 + 2];
 			
 			// Check For Degenerate Triangle
-			if(Float.isNaN(n.x) || Float.isNaN(n.y) || Float.isNaN(n.z)) {
+			if(Float.isNaN(nx) || Float.isNaN(ny) || Float.isNaN(nz)) {
 				data.indexCount -= 3;
 				continue;
 			}
 				
 			// Add Face Normal To Triangle's Vertices
-			normals[t.x].add(n);
-			normals[t.y].add(n);
-			normals[t.z].add(n);
+			for(int vi = 0;vi < 3;vi++) {
+				int v = idx[t * 3 + vi] * 3;
+				normals[v] += nx; normals[v + 1] += ny; normals[v + 2] += nz;
+			}
 			
 			// Triangle Indices Are Unchanged
-			data.indices.put(t.x);
-			data.indices.put(t.y);
-			data.indices.put(t.z);
+			data.indices.put(idx, t * 3, 3);
 		}
 		
 		// Place Positions And Normals
-		for(int i = 0;i < positions.size();i++) {
-			Vector3 v = positions.get(i);
-			data.positions.put(v.x); data.positions.put(v.y); data.positions.put(v.z);
-			v = normals[i];
-			v.normalize();
-			data.normals.put(v.x); data.normals.put(v.y); data.normals.put(v.z);
-		}
+		BatchMath.normalize(normals, 0, positions.size());
+		data.positions.put(pos);
+		data.normals.put(normals);
 		
 		// #SOLUTION END
 		
 		return data;
 	}
+	
+	/**
+	 * Copy A List Of Positions Into A Packed Array Of x, y, z Components
+	 */
+	private static float[] flattenPositions(ArrayList<Vector3> positions) {
+		float[] a = new float[positions.size() * 3];
+		for(int i = 0;i < positions.size();i++) {
+			Vector3 v = positions.get(i);
+			a[i * 3] = v.x; a[i * 3 + 1] = v.y; a[i * 3 + 2] = v.z;
+		}
+		return a;
+	}
+	/**
+	 * Copy A List Of Triangles Into A Packed Array Of Vertex Indices
+	 */
+	private static int[] flattenTriangles(ArrayList<Vector3i> tris) {
+		int[] a = new int[tris.size() * 3];
+		for(int i = 0;i < tris.size();i++) {
+			Vector3i t = tris.get(i);
+			a[i * 3] = t.x; a[i * 3 + 1] = t.y; a[i * 3 + 2] = t.z;
+		}
+		return a;
+	}
 }
@@ -0,0 +1,411 @@
+package mesh;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import egl.math.Ray;
+
+/**
+ * Static Bounding Volume Hierarchy Over The Triangles Of A Mesh, For CPU Ray Casts.
+ *
+ * The tree is built once, top-down, splitting each node where a binned surface area heuristic is
+ * cheapest.  Nodes are stored in flat arrays with both children of a node next to each other, and
+ * the triangle corners are copied into leaf order so that a leaf's triangles are contiguous in memory.
+ * Ray casts visit the nearer child first and shrink the search distance with every hit, so most of
+ * the tree behind the first hit is never touched.
+ */
+public class TriangleBVH {
+	/**
+	 * Nodes With At Most This Many Triangles Are Never Split
+	 */
+	private static final int LEAF_SIZE = 4;
+	/**
+	 * Nodes With More Triangles Are Always Split, Even When The Heuristic Prefers A Leaf
+	 */
+	private static final int MAX_LEAF_SIZE = 16;
+	/**
+	 * Number Of Centroid Bins Tried Along Each Axis
+	 */
+	private static final int BINS = 16;
+	/**
+	 * Cost Of Visiting A Node, Relative To Testing One Triangle
+	 */
+	private static final float TRAVERSAL_COST = 1.0f;
+
+	private static final int BOX = 6;
+
+	/**
+	 * Number Of Triangles In The Tree
+	 */
+	public final int triangleCount;
+
+	private int nodeCount = 0;
+	/**
+	 * Node Boxes, {min.x, min.y, min.z, max.x, max.y, max.z} Per Node
+	 */
+	private float[] boxes;
+	/**
+	 * Per Node: First Child (Inner Nodes, The Second Child Follows It) Or First Triangle (Leaves)
+	 */
+	private int[] firsts;
+	/**
+	 * Per Node: Number Of Triangles (0 For Inner Nodes)
+	 */
+	private int[] counts;
+	/**
+	 * The Three Corners Of Each Triangle In Leaf Order, 9 Floats Per Triangle
+	 */
+	private final float[] corners;
+	/**
+	 * Original Index Of Each Triangle In Leaf Order
+	 */
+	private final int[] order;
+
+	private int[] stack = new int[64];
+	private int lastTriangle = -1;
+
+	/**
+	 * Build The Tree Over An Indexed Triangle List
+	 * @param positions Vector3 Components Of The Vertex Positions
+	 * @param indices Three Vertex Indices Per Triangle
+	 * @param indexCount Number Of Indices To Use
+	 */
+	public TriangleBVH(FloatBuffer positions, IntBuffer indices, int indexCount) {
+		triangleCount = indexCount / 3;
+		order = new int[triangleCount];
+		corners = new float[triangleCount * 9];
+
+		// Gather The Corners, Triangle Boxes And Centroids
+		float[] tris = new float[triangleCount * 9];
+		triBoxes = new float[triangleCount * BOX];
+		centroids = new float[triangleCount * 3];
+		for(int t = 0;t < triangleCount;t++) {
+			order[t] = t;
+			for(int c = 0;c < 3;c++) {
+				int v = indices.get(t * 3 + c) * 3;
+				for(int a = 0;a < 3;a++) tris[t * 9 + c * 3 + a] = positions.get(v + a);
+			}
+			for(int a = 0;a < 3;a++) {
+				float p0 = tris[t * 9 + a], p1 = tris[t * 9 + 3 + a], p2 = tris[t * 9 + 6 + a];
+				float min = Math.min(p0, Math.min(p1, p2)), max = Math.max(p0, Math.max(p1, p2));
+				triBoxes[t * BOX + a] = min;
+				triBoxes[t * BOX + 3 + a] = max;
+				centroids[t * 3 + a] = (min + max) * 0.5f;
+			}
+		}
+
+		int capacity = Math.max(1, 2 * ((triangleCount + LEAF_SIZE - 1) / LEAF_SIZE));
+		boxes = new float[capacity * BOX];
+		firsts = new int[capacity];
+		counts = new int[capacity];
+		if(triangleCount > 0) build();
+
+		// Copy The Corners Into Leaf Order
+		for(int i = 0;i < triangleCount;i++) {
+			System.arraycopy(tris, order[i] * 9, corners, i * 9, 9);
+		}
+	}
+	/**
+	 * Build The Tree Over The Triangles Of A Mesh
+	 */
+	public TriangleBVH(MeshData data) {
+		this(data.positions, data.indices, data.indexCount);
+	}
+
+	/**
+	 * @return Number Of Nodes In The Tree
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+	/**
+	 * @return Index (In The Original Index List, Divided By 3) Of The Triangle Hit By The Last Successful Ray Cast
+	 */
+	public int getLastTriangle() {
+		return lastTriangle;
+	}
+
+	/**
+	 * Find The Nearest Triangle Hit By A Ray (Both Sides Of A Triangle Are Hit)
+	 * @param ray Ray In The Same Space As The Positions
+	 * @param maxDistance Search Limit
+	 * @return Distance To The Hit, Or Infinity If Nothing Is Hit Before The Limit
+	 */
+	public float raycast(Ray ray, float maxDistance) {
+		float ox = ray.origin.x, oy = ray.origin.y, oz = ray.origin.z;
+		float dx = ray.direction.x, dy = ray.direction.y, dz = ray.direction.z;
+		float ix = 1 / dx, iy = 1 / dy, iz = 1 / dz;
+		float best = Float.POSITIVE_INFINITY;
+		if(nodeCount == 0) return best;
+
+		int top = 0;
+		stack[top++] = 0;
+		while(top > 0) {
+			int n = stack[--top];
+			int o = n * BOX;
+			if(Ray.intersectBox(boxes[o], boxes[o + 1], boxes[o + 2], boxes[o + 3], boxes[o + 4], boxes[o + 5],
+					ox, oy, oz, ix, iy, iz, maxDistance) > maxDistance) {
+				continue;
+			}
+			if(counts[n] > 0) {
+				int end = firsts[n] + counts[n];
+				for(int t = firsts[n];t < end;t++) {
+					float d = intersectTriangle(t * 9, ox, oy, oz, dx, dy, dz);
+					if(d <= maxDistance) {
+						maxDistance = best = d;
+						lastTriangle = order[t];
+					}
+				}
+			}
+			else {
+				// Push The Farther Child First So The Nearer One Is Searched First
+				int a = firsts[n], b = a + 1;
+				int oa = a * BOX, ob = b * BOX;
+				float ta = Ray.intersectBox(boxes[oa], boxes[oa + 1], boxes[oa + 2], boxes[oa + 3], boxes[oa + 4], boxes[oa + 5],
+						ox, oy, oz, ix, iy, iz, maxDistance);
+				float tb = Ray.intersectBox(boxes[ob], boxes[ob + 1], boxes[ob + 2], boxes[ob + 3], boxes[ob + 4], boxes[ob + 5],
+						ox, oy, oz, ix, iy, iz, maxDistance);
+				if(ta > tb) {
+					int s = a; a = b; b = s;
+					float st = ta; ta = tb; tb = st;
+				}
+				if(tb <= maxDistance) top = push(top, b);
+				if(ta <= maxDistance) top = push(top, a);
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Ray-Triangle Intersection (Moller-Trumbore)
+	 * @param c Offset Of The Triangle's Corners
+	 * @return Distance Along The Ray, Or Infinity On A Miss
+	 */
+	private float intersectTriangle(int c, float ox, float oy, float oz, float dx, float dy, float dz) {
+		float[] p = corners;
+		float e1x = p[c + 3] - p[c], e1y = p[c + 4] - p[c + 1], e1z = p[c + 5] - p[c + 2];
+		float e2x = p[c + 6] - p[c], e2y = p[c + 7] - p[c + 1], e2z = p[c + 8] - p[c + 2];
+
+		// Determinant From The Direction And Second Edge
+		float px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+		float det = e1x * px + e1y * py + e1z * pz;
+		if(det == 0) return Float.POSITIVE_INFINITY;
+		float invDet = 1 / det;
+
+		// Barycentric Coordinates
+		float sx = ox - p[c], sy = oy - p[c + 1], sz = oz - p[c + 2];
+		float u = (sx * px + sy * py + sz * pz) * invDet;
+		if(u < 0 || u > 1) return Float.POSITIVE_INFINITY;
+		float qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+		float v = (dx * qx + dy * qy + dz * qz) * invDet;
+		if(v < 0 || u + v > 1) return Float.POSITIVE_INFINITY;
+
+		float t = (e2x * qx + e2y * qy + e2z * qz) * invDet;
+		return t >= 0 ? t : Float.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Scratch Space Of The Build
+	 */
+	private float[] triBoxes, centroids;
+	private final int[] binCounts = new int[3 * BINS];
+	private final float[] binBoxes = new float[3 * BINS * BOX];
+	private final float[] rightAreas = new float[BINS];
+	private final float[] sweepBox = new float[BOX];
+	private final float[] cMin = new float[3], cMax = new float[3], scales = new float[3];
+	private int bestAxis, bestBin;
+
+	/**
+	 * Split Nodes Top-Down.  The Triangle Boxes And Centroids Are Partitioned Along With {@link #order},
+	 * So Every Pass Over A Node Reads Them Sequentially.
+	 */
+	private void build() {
+		// Work List Of {node, first, count}
+		int[] work = new int[64 * 3];
+		int top = 0;
+		allocate();
+		work[top++] = 0;
+		work[top++] = 0;
+		work[top++] = triangleCount;
+		while(top > 0) {
+			int count = work[--top];
+			int first = work[--top];
+			int node = work[--top];
+			int end = first + count;
+
+			// Pass 1: Bound The Triangles And Their Centroids
+			boundNode(node, first, end);
+			firsts[node] = first;
+			counts[node] = count;
+			if(count <= LEAF_SIZE) continue;
+
+			// Pass 2: Bin The Triangles Along Every Axis And Find The Cheapest Split Plane
+			binNode(first, end);
+			float bestCost = findSplit(count);
+
+			// Every Centroid Coincides: No Plane Can Separate The Triangles
+			if(bestAxis < 0) continue;
+			float nodeArea = area(boxes, node * BOX);
+			if(TRAVERSAL_COST * nodeArea + bestCost >= count * nodeArea && count <= MAX_LEAF_SIZE) continue;
+
+			// Pass 3: Partition The Triangles In Place And Queue The Children
+			int mid = partition(first, end);
+			int left = allocate();
+			allocate();
+			firsts[node] = left;
+			counts[node] = 0;
+			if(top + 6 > work.length) work = Arrays.copyOf(work, work.length * 2);
+			work[top++] = left + 1;
+			work[top++] = mid;
+			work[top++] = end - mid;
+			work[top++] = left;
+			work[top++] = first;
+			work[top++] = mid - first;
+		}
+		triBoxes = null;
+		centroids = null;
+	}
+	private void boundNode(int node, int first, int end) {
+		float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+		float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+		float cMinX = Float.POSITIVE_INFINITY, cMinY = Float.POSITIVE_INFINITY, cMinZ = Float.POSITIVE_INFINITY;
+		float cMaxX = Float.NEGATIVE_INFINITY, cMaxY = Float.NEGATIVE_INFINITY, cMaxZ = Float.NEGATIVE_INFINITY;
+		for(int i = first;i < end;i++) {
+			int o = i * BOX;
+			minX = Math.min(minX, triBoxes[o]);
+			minY = Math.min(minY, triBoxes[o + 1]);
+			minZ = Math.min(minZ, triBoxes[o + 2]);
+			maxX = Math.max(maxX, triBoxes[o + 3]);
+			maxY = Math.max(maxY, triBoxes[o + 4]);
+			maxZ = Math.max(maxZ, triBoxes[o + 5]);
+			float cx = centroids[i * 3], cy = centroids[i * 3 + 1], cz = centroids[i * 3 + 2];
+			cMinX = Math.min(cMinX, cx); cMaxX = Math.max(cMaxX, cx);
+			cMinY = Math.min(cMinY, cy); cMaxY = Math.max(cMaxY, cy);
+			cMinZ = Math.min(cMinZ, cz); cMaxZ = Math.max(cMaxZ, cz);
+		}
+		int o = node * BOX;
+		boxes[o] = minX; boxes[o + 1] = minY; boxes[o + 2] = minZ;
+		boxes[o + 3] = maxX; boxes[o + 4] = maxY; boxes[o + 5] = maxZ;
+		cMin[0] = cMinX; cMin[1] = cMinY; cMin[2] = cMinZ;
+		cMax[0] = cMaxX; cMax[1] = cMaxY; cMax[2] = cMaxZ;
+	}
+	private void binNode(int first, int end) {
+		Arrays.fill(binCounts, 0);
+		for(int b = 0;b < 3 * BINS;b++) {
+			resetBox(binBoxes, b * BOX);
+		}
+		for(int a = 0;a < 3;a++) {
+			float extent = cMax[a] - cMin[a];
+			scales[a] = extent > 0 ? BINS / extent : 0;
+		}
+		for(int i = first;i < end;i++) {
+			int to = i * BOX;
+			for(int axis = 0;axis < 3;axis++) {
+				int b = axis * BINS + bin(centroids[i * 3 + axis], cMin[axis], scales[axis]);
+				binCounts[b]++;
+				growBox(binBoxes, b * BOX, triBoxes, to);
+			}
+		}
+	}
+	/**
+	 * Sweep The Bins Of Every Axis, Leaving The Cheapest Plane In bestAxis (-1 If There Is None) And bestBin
+	 * @return Surface Area Heuristic Cost Of The Plane
+	 */
+	private float findSplit(int count) {
+		float bestCost = Float.POSITIVE_INFINITY;
+		bestAxis = -1;
+		for(int axis = 0;axis < 3;axis++) {
+			if(scales[axis] == 0) continue;
+			int base = axis * BINS;
+
+			// Area Right Of Every Plane, Then Cost Of Each Plane From The Left
+			float[] box = sweepBox;
+			resetBox(box, 0);
+			for(int b = BINS - 1;b > 0;b--) {
+				growBox(box, 0, binBoxes, (base + b) * BOX);
+				rightAreas[b] = area(box, 0);
+			}
+			resetBox(box, 0);
+			int leftCount = 0;
+			for(int b = 0;b < BINS - 1;b++) {
+				growBox(box, 0, binBoxes, (base + b) * BOX);
+				leftCount += binCounts[base + b];
+				int rightCount = count - leftCount;
+				if(leftCount == 0 || rightCount == 0) continue;
+				float cost = leftCount * area(box, 0) + rightCount * rightAreas[b + 1];
+				if(cost < bestCost) {
+					bestCost = cost;
+					bestAxis = axis;
+					bestBin = b;
+				}
+			}
+		}
+		return bestCost;
+	}
+	/**
+	 * Move Triangles Left Of The Best Plane To The Front
+	 * @return Position Of The First Triangle On The Right
+	 */
+	private int partition(int first, int end) {
+		float min = cMin[bestAxis], scale = scales[bestAxis];
+		int i = first, j = end - 1;
+		while(i <= j) {
+			if(bin(centroids[i * 3 + bestAxis], min, scale) <= bestBin) {
+				i++;
+			}
+			else {
+				swap(i, j);
+				j--;
+			}
+		}
+		return i;
+	}
+	private void swap(int i, int j) {
+		int s = order[i]; order[i] = order[j]; order[j] = s;
+		for(int a = 0;a < BOX;a++) {
+			float f = triBoxes[i * BOX + a]; triBoxes[i * BOX + a] = triBoxes[j * BOX + a]; triBoxes[j * BOX + a] = f;
+		}
+		for(int a = 0;a < 3;a++) {
+			float f = centroids[i * 3 + a]; centroids[i * 3 + a] = centroids[j * 3 + a]; centroids[j * 3 + a] = f;
+		}
+	}
+	private static int bin(float c, float min, float scale) {
+		return Math.min(BINS - 1, (int)((c - min) * scale));
+	}
+	private static void resetBox(float[] box, int o) {
+		for(int a = 0;a < 3;a++) {
+			box[o + a] = Float.POSITIVE_INFINITY;
+			box[o + 3 + a] = Float.NEGATIVE_INFINITY;
+		}
+	}
+	private static void growBox(float[] box, int o, float[] src, int so) {
+		for(int a = 0;a < 3;a++) {
+			box[o + a] = Math.min(box[o + a], src[so + a]);
+			box[o + 3 + a] = Math.max(box[o + 3 + a], src[so + 3 + a]);
+		}
+	}
+	/**
+	 * Surface Area Of A Box (Up To A Constant Factor), 0 For An Empty Box
+	 */
+	private static float area(float[] box, int o) {
+		float dx = box[o + 3] - box[o], dy = box[o + 4] - box[o + 1], dz = box[o + 5] - box[o + 2];
+		if(!(dx >= 0)) return 0;
+		return dx * dy + dy * dz + dz * dx;
+	}
+
+	private int allocate() {
+		if(nodeCount == firsts.length) {
+			int n = firsts.length * 2;
+			boxes = Arrays.copyOf(boxes, n * BOX);
+			firsts = Arrays.copyOf(firsts, n);
+			counts = Arrays.copyOf(counts, n);
+		}
+		return nodeCount++;
+	}
+	private int push(int top, int n) {
+		if(top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+		stack[top] = n;
+		return top + 1;
+	}
+}
@@ -7,6 +7,7 @@ import javax.xml.transform.TransformerException;
 
 import org.lwjgl.input.Keyboard;
 import org.lwjgl.input.Mouse;
+import org.lwjgl.opengl.Display;
 import org.lwjgl.opengl.GL11;
 
 import blister.GameScreen;
@@ -17,18 +18,22 @@ import blister.input.KeyboardKeyEventArgs;
 import anim.Animator;
 import common.Scene;
 import common.event.SceneReloadEvent;
+import common.event.SceneTransformationEvent;
 import gl.CameraController;
 import gl.GridRenderer;
 import gl.RenderCamera;
 import gl.RenderController;
 import gl.RenderObject;
 import gl.Renderer;
+import gl.SceneSnapshotter;
 import gl.manip.ManipController;
 import form.RPMaterialData;
 import form.RPMeshData;
 import form.RPTextureData;
 import form.ScenePanel;
 import egl.GLError;
+import egl.GLUniformHandle;
+import egl.math.Matrix4;
 import egl.math.Vector2;
 import egl.math.Vector3;
 import ext.csharp.ACEventFunc;
@@ -40,8 +45,15 @@ public class ViewScreen extends GameScreen {
 	boolean pick;
 	int prevCamScroll = 0;
 	boolean wasPickPressedLast = false;
+	/**
+	 * Alt + Left Drag Selects Every Object In A Rectangle, Applied On Release
+	 */
+	boolean isBoxSelecting = false, boxSelect = false;
+	int boxStartX, boxStartY, boxEndX, boxEndY;
 	boolean showGrid = true;
 	boolean useTimelineMouseOver = true;
+	String title;
+	double lastStatsTime = 0;
 	
 	SceneApp app;
 	ScenePanel sceneTree;
@@ -55,6 +67,20 @@ public class ViewScreen extends GameScreen {
 	GridRenderer gridRenderer;
 	boolean updateAnimation;
 	Animator animator;
+	/**
+	 * Collects Published Transformations On Its Own Thread, So Editors And The Renderer Never Share Them
+	 * (Set useSnapshots To False Before Entering To Read The Scene Directly)
+	 */
+	SceneSnapshotter snapshotter;
+	boolean useSnapshots = true;
+	/**
+	 * Camera Transformation When The Screen Was Entered, Which The Benchmark Path Orbits From
+	 */
+	final Matrix4 benchmarkStart = new Matrix4();
+	/**
+	 * Seconds Of Simulated Time For One Orbit Of The Benchmark Camera Around The Vertical Axis
+	 */
+	double benchmarkOrbitPeriod = 10.0;
 	
 	@Override
 	public int getNext() {
@@ -157,8 +183,17 @@ public class ViewScreen extends GameScreen {
 		
 		rController = new RenderController(app.scene, new Vector2(app.getWidth(), app.getHeight()));
 		renderer.buildPasses(rController.env.root);
+		renderer.bounds = rController.env.bounds;
+		if(useSnapshots) {
+			snapshotter = new SceneSnapshotter(app.scene);
+			rController.setSnapshotter(snapshotter);
+			
+			// Benchmarks Take Snapshots After Each Update Instead, So Every Run Draws The Same Frames
+			if(!game.isBenchmarking()) snapshotter.start();
+		}
 		camController = new CameraController(app.scene, rController.env, null);
 		createCamController();
+		if(camController.camera != null) benchmarkStart.set(camController.camera.sceneObject.transformation);
 		manipController = new ManipController(rController.env, app.scene, app.otherWindow);
 		gridRenderer = new GridRenderer();
 		animator = new Animator();
@@ -178,10 +213,16 @@ public class ViewScreen extends GameScreen {
 		wasPickPressedLast = false;
 		updateAnimation = false;
 		prevCamScroll = 0;
+		title = Display.getTitle();
 	}
 	@Override
 	public void onExit(GameTime gameTime) {
+		Display.setTitle(title);
 		KeyboardEventDispatcher.OnKeyPressed.remove(onKeyPress);
+		if(snapshotter != null) {
+			snapshotter.stop();
+			snapshotter = null;
+		}
 		rController.dispose();
 		manipController.dispose();
 	}
@@ -198,7 +239,6 @@ public class ViewScreen extends GameScreen {
 	
 	@Override
 	public void update(GameTime gameTime) {
-		pick = false;
 		int curCamScroll = 0;
 
 		if(Keyboard.isKeyDown(Keyboard.KEY_EQUALS)) curCamScroll++;
@@ -211,7 +251,10 @@ public class ViewScreen extends GameScreen {
 		}
 		prevCamScroll = curCamScroll;
 		
-		if(camController.camera != null) {
+		if(camController.camera != null && game.isBenchmarking()) {
+			moveBenchmarkCamera(gameTime);
+		}
+		else if(camController.camera != null) {
 			camController.update(gameTime.elapsed);
 			manipController.checkMouse(Mouse.getX(), Mouse.getY(), camController.camera);
 		}
@@ -222,6 +265,21 @@ public class ViewScreen extends GameScreen {
 		}
 		else wasPickPressedLast = false;
 		
+		boolean isAltDown = Keyboard.isKeyDown(Keyboard.KEY_LMENU) || Keyboard.isKeyDown(Keyboard.KEY_RMENU);
+		if(Mouse.isButtonDown(0) && isAltDown) {
+			if(!isBoxSelecting) {
+				boxStartX = Mouse.getX();
+				boxStartY = Mouse.getY();
+			}
+			isBoxSelecting = true;
+		}
+		else if(isBoxSelecting) {
+			isBoxSelecting = false;
+			boxSelect = true;
+			boxEndX = Mouse.getX();
+			boxEndY = Mouse.getY();
+		}
+		
 		// View A Different Scene
 		if(rController.isNewSceneRequested()) {
 			setState(ScreenState.ChangeNext);
@@ -238,6 +296,16 @@ public class ViewScreen extends GameScreen {
 			// rController.animEngine.updateTransformations();
 			updateAnimation = false;
 		}
+		
+		if(snapshotter != null && game.isBenchmarking()) snapshotter.step();
+	}
+	/**
+	 * Orbit The Camera Around Its Parent's Vertical Axis (The World's For Cameras Below The Root), As A Function Of Simulated Time Only
+	 */
+	private void moveBenchmarkCamera(GameTime gameTime) {
+		float angle = (float)(2 * Math.PI * gameTime.total / benchmarkOrbitPeriod);
+		camController.camera.sceneObject.transformation.set(benchmarkStart).mulAfter(Matrix4.createRotationY(angle));
+		app.scene.sendEvent(new SceneTransformationEvent(camController.camera.sceneObject));
 	}
 	
 	@Override
@@ -245,10 +313,17 @@ public class ViewScreen extends GameScreen {
 
 		
 		rController.update(renderer, camController);
+		renderer.resolvePicks();
 
+		// Clicks Are Seen By Updates, Of Which A Frame May Run None Or Several
 		if(pick && camController.camera != null) {
 			manipController.checkPicking(renderer, camController.camera, Mouse.getX(), Mouse.getY());
 		}
+		pick = false;
+		if(boxSelect && camController.camera != null) {
+			manipController.boxSelect(renderer, camController.camera, boxStartX, boxStartY, boxEndX, boxEndY);
+		}
+		boxSelect = false;
 		
 		Vector3 bg = app.scene.background;
 		GL11.glClearColor(bg.x, bg.y, bg.z, 0);
@@ -260,6 +335,15 @@ public class ViewScreen extends GameScreen {
 			manipController.draw(camController.camera);
 			if (showGrid)
 				gridRenderer.draw(camController.camera);
+			
+			// Report Culling, Uniform Upload And Selection Results In The Title About Once A Second
+			if(gameTime.total - lastStatsTime >= 1.0) {
+				lastStatsTime = gameTime.total;
+				Display.setTitle(title + " - Visible: " + renderer.visibleCount + " Culled: " + renderer.culledCount +
+					" Uniforms Issued: " + GLUniformHandle.issuedCount + " Skipped: " + GLUniformHandle.skippedCount +
+					" Selected: " + manipController.getSelection().size());
+				GLUniformHandle.resetCounters();
+			}
 		}
 		
 		RenderObject co = manipController.getCurrentObject();
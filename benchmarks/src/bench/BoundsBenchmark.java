@@ -0,0 +1,71 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import egl.math.Frustum;
+import gl.RenderEnvironment;
+import gl.RenderObject;
+import gl.RenderTreeBuilder;
+
+/**
+ * Culling Against The Bounds Tree Versus Testing Every Object, And Keeping The Tree Up To Date.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoundsBenchmark {
+	public RenderEnvironment env;
+	public RenderObject[] objects;
+	public Frustum frustum = new Frustum();
+	public ArrayList<RenderObject> found = new ArrayList<>();
+	public int next = 0;
+
+	@Setup
+	public void setup() {
+		env = Scenes.createBoundsEnvironment();
+		objects = env.objects.values().toArray(new RenderObject[0]);
+		frustum.set(Scenes.createViewProjection());
+	}
+
+	@Benchmark
+	public ArrayList<RenderObject> queryFrustum() {
+		found.clear();
+		env.bounds.query(frustum, found);
+		return found;
+	}
+	@Benchmark
+	public ArrayList<RenderObject> intersectEveryObject() {
+		found.clear();
+		for(RenderObject ro : objects) {
+			if(frustum.intersects(ro.worldBoundsMin, ro.worldBoundsMax)) found.add(ro);
+		}
+		return found;
+	}
+	/**
+	 * Move One Object And Refit The Tree
+	 */
+	@Benchmark
+	public RenderObject updateOneObject() {
+		// Jump Far Enough To Leave The Enlarged Leaf Every Time
+		RenderObject ro = objects[next++ % objects.length];
+		ro.sceneObject.transformation.m[12] = -ro.sceneObject.transformation.m[12];
+		env.markTransformDirty(ro.sceneObject);
+		RenderTreeBuilder.rippleDirtyTransformations(env);
+		return ro;
+	}
+}
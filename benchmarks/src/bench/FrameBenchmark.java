@@ -0,0 +1,76 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import anim.Bone;
+import common.Scene;
+import common.SceneCamera;
+import common.SceneObject;
+import egl.math.Matrix4;
+import egl.math.Vector2;
+import gl.RenderEnvironment;
+import gl.RenderTreeBuilder;
+
+/**
+ * The Per-Frame Transformation Path (Dirty Ripple, Camera Matrices, Bone Matrices) Below A Deep Chain.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar FrameBenchmark -prof gc
+ * </pre>
+ * The GC profiler's gc.alloc.rate.norm column gives the bytes allocated per frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FrameBenchmark {
+	@Param({ "1000" })
+	public int nodes;
+
+	public RenderEnvironment env;
+	public SceneCamera camera;
+	public SceneObject leaf;
+	public Bone bone;
+	public Matrix4 mBone = new Matrix4();
+
+	@Setup
+	public void setup() {
+		// A Camera And A Deep Chain Of Objects Below The Root
+		Scene scene = new Scene();
+		camera = new SceneCamera();
+		scene.addObject(new Scene.NameBindSceneObject("Camera", camera));
+		for(int i = 0;i < nodes;i++) {
+			leaf = new SceneObject();
+			leaf.parent = i == 0 ? Scene.ROOT_NODE_NAME : "Node" + (i - 1);
+			scene.addObject(new Scene.NameBindSceneObject("Node" + i, leaf));
+		}
+		env = new RenderEnvironment(new Vector2(800, 600));
+		RenderTreeBuilder.buildTree(scene, env);
+
+		bone = new Bone("Bone", 0);
+		bone.offset.set(1, 2, 3);
+	}
+
+	@Benchmark
+	public Matrix4 frame() {
+		camera.transformation.m[12] += 0.001f;
+		env.markTransformDirty(camera);
+		leaf.transformation.m[13] += 0.001f;
+		env.markTransformDirty(leaf);
+		RenderTreeBuilder.rippleDirtyTransformations(env);
+		return bone.createTransformation(mBone);
+	}
+}
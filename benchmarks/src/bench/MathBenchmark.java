@@ -0,0 +1,49 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import egl.math.Matrix4;
+import egl.math.Quat;
+
+/**
+ * Single Operations Of egl.math.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MathBenchmark {
+	public Matrix4 a = Matrix4.createRotationX(0.3f).mulAfter(Matrix4.createTranslation(1, 2, 3));
+	public Matrix4 b = Matrix4.createRotationY(0.7f);
+	public Matrix4 out = new Matrix4();
+	public Quat qa = new Quat(0.3f, 0.1f, 0.8f, 0.2f).normalize();
+	public Quat qb = new Quat(0.9f, -0.2f, 0.1f, 0.4f).normalize();
+	public float t = 0;
+
+	@Benchmark
+	public Matrix4 matrixMulAfter() {
+		return a.mulAfter(b, out);
+	}
+	@Benchmark
+	public Matrix4 matrixInvert() {
+		return Matrix4.invert(a, out);
+	}
+	@Benchmark
+	public Quat quatSlerp() {
+		// Sweep The Parameter So The Result Cannot Be Folded
+		t = t > 1 ? 0 : t + 0.001f;
+		return Quat.slerp(qa, qb, t);
+	}
+}
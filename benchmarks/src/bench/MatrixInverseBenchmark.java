@@ -0,0 +1,154 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import egl.math.Matrix3;
+import egl.math.Matrix4;
+import egl.math.Vector3;
+
+/**
+ * Compares The Specialized Inverses In egl.math With The General Path.  Each Operation Inverts
+ * One Of {@link #COUNT} Random Matrices.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar bench.MatrixInverseBenchmark
+ * </pre>
+ * Running The Class Directly Checks Precision Instead: The Largest Relative Element Difference From
+ * The General 4x4 Inverse (Or From Matrix3.invert().transpose() For Normal Matrices).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MatrixInverseBenchmark {
+	/**
+	 * Number Of Matrices Of Each Kind
+	 */
+	public static final int COUNT = 4096;
+
+	public Matrix4[] rigid;
+	public Matrix4[] affine;
+	public Matrix4 out = new Matrix4();
+	public Matrix4 scratch = new Matrix4();
+	public Matrix3 out3 = new Matrix3();
+
+	/**
+	 * Build A Random Rigid-Body Transformation
+	 */
+	public static Matrix4 createRigid(Random r, Matrix4 out) {
+		Vector3 axis = new Vector3(r.nextFloat() - 0.5f, r.nextFloat() - 0.5f, r.nextFloat() - 0.5f).normalize();
+		float angle = r.nextFloat() * 2 * (float)Math.PI;
+		float c = (float)Math.cos(angle), s = (float)Math.sin(angle), t = 1 - c;
+		out.setIdentity();
+		out.m[0] = t * axis.x * axis.x + c;          out.m[4] = t * axis.x * axis.y - s * axis.z; out.m[8]  = t * axis.x * axis.z + s * axis.y;
+		out.m[1] = t * axis.x * axis.y + s * axis.z; out.m[5] = t * axis.y * axis.y + c;          out.m[9]  = t * axis.y * axis.z - s * axis.x;
+		out.m[2] = t * axis.x * axis.z - s * axis.y; out.m[6] = t * axis.y * axis.z + s * axis.x; out.m[10] = t * axis.z * axis.z + c;
+		out.m[12] = (r.nextFloat() - 0.5f) * 100;
+		out.m[13] = (r.nextFloat() - 0.5f) * 100;
+		out.m[14] = (r.nextFloat() - 0.5f) * 100;
+		return out;
+	}
+	/**
+	 * Build A Random Affine Transformation (Rigid Motion With Non-Uniform Scale)
+	 */
+	public static Matrix4 createAffine(Random r, Matrix4 out) {
+		createRigid(r, out);
+		return out.mulBefore(Matrix4.createScale(0.1f + r.nextFloat() * 4, 0.1f + r.nextFloat() * 4, 0.1f + r.nextFloat() * 4));
+	}
+
+	@Setup
+	public void setup() {
+		Random r = new Random(COUNT);
+		rigid = new Matrix4[COUNT];
+		affine = new Matrix4[COUNT];
+		for(int i = 0;i < COUNT;i++) {
+			rigid[i] = createRigid(r, new Matrix4());
+			affine[i] = createAffine(r, new Matrix4());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public Matrix4 generalInverse() {
+		for(int i = 0;i < COUNT;i++) Matrix4.invert(affine[i], out);
+		return out;
+	}
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public Matrix4 affineInverse() {
+		for(int i = 0;i < COUNT;i++) Matrix4.invertAffine(affine[i], out);
+		return out;
+	}
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public Matrix4 rigidInverse() {
+		for(int i = 0;i < COUNT;i++) Matrix4.invertRigid(rigid[i], out);
+		return out;
+	}
+	/**
+	 * The Normal Matrix Through The General 4x4 Path (Clone, Invert, Extract, Transpose)
+	 */
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public Matrix3 generalInverseTranspose() {
+		Matrix3 m = null;
+		for(int i = 0;i < COUNT;i++) m = new Matrix3(scratch.set(affine[i]).invert()).transpose();
+		return m;
+	}
+	/**
+	 * The Normal Matrix From Cofactors
+	 */
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public Matrix3 normalMatrix() {
+		for(int i = 0;i < COUNT;i++) Matrix4.normalMatrix(affine[i], out3);
+		return out3;
+	}
+
+	private static double error(float[] a, float[] b) {
+		double e = 0;
+		for(int i = 0;i < a.length;i++) {
+			e = Math.max(e, Math.abs(a[i] - b[i]) / Math.max(1.0, Math.abs(b[i])));
+		}
+		return e;
+	}
+
+	public static void main(String[] args) {
+		MatrixInverseBenchmark b = new MatrixInverseBenchmark();
+		b.setup();
+
+		Matrix4 ref = new Matrix4(), fast = new Matrix4();
+		Matrix3 ref3 = new Matrix3(), fast3 = new Matrix3();
+		double eAffine = 0, eRigid = 0, eNormal = 0, eInvTranspose = 0;
+		int notRigid = 0;
+		for(int i = 0;i < COUNT;i++) {
+			Matrix4.invert(b.affine[i], ref);
+			eAffine = Math.max(eAffine, error(Matrix4.invertAffine(b.affine[i], fast).m, ref.m));
+
+			Matrix4.invert(b.rigid[i], ref);
+			eRigid = Math.max(eRigid, error(Matrix4.invertRigid(b.rigid[i], fast).m, ref.m));
+			if(!b.rigid[i].isRigid(1e-5f)) notRigid++;
+
+			ref3.set(new Matrix3(b.affine[i])).invert().transpose();
+			eNormal = Math.max(eNormal, error(Matrix4.normalMatrix(b.affine[i], fast3).m, ref3.m));
+			eInvTranspose = Math.max(eInvTranspose, error(Matrix3.invertTranspose(new Matrix3(b.affine[i]), fast3).m, ref3.m));
+		}
+		System.out.printf("Max Relative Error: affine %.3g, rigid %.3g, normal %.3g, Matrix3 inverse-transpose %.3g%n",
+				eAffine, eRigid, eNormal, eInvTranspose);
+		System.out.printf("Rigid Matrices Rejected By isRigid: %d of %d%n", notRigid, COUNT);
+	}
+}
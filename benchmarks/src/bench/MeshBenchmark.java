@@ -0,0 +1,57 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import egl.math.Vector3i;
+import mesh.MeshConverter;
+import mesh.MeshData;
+import mesh.OBJMesh;
+import mesh.OBJParser;
+
+/**
+ * Loading And Converting The Teapot Mesh ({@link Scenes#TEAPOT}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MeshBenchmark {
+	public String teapot;
+	/**
+	 * Teapot With Triangles Indexed By Position, Like RenderEnvironment Does
+	 */
+	public OBJMesh indexed;
+
+	@Setup
+	public void setup() {
+		teapot = Scenes.findTeapot();
+		indexed = OBJParser.parse(teapot);
+		for(Vector3i t : indexed.triangles) {
+			t.x = indexed.vertices.get(t.x).x;
+			t.y = indexed.vertices.get(t.y).x;
+			t.z = indexed.vertices.get(t.z).x;
+		}
+	}
+
+	@Benchmark
+	public OBJMesh parse() {
+		return OBJParser.parse(teapot);
+	}
+	@Benchmark
+	public MeshData convertToVertexNormals() {
+		return MeshConverter.convertToVertexNormals(indexed.positions, indexed.triangles);
+	}
+}
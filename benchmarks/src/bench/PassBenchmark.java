@@ -0,0 +1,76 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import common.Material;
+import common.Mesh;
+import gl.RenderEnvironment;
+import gl.RenderMaterial;
+import gl.RenderMesh;
+import gl.RenderObject;
+import gl.Renderer;
+
+/**
+ * Building And Updating Render Passes For A Balanced Scene Spread Over 8 Meshes And 4 Materials.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PassBenchmark {
+	public RenderEnvironment env;
+	public RenderObject[] objects;
+	public RenderMaterial[] materials;
+	public Renderer renderer;
+	public int next = 0;
+
+	@Setup
+	public void setup() {
+		env = Scenes.createEnvironment(Scenes.Shape.BALANCED, Scenes.SCENE_SIZE);
+		RenderMesh[] meshes = new RenderMesh[8];
+		for(int i = 0;i < meshes.length;i++) meshes[i] = new RenderMesh(new Mesh());
+		materials = new RenderMaterial[4];
+		for(int i = 0;i < materials.length;i++) materials[i] = new RenderMaterial(new Material());
+		Random r = new Random(1);
+		for(RenderObject ro : env.objects.values()) {
+			ro.mesh = meshes[r.nextInt(meshes.length)];
+			ro.material = materials[r.nextInt(materials.length)];
+		}
+		objects = env.objects.values().toArray(new RenderObject[0]);
+		renderer = new Renderer();
+		renderer.buildPasses(env.root);
+	}
+
+	/**
+	 * Rebuild Every Pass From The Scene Tree
+	 */
+	@Benchmark
+	public Renderer buildPasses() {
+		renderer.buildPasses(env.root);
+		return renderer;
+	}
+	/**
+	 * Move One Object To Another Material
+	 */
+	@Benchmark
+	public RenderObject updateObject() {
+		RenderObject ro = objects[next++ % objects.length];
+		ro.material = materials[(next >> 4) % materials.length];
+		renderer.updateObject(ro);
+		return ro;
+	}
+}
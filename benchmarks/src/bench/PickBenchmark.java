@@ -0,0 +1,67 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import egl.math.Matrix4;
+import egl.math.Ray;
+import gl.RenderEnvironment;
+import gl.RenderObject;
+import gl.RayPicker;
+import mesh.TriangleBVH;
+
+/**
+ * Casting Rays Into One Large Mesh And Picking Through A Scene Of Tessellated Spheres.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PickBenchmark {
+	/**
+	 * Sphere Of About 1M Triangles
+	 */
+	public TriangleBVH sphere;
+	public Ray ray = new Ray();
+	/**
+	 * Scene Whose Objects All Share A Finely Tessellated Sphere Inside Their Unit Cube
+	 */
+	public RenderEnvironment env;
+	public RayPicker picker = new RayPicker();
+	public Matrix4 mInverse = new Matrix4();
+	public Random r = new Random(1);
+
+	@Setup
+	public void setup() {
+		sphere = Scenes.createSphere(708);
+		env = Scenes.createBoundsEnvironment();
+		TriangleBVH small = Scenes.createSphere(64);
+		for(RenderObject ro : env.objects.values()) ro.mesh.triangles = small;
+		Matrix4.invert(Scenes.createViewProjection(), mInverse);
+	}
+
+	@Benchmark
+	public float raycastMesh() {
+		ray.origin.set(r.nextFloat() * 2 - 1, r.nextFloat() * 2 - 1, 2);
+		ray.direction.set(0, 0, -1);
+		return sphere.raycast(ray, 10);
+	}
+	@Benchmark
+	public RenderObject pick() {
+		picker.ray.setFromNDC(mInverse, r.nextFloat() * 2 - 1, r.nextFloat() * 2 - 1);
+		return picker.pick(env.bounds);
+	}
+}
@@ -0,0 +1,45 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gl.RenderEnvironment;
+import gl.RenderTreeBuilder;
+
+/**
+ * Full World Transformation Ripples Over Synthetic Scenes Of {@link Scenes#SCENE_SIZE} Nodes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SceneBenchmark {
+	@Param({ "CHAIN", "FAN", "BALANCED" })
+	public Scenes.Shape shape;
+
+	public RenderEnvironment env;
+
+	@Setup
+	public void setup() {
+		env = Scenes.createEnvironment(shape, Scenes.SCENE_SIZE);
+	}
+
+	@Benchmark
+	public RenderEnvironment rippleTransformations() {
+		RenderTreeBuilder.rippleTransformations(env);
+		return env;
+	}
+}
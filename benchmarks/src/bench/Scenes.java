@@ -0,0 +1,185 @@
+package bench;
+
+import java.io.File;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Random;
+
+import common.Mesh;
+import common.Scene;
+import common.SceneObject;
+import egl.NativeMem;
+import egl.math.Matrix4;
+import egl.math.Vector2;
+import egl.math.Vector3;
+import gl.RenderEnvironment;
+import gl.RenderMesh;
+import gl.RenderObject;
+import gl.RenderTreeBuilder;
+import mesh.TriangleBVH;
+
+/**
+ * Synthetic Scenes And Data Shared By The Benchmarks.  None Of Them Need A GL Context.
+ */
+public class Scenes {
+	/**
+	 * Shapes Of Synthetic Trees
+	 */
+	public enum Shape {
+		/**
+		 * Every Node Has Exactly One Child
+		 */
+		CHAIN,
+		/**
+		 * Every Node Is A Child Of The Root
+		 */
+		FAN,
+		/**
+		 * Every Node Has Up To Four Children
+		 */
+		BALANCED
+	}
+
+	/**
+	 * Number Of Nodes In Synthetic Scenes
+	 */
+	public static final int SCENE_SIZE = 10000;
+	/**
+	 * Mesh Used By The Loading Benchmarks, Relative To The a3 Directory
+	 */
+	public static final String TEAPOT = "data/meshes/teapot.obj";
+
+	/**
+	 * Find The Teapot Whether The Benchmarks Run From The Repository, a3 Or benchmarks Directory
+	 * @return Path To Pass To OBJParser.parse
+	 */
+	public static String findTeapot() {
+		String[] candidates = { TEAPOT, "a3/" + TEAPOT, "../a3/" + TEAPOT };
+		for(String path : candidates) {
+			if(new File(path).isFile()) return path;
+		}
+		throw new RuntimeException("Could Not Find " + TEAPOT + " (Run From The Repository Or a3 Directory)");
+	}
+
+	/**
+	 * Give A Scene Node Of A Synthetic Tree Its Parent
+	 * @param shape Shape Of The Tree
+	 * @param i Index Of The Node (Greater Than 0)
+	 * @return Index Of Its Parent
+	 */
+	public static int parentOf(Shape shape, int i) {
+		switch (shape) {
+		case CHAIN:
+			return i - 1;
+		case FAN:
+			return 0;
+		default:
+			return (i - 1) / 4;
+		}
+	}
+	/**
+	 * Build A Random Rigid Transformation
+	 */
+	private static void randomize(Random r, SceneObject so) {
+		so.transformation.set(Matrix4.createRotationY(r.nextFloat()));
+		so.transformation.mulAfter(Matrix4.createTranslation(new Vector3(r.nextFloat(), r.nextFloat(), r.nextFloat())));
+	}
+
+	/**
+	 * Build A Synthetic Tree Of RenderObjects With Random Rigid Transformations
+	 * @param shape Shape Of The Tree
+	 * @param n Number Of Nodes (Including The Root)
+	 * @return Roots To Pass To TransformHierarchy.build
+	 */
+	public static ArrayList<RenderObject> createTree(Shape shape, int n) {
+		Random r = new Random(n);
+		ArrayList<RenderObject> objs = new ArrayList<>(n);
+		for(int i = 0;i < n;i++) {
+			SceneObject so = new SceneObject();
+			randomize(r, so);
+			RenderObject ro = new RenderObject(so);
+			if(i > 0) {
+				ro.parent = objs.get(parentOf(shape, i));
+				ro.parent.children.add(ro);
+			}
+			objs.add(ro);
+		}
+		ArrayList<RenderObject> roots = new ArrayList<>();
+		roots.add(objs.get(0));
+		return roots;
+	}
+	/**
+	 * Build A Scene Of Random Rigid Transformations In The Given Shape Under The Root
+	 * @param shape Shape Of The Tree
+	 * @param n Number Of Nodes (Not Counting The Root)
+	 * @return The Scene
+	 */
+	public static Scene createScene(Shape shape, int n) {
+		Random r = new Random(n);
+		Scene scene = new Scene();
+		for(int i = 0;i < n;i++) {
+			SceneObject so = new SceneObject();
+			randomize(r, so);
+			if(i > 0) so.parent = shape == Shape.FAN ? Scene.ROOT_NODE_NAME : "Node" + parentOf(shape, i);
+			scene.addObject(new Scene.NameBindSceneObject("Node" + i, so));
+		}
+		return scene;
+	}
+	/**
+	 * Build The Render Tree Of A Synthetic Scene
+	 */
+	public static RenderEnvironment createEnvironment(Shape shape, int n) {
+		RenderEnvironment env = new RenderEnvironment(new Vector2(800, 600));
+		RenderTreeBuilder.buildTree(createScene(shape, n), env);
+		return env;
+	}
+	/**
+	 * Build A Balanced Synthetic Scene Whose Objects All Use A Unit Cube Mesh, So That They Are In The Bounds Tree
+	 */
+	public static RenderEnvironment createBoundsEnvironment() {
+		RenderEnvironment env = createEnvironment(Shape.BALANCED, SCENE_SIZE);
+		RenderMesh cube = new RenderMesh(new Mesh());
+		cube.boundsMin.set(-0.5f);
+		cube.boundsMax.set(0.5f);
+		for(RenderObject ro : env.objects.values()) {
+			ro.mesh = cube;
+			env.updateBounds(ro);
+		}
+		return env;
+	}
+	/**
+	 * Triangulate A Unit Sphere As A Latitude-Longitude Grid
+	 * @param n Grid Cells Along Each Direction (The Sphere Has 2 * n * n Triangles)
+	 * @return Triangle Tree Of The Sphere
+	 */
+	public static TriangleBVH createSphere(int n) {
+		FloatBuffer positions = NativeMem.createFloatBuffer((n + 1) * (n + 1) * 3);
+		for(int j = 0;j <= n;j++) {
+			for(int i = 0;i <= n;i++) {
+				double theta = 2 * Math.PI * i / n, phi = Math.PI * j / n;
+				positions.put((float)(Math.sin(phi) * Math.cos(theta)));
+				positions.put((float)Math.cos(phi));
+				positions.put((float)(Math.sin(phi) * Math.sin(theta)));
+			}
+		}
+		IntBuffer indices = NativeMem.createIntBuffer(n * n * 6);
+		for(int j = 0;j < n;j++) {
+			for(int i = 0;i < n;i++) {
+				int v = j * (n + 1) + i;
+				indices.put(v).put(v + 1).put(v + n + 1);
+				indices.put(v + 1).put(v + n + 2).put(v + n + 1);
+			}
+		}
+		return new TriangleBVH(positions, indices, n * n * 6);
+	}
+	/**
+	 * @return A Perspective View From Outside The Synthetic Scenes, Looking Across Them
+	 */
+	public static Matrix4 createViewProjection() {
+		Matrix4 world = Matrix4.createRotationY(0.5f).mulAfter(Matrix4.createTranslation(2, 1, 8));
+		Matrix4 view = Matrix4.invertAffine(world, new Matrix4());
+		Matrix4 proj = Matrix4.createPerspective(0.5f, 0.4f, 1, 100, new Matrix4());
+		return Matrix4.mul(proj, view, new Matrix4());
+	}
+}
@@ -0,0 +1,59 @@
+package bench;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gl.TransformHierarchy;
+
+/**
+ * Compares Serial And Fork/Join World Transformation Propagation Across Tree Shapes.
+ *
+ * Every combination of shape and mode runs in its own forked JVMs, so neither mode inherits a
+ * warmer JIT or heap from the other.  Compare the parallel scores with the common pool's
+ * parallelism, which each fork prints when it starts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+public class TransformBenchmark {
+	@Param({ "CHAIN", "FAN", "BALANCED" })
+	public Scenes.Shape shape;
+	@Param({ "false", "true" })
+	public boolean isParallel;
+	@Param({ "100000" })
+	public int nodes;
+
+	public TransformHierarchy hierarchy;
+
+	@Setup
+	public void setup() {
+		System.out.println("Common Pool Parallelism: " + ForkJoinPool.commonPool().getParallelism());
+		hierarchy = new TransformHierarchy();
+		hierarchy.build(Scenes.createTree(shape, nodes));
+		hierarchy.isParallel = isParallel;
+	}
+
+	/**
+	 * One Full Update Of Every Node
+	 */
+	@Benchmark
+	public TransformHierarchy update() {
+		hierarchy.update();
+		return hierarchy;
+	}
+}